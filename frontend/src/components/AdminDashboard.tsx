@@ -1,11 +1,12 @@
 import React, { useState, useEffect } from 'react'
 import { useNavigate } from 'react-router-dom'
 import { useAuth } from '../contexts/AuthContext'
+import { useMarketStream, upsertById } from '@/hooks/use-market-stream'
 import { Button } from './ui/button'
 import { Card, CardContent, CardHeader, CardTitle } from './ui/card'
 import { Badge } from './ui/badge'
 import { Alert, AlertDescription } from './ui/alert'
-import { LogOut, Users, TrendingUp, DollarSign, CheckCircle, XCircle } from 'lucide-react'
+import { LogOut, Users, TrendingUp, DollarSign, CheckCircle, XCircle, Bell } from 'lucide-react'
 import UpdateWalletModal from './UpdateWalletModal'
 import EditUserModal from './EditUserModal'
 
@@ -26,7 +27,9 @@ interface User {
 interface Order {
   id: number
   userId?: number
+  userName?: string
   commodityId?: number
+  commodityName?: string
   type: string
   quantity: number
   pricePerUnit?: number
@@ -64,6 +67,7 @@ const AdminDashboard: React.FC = () => {
   const [editUserModalOpen, setEditUserModalOpen] = useState(false)
   const [selectedUserId, setSelectedUserId] = useState<number | null>(null)
   const [selectedUser, setSelectedUser] = useState<User | null>(null)
+  const [unreadCount, setUnreadCount] = useState(0)
 
   const API_URL = 'http://localhost:8080'
 
@@ -71,24 +75,35 @@ const AdminDashboard: React.FC = () => {
     fetchData()
   }, [])
 
+  useMarketStream<Commodity, Order>({ adminId: user?.id }, {
+    onPrices: setCommodities,
+    onOrder: (order) => setOrders(prev => upsertById(prev, order)),
+    onNotification: () => setUnreadCount(prev => prev + 1),
+    onResync: () => fetchData()
+  }, user ? token : null)
+
   const fetchData = async () => {
     setLoading(true)
     try {
-      const [usersRes, ordersRes, commoditiesRes] = await Promise.all([
+      const [usersRes, ordersRes, commoditiesRes, unreadRes] = await Promise.all([
         fetch(`${API_URL}/api/admin/${user?.id}/users`, {
           headers: { 'Authorization': `Bearer ${token}` }
         }),
-        fetch(`${API_URL}/api/transaction/orders`, {
+        fetch(`${API_URL}/api/transaction/orders?adminId=${user?.id}`, {
           headers: { 'Authorization': `Bearer ${token}` }
         }),
         fetch(`${API_URL}/api/commodities`, {
           headers: { 'Authorization': `Bearer ${token}` }
+        }),
+        fetch(`${API_URL}/api/notifications/admin/${user?.id}/unread-count`, {
+          headers: { 'Authorization': `Bearer ${token}` }
         })
       ])
 
       if (usersRes.ok) setUsers(await usersRes.json())
-      if (ordersRes.ok) setOrders(await ordersRes.json())
+      if (ordersRes.ok) setOrders((await ordersRes.json()).items)
       if (commoditiesRes.ok) setCommodities(await commoditiesRes.json())
+      if (unreadRes.ok) setUnreadCount((await unreadRes.json()).unread)
     } catch (err) {
       setError('Failed to fetch data')
     } finally {
@@ -96,6 +111,18 @@ const AdminDashboard: React.FC = () => {
     }
   }
 
+  const markNotificationsRead = async () => {
+    try {
+      const response = await fetch(`${API_URL}/api/notifications/admin/${user?.id}/read-all`, {
+        method: 'PUT',
+        headers: { 'Authorization': `Bearer ${token}` }
+      })
+      if (response.ok) setUnreadCount(0)
+    } catch (err) {
+      setError('Failed to update notifications')
+    }
+  }
+
   const processOrder = async (orderId: number, status: 'approved' | 'rejected') => {
     try {
       const response = await fetch(`${API_URL}/api/transaction/orders/${orderId}/process`, {
@@ -232,6 +259,10 @@ const AdminDashboard: React.FC = () => {
                 <p className="text-sm font-medium text-gray-900">{user?.username}</p>
                 <p className="text-xs text-gray-600">Administrator</p>
               </div>
+              <Button variant="outline" onClick={markNotificationsRead} disabled={unreadCount === 0}>
+                <Bell className="h-4 w-4 mr-2" />
+                {unreadCount} new
+              </Button>
               <Button variant="outline" onClick={logout}>
                 <LogOut className="h-4 w-4 mr-2" />
                 Logout
@@ -1,6 +1,7 @@
-import React, { useState, useEffect } from 'react'
+import React, { useState, useEffect, useRef } from 'react'
 import { useNavigate } from 'react-router-dom'
 import { useAuth } from '../contexts/AuthContext'
+import { useMarketStream, upsertById } from '@/hooks/use-market-stream'
 import { Button } from '@/components/ui/button'
 import { Card, CardContent, CardHeader, CardTitle } from '@/components/ui/card'
 import { Input } from '@/components/ui/input'
@@ -13,7 +14,8 @@ interface User {
   username: string
   email: string
   walletBalance: number
-  admin?: any
+  adminId?: number
+  adminUsername?: string
   createdAt: string
   status: string
 }
@@ -39,7 +41,9 @@ interface Commodity {
 interface Order {
   id: number
   userId?: number
+  userName?: string
   commodityId?: number
+  commodityName?: string
   type: string
   quantity: number
   pricePerUnit?: number
@@ -52,6 +56,26 @@ interface Order {
   processedBy?: number
 }
 
+interface AggregateTotals {
+  adminId?: number
+  users: number
+  pendingOrders: number
+  approvedOrders: number
+  rejectedOrders: number
+  walletFloat: number
+  tradedNotional: Record<string, number>
+}
+
+interface DashboardSummary {
+  admins: number
+  totals: AggregateTotals
+  byAdmin: AggregateTotals[]
+  reconciledAt?: string
+}
+
+// Order bursts coalesce into at most one totals refresh per interval.
+const SUMMARY_REFRESH_MS = 2000
+
 const SuperAdminDashboard: React.FC = () => {
   const { user, logout, token } = useAuth()
   const navigate = useNavigate()
@@ -60,19 +84,53 @@ const SuperAdminDashboard: React.FC = () => {
   const [admins, setAdmins] = useState<Admin[]>([])
   const [commodities, setCommodities] = useState<Commodity[]>([])
   const [orders, setOrders] = useState<Order[]>([])
+  const [summary, setSummary] = useState<DashboardSummary | null>(null)
   const [loading, setLoading] = useState(false)
   const [error, setError] = useState('')
   const [selectedAdminUsers, setSelectedAdminUsers] = useState<User[]>([])
   const [showAdminDetails, setShowAdminDetails] = useState(false)
+  const summaryTimer = useRef<ReturnType<typeof setTimeout> | null>(null)
 
   const API_URL = import.meta.env.VITE_API_URL || 'http://localhost:8080'
 
   useEffect(() => {
     fetchData()
+    return () => {
+      if (summaryTimer.current) clearTimeout(summaryTimer.current)
+    }
   }, [])
 
+  useMarketStream<Commodity, Order>({}, {
+    onPrices: setCommodities,
+    onOrder: (order) => {
+      setOrders(prev => upsertById(prev, order))
+      scheduleSummaryRefresh()
+    },
+    onResync: () => fetchData()
+  }, user ? token : null)
+
+  const scheduleSummaryRefresh = () => {
+    if (summaryTimer.current) return
+    summaryTimer.current = setTimeout(() => {
+      summaryTimer.current = null
+      fetchSummary()
+    }, SUMMARY_REFRESH_MS)
+  }
+
+  const fetchSummary = async () => {
+    try {
+      const response = await fetch(`${API_URL}/api/superadmin/dashboard`, {
+        headers: { 'Authorization': `Bearer ${token}` }
+      })
+      if (response.ok) setSummary(await response.json())
+    } catch (err) {
+      setError('Failed to fetch dashboard totals')
+    }
+  }
+
   const fetchData = async () => {
     setLoading(true)
+    fetchSummary()
     try {
       const [usersRes, adminsRes, commoditiesRes, ordersRes] = await Promise.all([
         fetch(`${API_URL}/api/superadmin/users`, {
@@ -92,7 +150,7 @@ const SuperAdminDashboard: React.FC = () => {
       if (usersRes.ok) setUsers(await usersRes.json())
       if (adminsRes.ok) setAdmins(await adminsRes.json())
       if (commoditiesRes.ok) setCommodities(await commoditiesRes.json())
-      if (ordersRes.ok) setOrders(await ordersRes.json())
+      if (ordersRes.ok) setOrders((await ordersRes.json()).items)
     } catch (err) {
       setError('Failed to fetch data')
     } finally {
@@ -146,9 +204,9 @@ const SuperAdminDashboard: React.FC = () => {
           <Users className="h-4 w-4 text-muted-foreground" />
         </CardHeader>
         <CardContent>
-          <div className="text-2xl font-bold">{admins.length + users.length}</div>
+          <div className="text-2xl font-bold">{summary ? summary.admins + summary.totals.users : '-'}</div>
           <p className="text-xs text-muted-foreground">
-            {admins.length} Admins, {users.length} Users
+            {summary?.admins ?? 0} Admins, {summary?.totals.users ?? 0} Users
           </p>
         </CardContent>
       </Card>
@@ -159,9 +217,11 @@ const SuperAdminDashboard: React.FC = () => {
           <TrendingUp className="h-4 w-4 text-muted-foreground" />
         </CardHeader>
         <CardContent>
-          <div className="text-2xl font-bold">{orders.length}</div>
+          <div className="text-2xl font-bold">
+            {summary ? summary.totals.pendingOrders + summary.totals.approvedOrders + summary.totals.rejectedOrders : '-'}
+          </div>
           <p className="text-xs text-muted-foreground">
-            {orders.filter(o => o.status === 'pending').length} Pending
+            {summary?.totals.pendingOrders ?? 0} Pending
           </p>
         </CardContent>
       </Card>
@@ -173,7 +233,7 @@ const SuperAdminDashboard: React.FC = () => {
         </CardHeader>
         <CardContent>
           <div className="text-2xl font-bold">
-            ${users.reduce((sum, u) => sum + (u.walletBalance || 0), 0).toFixed(2)}
+            ${(summary?.totals.walletFloat ?? 0).toFixed(2)}
           </div>
           <p className="text-xs text-muted-foreground">
             Across all users
@@ -1,11 +1,12 @@
 import React, { useState, useEffect } from 'react'
 import { useAuth } from '../contexts/AuthContext'
+import { useMarketStream, upsertById } from '@/hooks/use-market-stream'
 import { Button } from '@/components/ui/button'
 import { Card, CardContent, CardDescription, CardHeader, CardTitle } from '@/components/ui/card'
 import { Input } from '@/components/ui/input'
 import { Badge } from '@/components/ui/badge'
 import { Alert, AlertDescription } from '@/components/ui/alert'
-import { LogOut, TrendingUp, History } from 'lucide-react'
+import { LogOut, TrendingUp, History, Briefcase } from 'lucide-react'
 
 interface Commodity {
   id: number
@@ -22,7 +23,9 @@ interface Commodity {
 interface Order {
   id: number
   userId?: number
+  userName?: string
   commodityId?: number
+  commodityName?: string
   type: string
   quantity: number
   pricePerUnit?: number
@@ -35,44 +38,66 @@ interface Order {
   processedBy?: number
 }
 
+interface Position {
+  commodityId: number
+  commodityName?: string
+  quantity: number
+  averageCost: number
+  marketPrice: number
+  realizedPnl: number
+}
+
+interface Portfolio {
+  positions: Position[]
+  realizedPnl: number
+}
+
 const UserDashboard: React.FC = () => {
   const { user, logout, token, refreshUser } = useAuth()
   const [activeTab, setActiveTab] = useState('commodities')
   const [commodities, setCommodities] = useState<Commodity[]>([])
   const [orders, setOrders] = useState<Order[]>([])
+  const [portfolio, setPortfolio] = useState<Portfolio | null>(null)
   const [loading, setLoading] = useState(false)
   const [error, setError] = useState('')
   const [success, setSuccess] = useState('')
   
-  const [tradingStates, setTradingStates] = useState<{[key: number]: {isTrading: boolean, orderType: 'buy' | 'sell', quantity: string}}>({})
+  const [tradingStates, setTradingStates] = useState<{[key: number]: {isTrading: boolean, orderType: 'buy' | 'sell', quantity: string, requestKey?: string}}>({})
 
 
   const API_URL = import.meta.env.VITE_API_URL || 'http://localhost:8080'
 
   useEffect(() => {
     fetchData()
-    
-    const interval = setInterval(() => {
-      fetchData()
-    }, 30000)
-    
-    return () => clearInterval(interval)
   }, [])
 
+  useMarketStream<Commodity, Order>({ userId: user?.id }, {
+    onPrices: setCommodities,
+    onOrder: (order) => {
+      setOrders(prev => upsertById(prev, order))
+      fetchPortfolio()
+    },
+    onResync: () => fetchData()
+  }, user ? token : null)
+
   const fetchData = async () => {
     setLoading(true)
     try {
-      const [commoditiesRes, ordersRes] = await Promise.all([
+      const [commoditiesRes, ordersRes, portfolioRes] = await Promise.all([
         fetch(`${API_URL}/api/commodities`, {
           headers: { 'Authorization': `Bearer ${token}` }
         }),
-        fetch(`${API_URL}/api/transaction/orders`, {
+        fetch(`${API_URL}/api/transaction/orders?userId=${user?.id}&includeArchived=true`, {
+          headers: { 'Authorization': `Bearer ${token}` }
+        }),
+        fetch(`${API_URL}/api/portfolio/${user?.id}`, {
           headers: { 'Authorization': `Bearer ${token}` }
         })
       ])
 
       if (commoditiesRes.ok) setCommodities(await commoditiesRes.json())
-      if (ordersRes.ok) setOrders(await ordersRes.json())
+      if (ordersRes.ok) setOrders((await ordersRes.json()).items)
+      if (portfolioRes.ok) setPortfolio(await portfolioRes.json())
     } catch (err) {
       setError('Failed to fetch data')
     } finally {
@@ -80,6 +105,16 @@ const UserDashboard: React.FC = () => {
     }
   }
 
+  const fetchPortfolio = async () => {
+    try {
+      const response = await fetch(`${API_URL}/api/portfolio/${user?.id}`, {
+        headers: { 'Authorization': `Bearer ${token}` }
+      })
+      if (response.ok) setPortfolio(await response.json())
+    } catch (err) {
+      // Keep showing the last portfolio; the next order update retries.
+    }
+  }
 
   const toggleTrading = (commodityId: number) => {
     setTradingStates(prev => ({
@@ -95,14 +130,14 @@ const UserDashboard: React.FC = () => {
   const setOrderTypeForCommodity = (commodityId: number, orderType: 'buy' | 'sell') => {
     setTradingStates(prev => ({
       ...prev,
-      [commodityId]: { ...prev[commodityId], orderType }
+      [commodityId]: { ...prev[commodityId], orderType, requestKey: undefined }
     }))
   }
 
   const setQuantityForCommodity = (commodityId: number, quantity: string) => {
     setTradingStates(prev => ({
       ...prev,
-      [commodityId]: { ...prev[commodityId], quantity }
+      [commodityId]: { ...prev[commodityId], quantity, requestKey: undefined }
     }))
   }
 
@@ -113,12 +148,21 @@ const UserDashboard: React.FC = () => {
       return
     }
 
+    // One key per order: resubmitting the same order (double click, retry after a network
+    // error) reuses it, so the server returns the original order instead of placing another.
+    const requestKey = tradingState.requestKey ?? crypto.randomUUID()
+    setTradingStates(prev => ({
+      ...prev,
+      [commodityId]: { ...prev[commodityId], requestKey }
+    }))
+
     try {
       const response = await fetch(`${API_URL}/api/transaction/place`, {
         method: 'POST',
         headers: {
           'Authorization': `Bearer ${token}`,
-          'Content-Type': 'application/json'
+          'Content-Type': 'application/json',
+          'Idempotency-Key': requestKey
         },
         body: JSON.stringify({
           userId: user?.id,
@@ -132,7 +176,7 @@ const UserDashboard: React.FC = () => {
         setSuccess('Order placed successfully!')
         setTradingStates(prev => ({
           ...prev,
-          [commodityId]: { ...prev[commodityId], isTrading: false, quantity: '' }
+          [commodityId]: { ...prev[commodityId], isTrading: false, quantity: '', requestKey: undefined }
         }))
         fetchData()
         refreshUser()
@@ -264,15 +308,63 @@ const UserDashboard: React.FC = () => {
   )
 
 
+  const renderHoldings = () => {
+    // Mark against the streamed prices so P&L moves with the market between order updates.
+    const rows = (portfolio?.positions || []).map((position) => {
+      const commodity = commodities.find(c => c.id === position.commodityId)
+      const price = commodity?.currentPrice ?? position.marketPrice
+      return { ...position, commodity, price, unrealizedPnl: (price - position.averageCost) * position.quantity }
+    })
+    const unrealized = rows.reduce((sum, row) => sum + row.unrealizedPnl, 0)
+
+    return (
+      <div className="space-y-4">
+        <div className="flex items-center justify-between">
+          <h3 className="text-lg font-semibold">Holdings</h3>
+          <div className="text-sm text-gray-600">
+            Unrealized ₹{unrealized.toFixed(2)} · Realized ₹{(portfolio?.realizedPnl || 0).toFixed(2)}
+          </div>
+        </div>
+        <div className="grid gap-4">
+          {rows.map((row) => (
+            <Card key={row.commodityId}>
+              <CardContent className="p-4">
+                <div className="flex items-center justify-between">
+                  <div>
+                    <h4 className="font-semibold">{row.commodityName || row.commodity?.name || 'Unknown'}</h4>
+                    <p className="text-sm text-gray-600">
+                      {row.quantity} {row.commodity?.unit || 'units'} @ avg ₹{row.averageCost.toFixed(2)}
+                    </p>
+                  </div>
+                  <div className="text-right">
+                    <div className="font-semibold">₹{(row.price * row.quantity).toFixed(2)}</div>
+                    <div className={`text-xs ${row.unrealizedPnl >= 0 ? 'text-green-700' : 'text-red-700'}`}>
+                      {row.unrealizedPnl >= 0 ? '+' : ''}₹{row.unrealizedPnl.toFixed(2)}
+                    </div>
+                  </div>
+                </div>
+              </CardContent>
+            </Card>
+          ))}
+          {rows.length === 0 && (
+            <Card>
+              <CardContent className="p-8 text-center">
+                <p className="text-gray-500">No holdings yet. Approved orders show up here.</p>
+              </CardContent>
+            </Card>
+          )}
+        </div>
+      </div>
+    )
+  }
+
   const renderOrders = () => (
     <div className="space-y-4">
       <h3 className="text-lg font-semibold">Order History</h3>
       <div className="grid gap-4">
         {orders.map((order) => {
           const pricePerUnit = order.price || order.pricePerUnit || 0
-          const commodity = commodities.find(c => 
-            Math.abs(c.currentPrice - pricePerUnit) < 100
-          ) || commodities[0] // fallback to first commodity if no close match
+          const commodity = commodities.find(c => c.id === order.commodityId)
           const totalAmount = pricePerUnit * (order.quantity || 0)
           const createdAt = order.timestamp || order.createdAt
           
@@ -283,7 +375,7 @@ const UserDashboard: React.FC = () => {
                   <div>
                     <h4 className="font-semibold">Order #{order.id}</h4>
                     <p className="text-sm text-gray-600">
-                      {order.type.toUpperCase()} {order.quantity} {commodity?.unit || 'units'} of {commodity?.name || 'Unknown'}
+                      {order.type.toUpperCase()} {order.quantity} {commodity?.unit || 'units'} of {order.commodityName || commodity?.name || 'Unknown'}
                     </p>
                     <p className="text-xs text-gray-500">
                       {createdAt ? new Date(createdAt).toLocaleDateString() : 'Pending'}
@@ -347,6 +439,7 @@ const UserDashboard: React.FC = () => {
             <nav className="-mb-px flex space-x-8">
               {[
                 { id: 'commodities', label: 'Market Prices', icon: TrendingUp },
+                { id: 'holdings', label: 'Holdings', icon: Briefcase },
                 { id: 'orders', label: 'Order History', icon: History }
               ].map((tab) => (
                 <button
@@ -385,6 +478,7 @@ const UserDashboard: React.FC = () => {
         ) : (
           <>
             {activeTab === 'commodities' && renderCommodities()}
+            {activeTab === 'holdings' && renderHoldings()}
             {activeTab === 'orders' && renderOrders()}
           </>
         )}
@@ -117,6 +117,13 @@ export const AuthProvider: React.FC<AuthProviderProps> = ({ children }) => {
   }
 
   const logout = () => {
+    if (token) {
+      // Revoke the token server-side too; the local session ends either way.
+      fetch(`${API_URL}/auth/logout`, {
+        method: 'POST',
+        headers: { 'Authorization': `Bearer ${token}` },
+      }).catch((error) => console.error('Logout error:', error))
+    }
     localStorage.removeItem('token')
     setToken(null)
     setUser(null)
@@ -0,0 +1,62 @@
+import * as React from "react"
+
+const API_URL = import.meta.env.VITE_API_URL || "http://localhost:8080"
+
+export interface MarketStreamHandlers<C, O> {
+  onPrices?: (commodities: C[]) => void
+  onOrder?: (order: O) => void
+  onNotification?: (notification: StreamNotification) => void
+  onResync?: () => void
+}
+
+export interface StreamNotification {
+  id: number
+  message: string
+  readStatus: boolean
+  createdAt: string
+}
+
+/**
+ * Subscribes to the server's price and order event stream. Order events are
+ * limited to the given user or admin; with neither set all orders are streamed.
+ * EventSource cannot send headers, so the token travels as a query parameter;
+ * nothing is opened until a token is available.
+ */
+export function useMarketStream<C, O>(
+  filter: { userId?: number; adminId?: number },
+  handlers: MarketStreamHandlers<C, O>,
+  token: string | null
+) {
+  const handlersRef = React.useRef(handlers)
+  handlersRef.current = handlers
+
+  React.useEffect(() => {
+    if (!token) return
+
+    const params = new URLSearchParams({ access_token: token })
+    if (filter.userId != null) params.set("userId", String(filter.userId))
+    if (filter.adminId != null) params.set("adminId", String(filter.adminId))
+    const source = new EventSource(`${API_URL}/api/stream?${params}`)
+
+    source.addEventListener("prices", (e) =>
+      handlersRef.current.onPrices?.(JSON.parse((e as MessageEvent).data))
+    )
+    source.addEventListener("order", (e) =>
+      handlersRef.current.onOrder?.(JSON.parse((e as MessageEvent).data))
+    )
+    source.addEventListener("notification", (e) =>
+      handlersRef.current.onNotification?.(JSON.parse((e as MessageEvent).data))
+    )
+    source.addEventListener("resync", () => handlersRef.current.onResync?.())
+
+    return () => source.close()
+  }, [filter.userId, filter.adminId, token])
+}
+
+export function upsertById<T extends { id: number }>(items: T[], item: T): T[] {
+  const index = items.findIndex((existing) => existing.id === item.id)
+  if (index === -1) return [item, ...items]
+  const next = items.slice()
+  next[index] = { ...next[index], ...item }
+  return next
+}
@@ -0,0 +1,69 @@
+package com.inditrad.benchmark;
+
+import com.inditrad.InditradApplication;
+import com.inditrad.entity.AppUser;
+import com.inditrad.model.TransactionRequest;
+import com.inditrad.repository.AppUserRepository;
+import com.inditrad.service.CommodityPriceBook;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+
+/**
+ * The full application context, shared by all benchmark threads in a fork. It runs against
+ * the in-memory H2 database (PostgreSQL mode) configured in the test resources. The web
+ * server listens on a random port, since the security configuration needs Spring MVC.
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    ConfigurableApplicationContext context;
+    Long userId;
+    Long commodityId;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = boot();
+
+        AppUser user = new AppUser();
+        user.setUsername("benchmark-" + System.nanoTime());
+        user.setPassword("x");
+        user.setWalletBalance(new BigDecimal("1000000000.00"));
+        userId = bean(AppUserRepository.class).save(user).getId();
+        commodityId = bean(CommodityPriceBook.class).getAll().get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    /** Starts the application on a random port, with extra {@code key=value} properties. */
+    static ConfigurableApplicationContext boot(String... properties) {
+        return new SpringApplicationBuilder(InditradApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN", "server.port=0")
+                .properties(properties)
+                .run();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    TransactionRequest order(String type) {
+        TransactionRequest request = new TransactionRequest();
+        request.setUserId(userId);
+        request.setCommodityId(commodityId);
+        request.setQuantity(BigDecimal.ONE);
+        request.setTransactionType(type);
+        return request;
+    }
+}
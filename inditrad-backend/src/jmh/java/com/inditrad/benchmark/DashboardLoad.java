@@ -0,0 +1,166 @@
+package com.inditrad.benchmark;
+
+import com.inditrad.config.AuthenticatedUser;
+import com.inditrad.config.JwtUtil;
+import com.inditrad.entity.AppUser;
+import com.inditrad.model.TransactionRequest;
+import com.inditrad.repository.AppUserRepository;
+import com.inditrad.service.CommodityPriceBook;
+import com.inditrad.service.TransactionService;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load of dashboard clients against the running application: each client
+ * repeatedly loads the commodity list, its recent orders and its wallet statement, sending
+ * the next request as soon as the previous one answers. Reports throughput and latency
+ * percentiles, so runs with and without the {@code virtual} profile can be compared.
+ * <p>
+ * Not a JMH benchmark, since JMH drives one thread per client. Run with
+ * {@code mvn -Pbenchmark -DskipTests test-compile exec:exec@dashboard-load
+ * [-Dload.clients=2000] [-Dload.seconds=30] [-Dload.profiles=virtual]}; the virtual
+ * profile needs Java 21.
+ */
+public final class DashboardLoad {
+
+    private static final int USERS = 200;
+    private static final int ORDERS_PER_USER = 5;
+    private static final int MAX_SAMPLES = 5_000_000;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final long[] samples = new long[MAX_SAMPLES];
+    private final AtomicInteger sampled = new AtomicInteger();
+    private final LongAdder errors = new LongAdder();
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("load.clients", 2000);
+        int seconds = Integer.getInteger("load.seconds", 30);
+        int warmupSeconds = Integer.getInteger("load.warmup-seconds", 10);
+        String profiles = System.getProperty("load.profiles", "");
+
+        ConfigurableApplicationContext context = ApplicationState.boot("spring.profiles.active=" + profiles);
+        try {
+            String mode = Threading.VIRTUAL.isActive(context.getEnvironment()) ? "virtual" : "platform";
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            List<Dashboard> dashboards = seed(context, base);
+            new DashboardLoad().run(mode, dashboards, clients, warmupSeconds, seconds);
+        } finally {
+            context.close();
+        }
+    }
+
+    /** Users with a few orders each, and the requests one of their dashboards makes. */
+    private static List<Dashboard> seed(ConfigurableApplicationContext context, String base) {
+        AppUserRepository users = context.getBean(AppUserRepository.class);
+        TransactionService transactions = context.getBean(TransactionService.class);
+        JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+        Long commodityId = context.getBean(CommodityPriceBook.class).getAll().get(0).getId();
+
+        List<Dashboard> dashboards = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            AppUser user = new AppUser();
+            user.setUsername("load-" + i + "-" + System.nanoTime());
+            user.setPassword("x");
+            user.setWalletBalance(new BigDecimal("1000000000.00"));
+            user = users.save(user);
+            for (int j = 0; j < ORDERS_PER_USER; j++) {
+                TransactionRequest order = new TransactionRequest();
+                order.setUserId(user.getId());
+                order.setCommodityId(commodityId);
+                order.setQuantity(BigDecimal.ONE);
+                order.setTransactionType("BUY");
+                transactions.placeTransaction(order);
+            }
+            String token = "Bearer " + jwtUtil.generateToken(user.getUsername(), AuthenticatedUser.USER, user.getId());
+            dashboards.add(new Dashboard(
+                    get(base + "/api/commodities", token),
+                    get(base + "/api/transaction/orders?userId=" + user.getId() + "&limit=20", token),
+                    get(base + "/api/wallet/" + user.getId() + "/statement?limit=20", token)));
+        }
+        return dashboards;
+    }
+
+    private static HttpRequest get(String uri, String token) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Authorization", token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    private void run(String mode, List<Dashboard> dashboards, int clients, int warmupSeconds, int seconds)
+            throws InterruptedException {
+        for (int i = 0; i < clients; i++) {
+            Dashboard dashboard = dashboards.get(i % dashboards.size());
+            send(dashboard, i % dashboard.requests.length);
+        }
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        errors.reset();
+        recording = true;
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(seconds);
+        recording = false;
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        running = false;
+
+        int count = Math.min(sampled.get(), MAX_SAMPLES);
+        long[] latencies = Arrays.copyOf(samples, count);
+        Arrays.sort(latencies);
+        System.out.printf("mode=%s java=%d clients=%d seconds=%d%n",
+                mode, Runtime.version().feature(), clients, seconds);
+        System.out.printf("requests=%d errors=%d throughput=%.0f req/s%n", count, errors.sum(), count / elapsed);
+        System.out.printf("latency ms p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), percentile(latencies, 1.0));
+    }
+
+    /** Sends one dashboard request, then the dashboard's next one when it answers. */
+    private void send(Dashboard dashboard, int index) {
+        long started = System.nanoTime();
+        http.sendAsync(dashboard.requests[index], HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (recording) {
+                        if (failure != null || response.statusCode() != 200) {
+                            errors.increment();
+                        } else {
+                            int slot = sampled.getAndIncrement();
+                            if (slot < MAX_SAMPLES) {
+                                samples[slot] = System.nanoTime() - started;
+                            }
+                        }
+                    }
+                    if (running) {
+                        send(dashboard, (index + 1) % dashboard.requests.length);
+                    }
+                });
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private record Dashboard(HttpRequest... requests) {
+    }
+}
@@ -0,0 +1,171 @@
+package com.inditrad.benchmark;
+
+import com.inditrad.entity.AppUser;
+import com.inditrad.entity.Commodity;
+import com.inditrad.entity.Transaction;
+import com.inditrad.repository.AppUserRepository;
+import com.inditrad.repository.CommodityRepository;
+import com.inditrad.repository.TransactionRepository;
+import com.inditrad.service.CommodityPriceBook;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JPA insert throughput in rows per second, saving {@value #ROWS} orders per transaction,
+ * with Hibernate JDBC batching off ({@code batchSize = 0}) and at the production setting.
+ * <p>
+ * In-process H2 has no network round trip, so throughput differences here understate the
+ * effect on PostgreSQL. The trial therefore also prints the JDBC statements Hibernate
+ * prepared per saved row, which is what each round trip costs over the wire.
+ * <p>
+ * {@link #saveIdentityOrders} is the baseline: the same rows in a table with identity ids,
+ * as orders used before the pooled sequence. Hibernate must insert each such row on its
+ * own to read back the id, so it stays at one statement per row whatever the batch size.
+ * Its table has no foreign keys or indexes, so compare statements per row, not raw H2
+ * throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+
+    private static final int ROWS = 100;
+
+    @Param({"0", "50"})
+    int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private AppUser user;
+    private Commodity commodity;
+    private Statistics statistics;
+    private long statementsBefore;
+    private long rows;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = ApplicationState.boot(
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "spring.jpa.properties.hibernate.order_inserts=true",
+                "spring.jpa.properties.hibernate.generate_statistics=true");
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        transactionRepository = context.getBean(TransactionRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        entityManager = context.getBean(EntityManager.class);
+
+        AppUser created = new AppUser();
+        created.setUsername("insert-benchmark-" + System.nanoTime());
+        created.setPassword("x");
+        Long userId = context.getBean(AppUserRepository.class).save(created).getId();
+        Long commodityId = context.getBean(CommodityPriceBook.class).getAll().get(0).getId();
+        user = context.getBean(AppUserRepository.class).getReferenceById(userId);
+        commodity = context.getBean(CommodityRepository.class).getReferenceById(commodityId);
+        statementsBefore = statistics.getPrepareStatementCount();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop(BenchmarkParams params) {
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+        System.out.printf("%n%s batchSize=%d: %d rows, %.3f JDBC statements per row%n",
+                params.getBenchmark(), batchSize, rows, (double) statements / rows);
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Transaction> saveOrders() {
+        return transactionTemplate.execute(status -> {
+            List<Transaction> orders = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                orders.add(Transaction.builder()
+                        .user(user)
+                        .commodity(commodity)
+                        .type("BUY")
+                        .quantity(BigDecimal.ONE)
+                        .price(BigDecimal.TEN)
+                        .status("PENDING")
+                        .timestamp(LocalDateTime.now())
+                        .build());
+            }
+            rows += ROWS;
+            return transactionRepository.saveAll(orders);
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<IdentityOrder> saveIdentityOrders() {
+        return transactionTemplate.execute(status -> {
+            List<IdentityOrder> orders = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                IdentityOrder order = new IdentityOrder();
+                order.userId = user.getId();
+                order.commodityId = commodity.getId();
+                order.type = "BUY";
+                order.quantity = BigDecimal.ONE;
+                order.price = BigDecimal.TEN;
+                order.status = "PENDING";
+                order.timestamp = LocalDateTime.now();
+                entityManager.persist(order);
+                orders.add(order);
+            }
+            rows += ROWS;
+            return orders;
+        });
+    }
+
+    /** An order row with an identity id. Only mapped when the benchmark classes are on the classpath. */
+    @Entity
+    @Table(name = "identity_order_benchmark")
+    public static class IdentityOrder {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+        @Column(name = "user_id")
+        Long userId;
+        @Column(name = "commodity_id")
+        Long commodityId;
+        String type;
+        BigDecimal quantity;
+        BigDecimal price;
+        String status;
+        LocalDateTime timestamp;
+    }
+}
@@ -0,0 +1,59 @@
+package com.inditrad.benchmark;
+
+import com.inditrad.config.AuthenticatedUser;
+import com.inditrad.config.JwtUtil;
+import com.inditrad.config.TokenClaims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification, as done on every login and authenticated request. The cached
+ * benchmarks measure a repeat request; {@link #parseUncached} measures the first request with a
+ * token, which verifies the signature.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private String token;
+
+    @Setup
+    public void setUp() {
+        token = jwtUtil.generateToken("benchmark", AuthenticatedUser.USER, 42L);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("benchmark", AuthenticatedUser.USER, 42L);
+    }
+
+    @Benchmark
+    public String parseUsername() {
+        return jwtUtil.getUsernameFromToken(token);
+    }
+
+    @Benchmark
+    public TokenClaims parseUncached() {
+        return jwtUtil.parseTokenClaims(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, "benchmark");
+    }
+}
@@ -0,0 +1,74 @@
+package com.inditrad.benchmark;
+
+import com.inditrad.service.matching.OrderBook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching latency and throughput of a single {@link OrderBook} with a populated book of
+ * {@code depth} levels per side around a mid price.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBookBenchmark {
+
+    private static final long MID = 100_000;
+
+    @Param({"10", "1000"})
+    int depth;
+
+    private OrderBook book;
+    private OrderBook.FillHandler handler;
+    private SplittableRandom random;
+    private long nextOrderId;
+
+    @Setup(Level.Iteration)
+    public void setUp(Blackhole blackhole) {
+        book = new OrderBook();
+        handler = (taker, maker, price, quantity, takerRemaining, makerRemaining) -> blackhole.consume(quantity);
+        random = new SplittableRandom(42);
+        for (int level = 1; level <= depth; level++) {
+            for (int i = 0; i < 4; i++) {
+                book.submit(++nextOrderId, true, MID - level, 100, handler);
+                book.submit(++nextOrderId, false, MID + level, 100, handler);
+            }
+        }
+    }
+
+    /** A resting order added and cancelled again, leaving the book unchanged. */
+    @Benchmark
+    public long restAndCancel() {
+        boolean buy = random.nextBoolean();
+        long price = buy ? MID - 1 - random.nextInt(depth) : MID + 1 + random.nextInt(depth);
+        long orderId = ++nextOrderId;
+        book.submit(orderId, buy, price, 10, handler);
+        return book.cancel(orderId, buy, price);
+    }
+
+    /** A maker order followed by a taker that fully crosses it at the top of the book. */
+    @Benchmark
+    public long crossAtTop() {
+        // MID sits inside the spread, so the taker only ever meets the maker just placed.
+        boolean makerBuy = random.nextBoolean();
+        book.submit(++nextOrderId, makerBuy, MID, 10, handler);
+        return book.submit(++nextOrderId, !makerBuy, MID, 10, handler);
+    }
+}
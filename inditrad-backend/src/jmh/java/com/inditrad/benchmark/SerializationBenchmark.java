@@ -0,0 +1,85 @@
+package com.inditrad.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inditrad.entity.AppUser;
+import com.inditrad.entity.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of the entities returned by the REST API, with an object mapper
+ * configured the way Spring MVC configures its own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private Transaction transaction;
+    private AppUser user;
+    private List<Transaction> page;
+
+    @Setup
+    public void setUp() {
+        user = AppUser.builder()
+                .id(7L)
+                .username("trader7")
+                .password("$2a$10$abcdefghijklmnopqrstuv")
+                .name("Trader Seven")
+                .email("trader7@inditrad.com")
+                .mobile("9876543210")
+                .walletBalance(new BigDecimal("125000.50"))
+                .status("ACTIVE")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        page = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            page.add(Transaction.builder()
+                    .id(id)
+                    .user(user)
+                    .type(id % 2 == 0 ? "BUY" : "SELL")
+                    .quantity(new BigDecimal("2.5000"))
+                    .price(new BigDecimal("2001.25"))
+                    .status("PENDING")
+                    .timestamp(LocalDateTime.now())
+                    .build());
+        }
+        transaction = page.get(0);
+    }
+
+    @Benchmark
+    public byte[] transaction() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transaction);
+    }
+
+    @Benchmark
+    public byte[] transactionPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] appUser() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+}
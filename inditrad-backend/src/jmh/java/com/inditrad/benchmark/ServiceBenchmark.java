@@ -0,0 +1,82 @@
+package com.inditrad.benchmark;
+
+import com.inditrad.entity.Transaction;
+import com.inditrad.service.CommodityPriceService;
+import com.inditrad.service.TransactionService;
+import com.inditrad.service.WalletService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-level hot paths, end to end through JPA and the database. Sample-time mode
+ * reports latency percentiles alongside the mean.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    private TransactionService transactionService;
+    private WalletService walletService;
+    private CommodityPriceService commodityPriceService;
+    private ApplicationState app;
+    private boolean credit;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState app) {
+        this.app = app;
+        transactionService = app.bean(TransactionService.class);
+        walletService = app.bean(WalletService.class);
+        commodityPriceService = app.bean(CommodityPriceService.class);
+    }
+
+    @Benchmark
+    public Transaction placeTransaction() {
+        return transactionService.placeTransaction(app.order("BUY"));
+    }
+
+    @Benchmark
+    public Transaction processOrder(PendingOrder order) {
+        return transactionService.processOrder(order.id, "approve");
+    }
+
+    @Benchmark
+    public BigDecimal updateWallet() {
+        // Alternate so the balance stays put across iterations.
+        credit = !credit;
+        return walletService.updateWallet(app.userId, AMOUNT, credit ? "ADD" : "SUBTRACT");
+    }
+
+    @Benchmark
+    public void updateCommodityPrices() {
+        commodityPriceService.updateCommodityPrices();
+    }
+
+    /** A freshly placed order for every processOrder call, placed outside the measurement. */
+    @State(Scope.Thread)
+    public static class PendingOrder {
+        Long id;
+
+        @Setup(Level.Invocation)
+        public void place(ApplicationState app) {
+            id = app.bean(TransactionService.class).placeTransaction(app.order("BUY")).getId();
+        }
+    }
+}
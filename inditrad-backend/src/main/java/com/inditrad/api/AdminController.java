@@ -3,13 +3,17 @@ package com.inditrad.api;
 
 import lombok.extern.slf4j.Slf4j;
 
+import com.inditrad.config.AuthenticatedUser;
 import com.inditrad.entity.Admin;
 import com.inditrad.entity.AppUser;
 import com.inditrad.model.CreateAdminRequest;
 import com.inditrad.model.CreateUserRequest;
+import com.inditrad.model.UserView;
 import com.inditrad.repository.AppUserRepository;
 import com.inditrad.service.AdminService;
+import com.inditrad.service.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 
@@ -27,6 +31,7 @@ public class AdminController {
 
     private final AdminService adminService;
     private final AppUserRepository appUserRepository;
+    private final TokenRevocationService tokenRevocationService;
 
 
     @Operation(summary = "Create user", description = "Admin creates a new user with initial wallet balance.")
@@ -36,7 +41,9 @@ public class AdminController {
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
     @PostMapping("/admin/{adminId}/create-user")
-    public AppUser createUser(@PathVariable Long adminId, @RequestBody CreateUserRequest request) {
+    public AppUser createUser(@AuthenticationPrincipal AuthenticatedUser principal,
+                              @PathVariable Long adminId, @RequestBody CreateUserRequest request) {
+        checkOwnAdmin(principal, adminId);
         return adminService.createUser(request, adminId);
     }
 
@@ -47,8 +54,10 @@ public class AdminController {
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
     @GetMapping("/admin/{adminId}/users")
-    public List<AppUser> getUsersByAdmin(@PathVariable Long adminId) {
-        return appUserRepository.findByAdminId(adminId);
+    public List<UserView> getUsersByAdmin(@AuthenticationPrincipal AuthenticatedUser principal,
+                                          @PathVariable Long adminId) {
+        checkOwnAdmin(principal, adminId);
+        return appUserRepository.findViewsByAdminId(adminId);
     }
     
     @Operation(summary = "Get all users", description = "Retrieve all users for admin view.")
@@ -58,8 +67,11 @@ public class AdminController {
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
     @GetMapping("/users")
-    public List<AppUser> getAllUsers() {
-        return appUserRepository.findAll();
+    public List<UserView> getAllUsers(@AuthenticationPrincipal AuthenticatedUser principal) {
+        if (AuthenticatedUser.ADMIN.equals(principal.getRole())) {
+            return appUserRepository.findViewsByAdminId(principal.getUserId());
+        }
+        return appUserRepository.findAllViews();
     }
     
     @Operation(summary = "Update user status", description = "Enable or disable a user.")
@@ -69,15 +81,20 @@ public class AdminController {
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
     @PutMapping("/users/{userId}/status")
-    public AppUser updateUserStatus(@PathVariable Long userId, @RequestBody Map<String, String> request) {
+    public AppUser updateUserStatus(@AuthenticationPrincipal AuthenticatedUser principal,
+                                    @PathVariable Long userId, @RequestBody Map<String, String> request) {
         String status = request.get("status");
         if (!"ACTIVE".equals(status) && !"INACTIVE".equals(status)) {
             throw new IllegalArgumentException("Status must be either ACTIVE or INACTIVE");
         }
-        AppUser user = appUserRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        user.setStatus(status);
-        return appUserRepository.save(user);
+        adminService.checkManagedUser(principal, userId);
+        AppUser saved = adminService.updateUserStatus(userId, status);
+        if ("INACTIVE".equals(status)) {
+            tokenRevocationService.deactivate(AuthenticatedUser.USER, userId);
+        } else {
+            tokenRevocationService.reactivate(AuthenticatedUser.USER, userId);
+        }
+        return saved;
     }
     
     @Operation(summary = "Update user information", description = "Update user details.")
@@ -87,14 +104,15 @@ public class AdminController {
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
     @PutMapping("/users/{userId}")
-    public AppUser updateUserInfo(@PathVariable Long userId, @RequestBody Map<String, Object> request) {
-        AppUser user = appUserRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        if (request.containsKey("name")) user.setName((String) request.get("name"));
-        if (request.containsKey("email")) user.setEmail((String) request.get("email"));
-        if (request.containsKey("mobile")) user.setMobile((String) request.get("mobile"));
-        
-        return appUserRepository.save(user);
+    public AppUser updateUserInfo(@AuthenticationPrincipal AuthenticatedUser principal,
+                                  @PathVariable Long userId, @RequestBody Map<String, Object> request) {
+        adminService.checkManagedUser(principal, userId);
+        return adminService.updateUserInfo(userId, request);
+    }
+
+    private static void checkOwnAdmin(AuthenticatedUser principal, Long adminId) {
+        if (AuthenticatedUser.ADMIN.equals(principal.getRole()) && !principal.getUserId().equals(adminId)) {
+            throw new RuntimeException("Cannot act for another admin");
+        }
     }
 }
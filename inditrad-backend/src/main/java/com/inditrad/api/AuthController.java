@@ -3,14 +3,17 @@ package com.inditrad.api;
 
 import lombok.extern.slf4j.Slf4j;
 
+import com.inditrad.config.AuthenticatedUser;
 import com.inditrad.entity.Admin;
 import com.inditrad.entity.AppUser;
 import com.inditrad.entity.SuperAdmin;
 import com.inditrad.model.LoginRequest;
 import com.inditrad.model.LoginResponse;
 import com.inditrad.service.AuthService;
+import com.inditrad.service.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 
@@ -26,6 +29,7 @@ import java.util.Optional;
 public class AuthController {
 
     private final AuthService authService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Operation(summary = "User login", description = "Authenticate a user and return a token if credentials are valid.")
     @ApiResponses(value = {
@@ -60,21 +64,28 @@ public class AuthController {
         return ResponseEntity.status(401).body("Invalid credentials");
     }
 
+    @Operation(summary = "Current user", description = "Return the account the bearer token was issued to.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser(@RequestHeader("Authorization") String authHeader) {
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            try {
-                com.inditrad.config.JwtUtil jwtUtil = new com.inditrad.config.JwtUtil();
-                String username = jwtUtil.getUsernameFromToken(token);
-                Object user = authService.getCurrentUser(username);
-                if (user != null) {
-                    return ResponseEntity.ok(user);
-                }
-            } catch (Exception e) {
-                log.error("Error validating token", e);
-            }
+    public ResponseEntity<?> getCurrentUser(@AuthenticationPrincipal AuthenticatedUser principal) {
+        Object user = authService.getCurrentUser(principal);
+        if (user != null) {
+            return ResponseEntity.ok(user);
         }
         return ResponseEntity.status(401).body("Unauthorized");
     }
+
+    @Operation(summary = "Logout", description = "Revoke every token issued to the caller so far; later logins get fresh tokens.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Logged out"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@AuthenticationPrincipal AuthenticatedUser principal) {
+        tokenRevocationService.revokeIssuedTokens(principal.getRole(), principal.getUserId());
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -2,9 +2,13 @@ package com.inditrad.api;
 
 import lombok.extern.slf4j.Slf4j;
 
-import com.inditrad.entity.Commodity;
-import com.inditrad.repository.CommodityRepository;
+import com.inditrad.model.Candle;
+import com.inditrad.model.CommoditySnapshot;
+import com.inditrad.service.CommodityPriceBook;
+import com.inditrad.service.history.CandleResolution;
+import com.inditrad.service.history.PriceHistoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,7 +27,8 @@ import java.util.Map;
 @RequestMapping("/api/commodities")
 public class CommodityController {
 
-    private final CommodityRepository commodityRepository;
+    private final CommodityPriceBook priceBook;
+    private final PriceHistoryService priceHistoryService;
 
     @Operation(summary = "Get all commodities", description = "Retrieve all commodities with current prices.")
     @ApiResponses(value = {
@@ -31,8 +36,8 @@ public class CommodityController {
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
     @GetMapping
-    public List<Commodity> getAllCommodities() {
-        return commodityRepository.findAll();
+    public List<CommoditySnapshot> getAllCommodities() {
+        return priceBook.getAll();
     }
 
     @Operation(summary = "Update commodity price", description = "Update the price of a specific commodity.")
@@ -42,13 +47,24 @@ public class CommodityController {
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
     @PutMapping("/{id}/price")
-    public ResponseEntity<Commodity> updateCommodityPrice(@PathVariable Long id, @RequestBody Map<String, BigDecimal> request) {
-        Commodity commodity = commodityRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Commodity not found"));
-        
-        commodity.setCurrentPrice(request.get("price"));
-        commodity.setLastUpdated(LocalDateTime.now());
-        
-        return ResponseEntity.ok(commodityRepository.save(commodity));
+    public ResponseEntity<CommoditySnapshot> updateCommodityPrice(@PathVariable Long id, @RequestBody Map<String, BigDecimal> request) {
+        return ResponseEntity.ok(priceBook.updatePrice(id, request.get("price")));
+    }
+
+    @Operation(summary = "Get price candles",
+            description = "OHLC candles of a commodity at `1m`, `5m`, `1h` or `1d` resolution, oldest first, for intervals starting in `[from, to)`.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success"),
+        @ApiResponse(responseCode = "400", description = "Bad Request"),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @GetMapping("/{id}/candles")
+    public List<Candle> getCandles(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "1m") String resolution,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "500") int limit) {
+        return priceHistoryService.getCandles(id, CandleResolution.fromCode(resolution), from, to, limit);
     }
 }
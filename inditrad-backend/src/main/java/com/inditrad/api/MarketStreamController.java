@@ -0,0 +1,45 @@
+package com.inditrad.api;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.inditrad.config.AuthenticatedUser;
+import com.inditrad.service.MarketStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/stream")
+public class MarketStreamController {
+
+    private final MarketStreamService marketStreamService;
+
+    @Operation(summary = "Subscribe to market stream",
+            description = "Server-Sent Events stream of price ticks (`prices`) and order status changes (`order`). "
+                    + "Users and admins receive their own order events, a super admin those of the given user or admin; a `resync` event means updates were dropped and the client should refetch.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success"),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@AuthenticationPrincipal AuthenticatedUser principal,
+                                @RequestParam(required = false) Long userId,
+                                @RequestParam(required = false) Long adminId) {
+        // Users and admins only ever see their own orders, whatever they ask for.
+        if (AuthenticatedUser.USER.equals(principal.getRole())) {
+            return marketStreamService.subscribe(principal.getUserId(), null);
+        }
+        if (AuthenticatedUser.ADMIN.equals(principal.getRole())) {
+            return marketStreamService.subscribe(null, principal.getUserId());
+        }
+        return marketStreamService.subscribe(userId, adminId);
+    }
+}
@@ -4,9 +4,11 @@ package com.inditrad.api;
 
 import lombok.extern.slf4j.Slf4j;
 
+import com.inditrad.config.AuthenticatedUser;
 import com.inditrad.entity.Notification;
-import com.inditrad.repository.NotificationRepository;
+import com.inditrad.service.NotificationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 
@@ -14,6 +16,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @RestController
@@ -21,7 +24,7 @@ import java.util.List;
 @RequestMapping("/api/notifications")
 public class NotificationController {
 
-    private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
 
     @Operation(summary = "Get notifications", description = "Fetch or mark notifications related to transactions.")
     @ApiResponses(value = {
@@ -30,8 +33,34 @@ public class NotificationController {
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
     @GetMapping("/admin/{adminId}")
-    public List<Notification> getNotifications(@PathVariable Long adminId) {
-        return notificationRepository.findByAdminIdAndReadStatusFalse(adminId);
+    public List<Notification> getNotifications(@AuthenticationPrincipal AuthenticatedUser principal,
+                                               @PathVariable Long adminId) {
+        checkOwnNotifications(principal, adminId);
+        return notificationService.getUnread(adminId);
+    }
+
+    @Operation(summary = "Unread count", description = "Number of unread notifications for an admin, served from memory.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success"),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @GetMapping("/admin/{adminId}/unread-count")
+    public Map<String, Long> getUnreadCount(@AuthenticationPrincipal AuthenticatedUser principal,
+                                            @PathVariable Long adminId) {
+        checkOwnNotifications(principal, adminId);
+        return Map.of("unread", notificationService.getUnreadCount(adminId));
+    }
+
+    @Operation(summary = "Mark all as read", description = "Marks every unread notification of an admin as read and returns how many changed.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success"),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @PutMapping("/admin/{adminId}/read-all")
+    public Map<String, Integer> markAllAsRead(@AuthenticationPrincipal AuthenticatedUser principal,
+                                              @PathVariable Long adminId) {
+        checkOwnNotifications(principal, adminId);
+        return Map.of("updated", notificationService.markAllAsRead(adminId));
     }
 
     @Operation(summary = "API endpoint", description = "Performs the corresponding operation.")
@@ -42,9 +71,12 @@ public class NotificationController {
     })
     @PutMapping("/{id}/read")
     public void markAsRead(@PathVariable Long id) {
-        Notification note = notificationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Notification not found"));
-        note.setReadStatus(true);
-        notificationRepository.save(note);
+        notificationService.markAsRead(id);
+    }
+
+    private static void checkOwnNotifications(AuthenticatedUser principal, Long adminId) {
+        if (AuthenticatedUser.ADMIN.equals(principal.getRole()) && !principal.getUserId().equals(adminId)) {
+            throw new RuntimeException("Cannot view another admin's notifications");
+        }
     }
-}
\ No newline at end of file
+}
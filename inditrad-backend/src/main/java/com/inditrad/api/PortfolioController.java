@@ -0,0 +1,37 @@
+package com.inditrad.api;
+
+import com.inditrad.config.AuthenticatedUser;
+import com.inditrad.model.PortfolioView;
+import com.inditrad.service.positions.PositionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/portfolio")
+public class PortfolioController {
+
+    private final PositionService positionService;
+
+    @Operation(summary = "Portfolio",
+            description = "Positions of a user per commodity with average cost, realized P&L and unrealized P&L at current prices.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success"),
+        @ApiResponse(responseCode = "400", description = "Bad Request"),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @GetMapping("/{userId}")
+    public PortfolioView getPortfolio(@AuthenticationPrincipal AuthenticatedUser principal, @PathVariable Long userId) {
+        if (AuthenticatedUser.USER.equals(principal.getRole()) && !principal.getUserId().equals(userId)) {
+            throw new RuntimeException("Cannot view another user's portfolio");
+        }
+        return positionService.getPortfolio(userId);
+    }
+}
@@ -6,17 +6,25 @@ import lombok.extern.slf4j.Slf4j;
 import com.inditrad.entity.Admin;
 import com.inditrad.entity.AppUser;
 import com.inditrad.model.AdminDetailsResponse;
+import com.inditrad.model.AdminView;
 import com.inditrad.model.CreateAdminRequest;
 import com.inditrad.model.CreateUserRequest;
+import com.inditrad.model.DashboardSummary;
+import com.inditrad.model.EodReport;
+import com.inditrad.model.UserView;
 import com.inditrad.repository.AdminRepository;
 import com.inditrad.repository.AppUserRepository;
 import com.inditrad.service.AdminService;
+import com.inditrad.service.DashboardAggregates;
+import com.inditrad.service.settlement.EndOfDayReconciliation;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.time.LocalDate;
 import java.util.List;
 
 @Slf4j
@@ -28,6 +36,45 @@ public class SuperAdminController {
     private final AdminRepository adminRepository;
     private final AppUserRepository appUserRepository;
     private final AdminService adminService;
+    private final DashboardAggregates dashboardAggregates;
+    private final EndOfDayReconciliation endOfDayReconciliation;
+
+    @Operation(summary = "Dashboard totals",
+            description = "User, admin and order counts, traded notional per commodity and wallet float, globally and per admin. "
+                    + "Maintained in memory, so the cost does not grow with the data.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success"),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @GetMapping("/dashboard")
+    public DashboardSummary getDashboard() {
+        return dashboardAggregates.getSummary();
+    }
+
+    @Operation(summary = "Start end-of-day run",
+            description = "Starts, or resumes after a failure, the end-of-day reconciliation for `date` (default today) in the background.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success"),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @PostMapping("/eod/run")
+    public void startEndOfDay(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        endOfDayReconciliation.start(date != null ? date : LocalDate.now());
+    }
+
+    @Operation(summary = "End-of-day report",
+            description = "Progress of the end-of-day run for `date` (default today), discrepancy counts by kind and the first `limit` discrepancies.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success"),
+        @ApiResponse(responseCode = "400", description = "Bad Request"),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @GetMapping("/eod")
+    public EodReport getEndOfDayReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "100") int limit) {
+        return endOfDayReconciliation.getReport(date != null ? date : LocalDate.now(), limit);
+    }
 
     @Operation(summary = "Get details", description = "Retrieve relevant data from the system.")
     @ApiResponses(value = {
@@ -36,8 +83,8 @@ public class SuperAdminController {
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
     @GetMapping("/admins")
-    public List<Admin> getAllAdmins() {
-        return adminRepository.findAll();
+    public List<AdminView> getAllAdmins() {
+        return adminRepository.findAllViews();
     }
 
     @Operation(summary = "Get all users", description = "Retrieve all users in the system.")
@@ -46,8 +93,8 @@ public class SuperAdminController {
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
     @GetMapping("/users")
-    public List<AppUser> getAllUsers() {
-        return appUserRepository.findAll();
+    public List<UserView> getAllUsers() {
+        return appUserRepository.findAllViews();
     }
 
     @Operation(summary = "Create admin", description = "Super admin creates a new admin account.")
@@ -75,9 +122,8 @@ public class SuperAdminController {
     @Operation(summary = "Get admin with user count", description = "Get admin details with user count.")
     @GetMapping("/admins/{adminId}/details")
     public AdminDetailsResponse getAdminDetails(@PathVariable Long adminId) {
-        Admin admin = adminRepository.findById(adminId)
+        AdminView admin = adminRepository.findViewById(adminId)
             .orElseThrow(() -> new RuntimeException("Admin not found"));
-        long userCount = appUserRepository.countByAdminId(adminId);
-        return new AdminDetailsResponse(admin, userCount);
+        return new AdminDetailsResponse(admin, dashboardAggregates.getUserCount(adminId));
     }
 }
@@ -4,12 +4,21 @@ package com.inditrad.api;
 
 import lombok.extern.slf4j.Slf4j;
 
+import com.inditrad.config.AuthenticatedUser;
 import com.inditrad.entity.Transaction;
+import com.inditrad.model.BulkProcessRequest;
+import com.inditrad.model.BulkProcessResult;
+import com.inditrad.model.CursorPage;
+import com.inditrad.model.OrderFilter;
+import com.inditrad.model.OrderView;
 import com.inditrad.model.TransactionRequest;
 import com.inditrad.service.TransactionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -24,25 +33,62 @@ public class TransactionController {
 
     private final TransactionService transactionService;
 
-    @Operation(summary = "Place transaction", description = "Submit a buy or sell commodity transaction request.")
+    @Operation(summary = "Place transaction",
+            description = "Submit a buy or sell commodity transaction request. Send a unique `Idempotency-Key` "
+                    + "(up to 64 characters) to make retries safe: repeating the request with the same key returns "
+                    + "the original order instead of placing another.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Success"),
         @ApiResponse(responseCode = "400", description = "Bad Request"),
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
     @PostMapping("/place")
-    public Transaction placeTransaction(@RequestBody TransactionRequest request) {
-        return transactionService.placeTransaction(request);
+    public Transaction placeTransaction(@AuthenticationPrincipal AuthenticatedUser principal,
+                                        @RequestBody TransactionRequest request,
+                                        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (AuthenticatedUser.USER.equals(principal.getRole()) && !principal.getUserId().equals(request.getUserId())) {
+            throw new RuntimeException("Cannot place orders for another user");
+        }
+        return transactionService.placeTransaction(request, idempotencyKey);
     }
 
-    @Operation(summary = "Get all orders", description = "Retrieve all transaction orders.")
+    @Operation(summary = "Get orders",
+            description = "Retrieve orders newest first, optionally filtered by status, user, admin, commodity and time range "
+                    + "(`from` inclusive, `to` exclusive). Pass the returned `nextCursor` as `cursor` to fetch the next page. "
+                    + "Settled orders moved to the archive are included with `includeArchived=true`. "
+                    + "Users only ever see their own orders, whatever `userId` they pass, and admins those of their own users.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Success"),
+        @ApiResponse(responseCode = "400", description = "Bad Request"),
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
     @GetMapping("/orders")
-    public List<Transaction> getAllOrders() {
-        return transactionService.getAllOrders();
+    public CursorPage<OrderView> getOrders(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long adminId,
+            @RequestParam(required = false) Long commodityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        if (AuthenticatedUser.USER.equals(principal.getRole())) {
+            userId = principal.getUserId();
+        } else if (AuthenticatedUser.ADMIN.equals(principal.getRole())) {
+            adminId = principal.getUserId();
+        }
+        OrderFilter filter = OrderFilter.builder()
+                .status(status)
+                .userId(userId)
+                .adminId(adminId)
+                .commodityId(commodityId)
+                .from(from)
+                .to(to)
+                .includeArchived(includeArchived)
+                .build();
+        return transactionService.getOrders(filter, cursor, limit);
     }
 
     @Operation(summary = "Process order", description = "Approve or reject a transaction order.")
@@ -55,4 +101,16 @@ public class TransactionController {
     public Transaction processOrder(@PathVariable Long id, @RequestBody java.util.Map<String, String> request) {
         return transactionService.processOrder(id, request.get("action"));
     }
+
+    @Operation(summary = "Process orders in bulk",
+            description = "Approve or reject many orders in one request. Returns the outcome for each order id.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success"),
+        @ApiResponse(responseCode = "400", description = "Bad Request"),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @PutMapping("/orders/process")
+    public List<BulkProcessResult> processOrders(@RequestBody BulkProcessRequest request) {
+        return transactionService.processOrders(request.getOrders());
+    }
 }
@@ -6,12 +6,24 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.extern.slf4j.Slf4j;
 
+import com.inditrad.config.AuthenticatedUser;
+import com.inditrad.model.CursorPage;
+import com.inditrad.model.WalletStatementEntry;
 import com.inditrad.model.WalletUpdateRequest;
+import com.inditrad.service.AdminService;
 import com.inditrad.service.WalletService;
+import com.inditrad.service.WalletStatementService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Slf4j
 @RestController
@@ -20,6 +32,8 @@ import java.math.BigDecimal;
 public class WalletController {
 
     private final WalletService walletService;
+    private final WalletStatementService walletStatementService;
+    private final AdminService adminService;
 
     @Operation(summary = "Update wallet", description = "Update a user's wallet balance.")
     @ApiResponses(value = {
@@ -28,7 +42,58 @@ public class WalletController {
         @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
     @PutMapping("/{userId}/update")
-    public BigDecimal updateWallet(@PathVariable Long userId, @RequestBody WalletUpdateRequest request) {
+    public BigDecimal updateWallet(@AuthenticationPrincipal AuthenticatedUser principal,
+                                   @PathVariable Long userId, @RequestBody WalletUpdateRequest request) {
+        adminService.checkManagedUser(principal, userId);
         return walletService.updateWallet(userId, request.getAmount(), request.getOperation());
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Wallet statement",
+            description = "Wallet movements of a user, newest first, optionally limited to `[from, to)`. Pass `nextCursor` back as `cursor` for the next page.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success"),
+        @ApiResponse(responseCode = "400", description = "Bad Request"),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @GetMapping("/{userId}/statement")
+    public CursorPage<WalletStatementEntry> getStatement(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @PathVariable Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        checkOwnStatement(principal, userId);
+        return walletStatementService.getStatement(userId, from, to, cursor, limit);
+    }
+
+    @Operation(summary = "Export wallet statement",
+            description = "Streams every wallet movement of a user in `[from, to)`, newest first, as `csv` or `ndjson`.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Success"),
+        @ApiResponse(responseCode = "400", description = "Bad Request"),
+        @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @GetMapping("/{userId}/statement/export")
+    public ResponseEntity<StreamingResponseBody> exportStatement(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @PathVariable Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") String format) {
+        checkOwnStatement(principal, userId);
+        boolean csv = WalletStatementService.isCsv(format);
+        StreamingResponseBody body = out -> walletStatementService.export(userId, from, to, format, out);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"wallet-statement-" + userId + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(body);
+    }
+
+    private static void checkOwnStatement(AuthenticatedUser principal, Long userId) {
+        if (AuthenticatedUser.USER.equals(principal.getRole()) && !principal.getUserId().equals(userId)) {
+            throw new RuntimeException("Cannot view another user's statement");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.inditrad.config;
+
+import lombok.Value;
+
+/**
+ * Security principal built from the claims of a verified JWT, without touching the database.
+ * {@code role} is one of {@code user}, {@code admin} or {@code super_admin}, and
+ * {@code userId} is the id in the table for that role.
+ */
+@Value
+public class AuthenticatedUser {
+    public static final String USER = "user";
+    public static final String ADMIN = "admin";
+    public static final String SUPER_ADMIN = "super_admin";
+
+    Long userId;
+    String username;
+    String role;
+}
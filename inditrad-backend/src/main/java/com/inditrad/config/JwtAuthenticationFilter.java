@@ -0,0 +1,71 @@
+package com.inditrad.config;
+
+import com.inditrad.service.TokenRevocationService;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates requests from the bearer token alone. The principal is built from the
+ * {@code sub}, {@code role} and {@code userId} claims, and the only other check is the
+ * in-memory {@link TokenRevocationService}, so authenticating a request never queries the
+ * database. Requests without a valid token continue unauthenticated and are rejected by the
+ * authorization rules where a login is required.
+ * <p>
+ * {@code EventSource} cannot set headers, so the market stream also accepts the token as an
+ * {@code access_token} query parameter.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String STREAM_PATH = "/api/stream";
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService revocationService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = resolveToken(request);
+        if (token != null) {
+            try {
+                TokenClaims claims = jwtUtil.getTokenClaims(token);
+                AuthenticatedUser principal = new AuthenticatedUser(
+                        claims.getUserId(), claims.getUsername(), claims.getRole());
+                if (principal.getRole() != null
+                        && !revocationService.isRevoked(principal.getRole(), principal.getUserId(), claims.getIssuedAt())) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            principal, token, List.of(new SimpleGrantedAuthority("ROLE_" + principal.getRole().toUpperCase())));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("Rejected bearer token: {}", e.getMessage());
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static String resolveToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            return header.substring(BEARER_PREFIX.length());
+        }
+        if (STREAM_PATH.equals(request.getRequestURI())) {
+            return request.getParameter("access_token");
+        }
+        return null;
+    }
+}
@@ -1,50 +1,82 @@
 package com.inditrad.config;
 
+import com.inditrad.util.ExpiringCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
     private static final String SECRET = "inditradSecretKeyForJWTTokenGenerationAndValidation2024ThisIsAVeryLongSecretKeyThatMeetsTheHS512Requirements";
     private static final int JWT_TOKEN_VALIDITY = 5 * 60 * 60; // 5 hours
+    private static final int DEFAULT_CLAIMS_CACHE_SIZE = 10_000;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET.getBytes());
+    // Both are immutable and thread-safe, so they are built once rather than per token.
+    private static final Key SIGNING_KEY = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    private static final JwtParser PARSER = Jwts.parserBuilder().setSigningKey(SIGNING_KEY).build();
+
+    /**
+     * Verified tokens mapped to their claims, each kept until the token expires, so a bearer
+     * token sent repeatedly is only verified and decoded once.
+     */
+    private final ExpiringCache<String, TokenClaims> verifiedClaims;
+
+    public JwtUtil() {
+        this(DEFAULT_CLAIMS_CACHE_SIZE);
+    }
+
+    @Autowired
+    public JwtUtil(@Value("${inditrad.jwt.claims-cache-size:10000}") int claimsCacheSize) {
+        this.verifiedClaims = new ExpiringCache<>(claimsCacheSize);
     }
 
     public String getUsernameFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
+        return getTokenClaims(token).getUsername();
     }
 
     public String getRoleFromToken(String token) {
-        return getClaimFromToken(token, claims -> claims.get("role", String.class));
+        return getTokenClaims(token).getRole();
     }
 
     public Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
+        return new Date(getTokenClaims(token).getExpiresAt());
     }
 
-    public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
-        return claimsResolver.apply(claims);
+    /** Claims of a verified token, from the cache when the token was seen before. */
+    public TokenClaims getTokenClaims(String token) {
+        TokenClaims claims = verifiedClaims.get(token);
+        if (claims == null) {
+            claims = parseTokenClaims(token);
+            verifiedClaims.put(token, claims, claims.getExpiresAt());
+        }
+        return claims;
     }
 
-    private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /** Verifies and decodes the token without consulting or filling the cache. */
+    public TokenClaims parseTokenClaims(String token) {
+        Claims claims = PARSER.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("Token has no expiration");
+        }
+        return new TokenClaims(
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.get("userId", Long.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : null,
+                claims.getExpiration().getTime());
     }
 
     private Boolean isTokenExpired(String token) {
@@ -65,7 +97,7 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + JWT_TOKEN_VALIDITY * 1000))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(SIGNING_KEY, SignatureAlgorithm.HS512)
                 .compact();
     }
 
@@ -0,0 +1,39 @@
+package com.inditrad.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs whether requests and scheduled tasks run on virtual threads. The mode is opt-in through
+ * {@code spring.threads.virtual.enabled} (see the {@code virtual} profile) and silently ignored
+ * by Spring Boot below Java 21, so a mismatch is called out here.
+ * <p>
+ * The dedicated writer threads (matching, journal, notifications, streams, price feed) and the
+ * password hashing pool stay on platform threads in either mode: they are few, long-lived or
+ * CPU-bound, and their bounded queues are the back-pressure.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ThreadingModeReporter {
+
+    private final Environment environment;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Serving requests and scheduled tasks on virtual threads");
+        } else if (requested) {
+            log.warn("Virtual threads requested but Java {} does not support them; using platform threads",
+                    Runtime.version().feature());
+        } else {
+            log.info("Serving requests and scheduled tasks on platform threads");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.inditrad.config;
+
+import lombok.Value;
+
+/**
+ * The claims of a verified JWT that the application reads, copied out of the parsed token so
+ * cached entries cannot be modified by callers. Times are epoch milliseconds; {@code issuedAt}
+ * is null for tokens without an {@code iat} claim.
+ */
+@Value
+public class TokenClaims {
+    String username;
+    String role;
+    Long userId;
+    Long issuedAt;
+    long expiresAt;
+}
@@ -22,7 +22,8 @@ import java.util.List;
 public class AppUser {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "app_user_seq")
+    @SequenceGenerator(name = "app_user_seq", sequenceName = "app_user_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -37,7 +38,8 @@ public class AppUser {
 
     private String mobile;
 
-    @Column(name = "wallet_balance")
+    // Set on insert only; afterwards WalletLedger and WalletJournal own it, so saving a loaded user cannot overwrite it.
+    @Column(name = "wallet_balance", updatable = false)
     private BigDecimal walletBalance = BigDecimal.ZERO;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,38 @@
+package com.inditrad.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A read notification moved out of {@code notification} by
+ * {@link com.inditrad.service.archive.HistoryArchiver}, keeping its id.
+ */
+@Entity
+@Table(name = "notification_archive", indexes = {
+        @Index(name = "idx_notification_archive_admin_created", columnList = "admin_id, created_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedNotification {
+
+    @Id
+    private Long id;
+
+    @Column(name = "admin_id")
+    private Long adminId;
+
+    private String message;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,66 @@
+package com.inditrad.entity;
+
+import com.fasterxml.jackson.annotation.JsonBackReference;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An approved or rejected order moved out of {@code transaction} by
+ * {@link com.inditrad.service.archive.HistoryArchiver}. Columns and attribute names mirror
+ * {@link Transaction}, and the id is kept, so listings can query both tables the same way.
+ */
+@Entity
+@Table(name = "transaction_archive", indexes = {
+        @Index(name = "idx_transaction_archive_timestamp_id", columnList = "timestamp, id"),
+        @Index(name = "idx_transaction_archive_status_timestamp_id", columnList = "status, timestamp, id"),
+        @Index(name = "idx_transaction_archive_user_timestamp_id", columnList = "user_id, timestamp, id"),
+        @Index(name = "idx_transaction_archive_admin_timestamp_id", columnList = "approved_by, timestamp, id"),
+        @Index(name = "idx_transaction_archive_commodity_timestamp_id", columnList = "commodity_id, timestamp, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedTransaction {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    @JsonBackReference
+    private AppUser user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "commodity_id")
+    @JsonBackReference
+    private Commodity commodity;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "approved_by")
+    @JsonBackReference
+    private Admin admin;
+
+    private String type;
+    private BigDecimal quantity;
+    private BigDecimal price;
+
+    @Column(name = "filled_quantity")
+    private BigDecimal filledQuantity;
+
+    private String status;
+
+    @Column(name = "request_key", length = 64)
+    private String requestKey;
+
+    private LocalDateTime timestamp;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
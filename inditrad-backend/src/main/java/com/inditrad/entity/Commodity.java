@@ -21,7 +21,8 @@ import java.util.List;
 public class Commodity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "commodity_seq")
+    @SequenceGenerator(name = "commodity_seq", sequenceName = "commodity_seq", allocationSize = 50)
     private Long id;
 
     private String name;
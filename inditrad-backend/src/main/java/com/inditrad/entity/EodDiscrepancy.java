@@ -0,0 +1,53 @@
+package com.inditrad.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One finding of an end-of-day run: a wallet balance, wallet log entry or order settlement
+ * that does not agree with the rest of the books.
+ */
+@Entity
+@Table(name = "eod_discrepancy", indexes = {
+        @Index(name = "idx_eod_discrepancy_run_id", columnList = "run_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EodDiscrepancy {
+
+    // Wallet balance differs from the opening balance plus the logged changes.
+    public static final String BALANCE_MISMATCH = "BALANCE_MISMATCH";
+    // A log entry's balance_after does not follow from the previous entry and its change.
+    public static final String LOG_CHAIN_BREAK = "LOG_CHAIN_BREAK";
+    // A settled order's wallet postings do not add up to its value.
+    public static final String SETTLEMENT_MISMATCH = "SETTLEMENT_MISMATCH";
+    // An order that never executed has wallet postings.
+    public static final String UNEXPECTED_SETTLEMENT = "UNEXPECTED_SETTLEMENT";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(nullable = false)
+    private String kind;
+
+    private BigDecimal expected;
+    private BigDecimal actual;
+    private String detail;
+}
@@ -0,0 +1,43 @@
+package com.inditrad.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of an end-of-day run: the partition was reconciled and its discrepancies were
+ * written in the same transaction as this row, so a resumed run skips it.
+ */
+@Entity
+@Table(name = "eod_partition", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_eod_partition_run_index", columnNames = {"run_id", "partition_index"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EodPartition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "partition_index", nullable = false)
+    private int partitionIndex;
+
+    @Column(nullable = false)
+    private long users;
+
+    @Column(nullable = false)
+    private long discrepancies;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,58 @@
+package com.inditrad.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One end-of-day reconciliation run per business date, written by
+ * {@link com.inditrad.service.settlement.EndOfDayReconciliation}. The user id range and
+ * partition size are fixed when the run starts, so a resumed run covers the same partitions.
+ */
+@Entity
+@Table(name = "eod_run", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_eod_run_business_date", columnNames = "business_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EodRun {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "business_date", nullable = false)
+    private LocalDate businessDate;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "max_user_id", nullable = false)
+    private long maxUserId;
+
+    @Column(name = "partition_size", nullable = false)
+    private int partitionSize;
+
+    @Column(nullable = false)
+    private int partitions;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Totals over completed partitions, filled in when the run completes.
+    private Long users;
+    private Long discrepancies;
+}
@@ -10,7 +10,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notification")
+@Table(name = "notification", indexes = {
+        @Index(name = "idx_notification_admin_read", columnList = "admin_id, read_status")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
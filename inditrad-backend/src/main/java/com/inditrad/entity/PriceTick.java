@@ -0,0 +1,38 @@
+package com.inditrad.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only price history: one row per commodity price change, written in batches by
+ * {@link com.inditrad.service.history.PriceHistoryService}.
+ */
+@Entity
+@Table(name = "price_tick", indexes = {
+        @Index(name = "idx_price_tick_time_commodity", columnList = "timestamp, commodity_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceTick {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "commodity_id", nullable = false)
+    private Long commodityId;
+
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
+
+    @Column(nullable = false)
+    private BigDecimal price;
+}
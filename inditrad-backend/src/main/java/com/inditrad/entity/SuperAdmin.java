@@ -22,7 +22,8 @@ import java.util.List;
 @Builder
 public class SuperAdmin {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "super_admin_seq")
+    @SequenceGenerator(name = "super_admin_seq", sequenceName = "super_admin_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
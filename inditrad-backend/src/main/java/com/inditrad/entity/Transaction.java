@@ -1,6 +1,7 @@
 package com.inditrad.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,7 +13,15 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "transaction")
+@Table(name = "transaction", indexes = {
+        @Index(name = "idx_transaction_timestamp_id", columnList = "timestamp, id"),
+        @Index(name = "idx_transaction_status_timestamp_id", columnList = "status, timestamp, id"),
+        @Index(name = "idx_transaction_user_timestamp_id", columnList = "user_id, timestamp, id"),
+        @Index(name = "idx_transaction_admin_timestamp_id", columnList = "approved_by, timestamp, id"),
+        @Index(name = "idx_transaction_commodity_timestamp_id", columnList = "commodity_id, timestamp, id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_transaction_user_request_key", columnNames = {"user_id", "request_key"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,7 +29,8 @@ import java.util.List;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -41,7 +51,16 @@ public class Transaction {
     private String type; // BUY or SELL
     private BigDecimal quantity;
     private BigDecimal price;
+
+    @Column(name = "filled_quantity")
+    private BigDecimal filledQuantity;
+
     private String status = "PENDING";
 
+    // Client-supplied Idempotency-Key the order was placed with, unique per user.
+    @Column(name = "request_key", length = 64)
+    @JsonIgnore
+    private String requestKey;
+
     private LocalDateTime timestamp = LocalDateTime.now();
 }
@@ -0,0 +1,53 @@
+package com.inditrad.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted snapshot of one user's position in one commodity, written in the same
+ * transaction as the settlement that changes it by
+ * {@link com.inditrad.service.positions.PositionService}.
+ */
+@Entity
+@Table(name = "user_position", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_position_user_commodity", columnNames = {"user_id", "commodity_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserPosition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "commodity_id", nullable = false)
+    private Long commodityId;
+
+    // Negative when short.
+    @Column(nullable = false, precision = 38, scale = 6)
+    private BigDecimal quantity;
+
+    @Column(name = "average_cost", nullable = false, precision = 38, scale = 6)
+    private BigDecimal averageCost;
+
+    @Column(name = "realized_pnl", nullable = false, precision = 38, scale = 6)
+    private BigDecimal realizedPnl;
+
+    // Bumped on every change; keeps an older snapshot from replacing a newer one in memory.
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
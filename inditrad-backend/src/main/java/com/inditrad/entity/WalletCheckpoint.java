@@ -0,0 +1,31 @@
+package com.inditrad.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single-row marker written with each wallet balance checkpoint: every wallet log entry up
+ * to {@code lastLogId} is reflected in {@code app_user.wallet_balance}.
+ */
+@Entity
+@Table(name = "wallet_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletCheckpoint {
+
+    @Id
+    private Long id;
+
+    @Column(name = "last_log_id")
+    private Long lastLogId;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -10,7 +10,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "wallet_log")
+@Table(name = "wallet_log", indexes = {
+        @Index(name = "idx_wallet_log_user_time", columnList = "user_id, timestamp, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,6 +20,8 @@ import java.time.LocalDateTime;
 public class WalletLog {
 
     @Id
+    // Identity rather than a pooled sequence: the ledger and journal insert rows in JDBC batches
+    // that rely on the column default.
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
@@ -28,5 +32,12 @@ public class WalletLog {
     private BigDecimal changeAmount;
     private String transactionType;
     private String remarks;
+
+    @Column(name = "balance_after")
+    private BigDecimal balanceAfter;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
     private LocalDateTime timestamp = LocalDateTime.now();
 }
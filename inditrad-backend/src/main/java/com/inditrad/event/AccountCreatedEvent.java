@@ -0,0 +1,17 @@
+package com.inditrad.event;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Published when an admin or user account is created. {@code role} is one of the
+ * {@link com.inditrad.config.AuthenticatedUser} roles.
+ */
+@Value
+public class AccountCreatedEvent {
+    String role;
+    Long id;
+    Long adminId;
+    BigDecimal walletBalance;
+}
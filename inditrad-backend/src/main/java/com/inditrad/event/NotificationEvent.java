@@ -0,0 +1,16 @@
+package com.inditrad.event;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Asks for a notification to be delivered to an admin. Persisted and pushed asynchronously
+ * by {@link com.inditrad.service.NotificationService}.
+ */
+@Value
+public class NotificationEvent {
+    Long adminId;
+    String message;
+    LocalDateTime createdAt;
+}
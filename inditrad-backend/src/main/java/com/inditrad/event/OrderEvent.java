@@ -0,0 +1,41 @@
+package com.inditrad.event;
+
+import com.inditrad.entity.Transaction;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published whenever an order is placed or changes status.
+ */
+@Value
+@Builder
+public class OrderEvent {
+    Long id;
+    Long userId;
+    Long commodityId;
+    Long adminId;
+    String type;
+    BigDecimal quantity;
+    BigDecimal price;
+    String status;
+    String previousStatus;
+    LocalDateTime timestamp;
+
+    public static OrderEvent of(Transaction txn, String previousStatus) {
+        return OrderEvent.builder()
+                .id(txn.getId())
+                .userId(txn.getUser() != null ? txn.getUser().getId() : null)
+                .commodityId(txn.getCommodity() != null ? txn.getCommodity().getId() : null)
+                .adminId(txn.getAdmin() != null ? txn.getAdmin().getId() : null)
+                .type(txn.getType())
+                .quantity(txn.getQuantity())
+                .price(txn.getPrice())
+                .status(txn.getStatus())
+                .previousStatus(previousStatus)
+                .timestamp(txn.getTimestamp())
+                .build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.inditrad.event;
+
+import com.inditrad.model.CommoditySnapshot;
+import com.inditrad.service.CommodityPriceBook;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Published after the price book has swapped in a new snapshot.
+ */
+@Value
+public class PriceTickEvent {
+    CommodityPriceBook.Snapshot snapshot;
+    /** The commodities whose price this tick changed, as they appear in {@code snapshot}. */
+    List<CommoditySnapshot> changed;
+}
@@ -0,0 +1,15 @@
+package com.inditrad.event;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by {@link com.inditrad.service.WalletLedger} for every balance change. Listeners
+ * that track balances should apply it after commit, as a delta, so delivery order does not matter.
+ */
+@Value
+public class WalletPostedEvent {
+    Long userId;
+    BigDecimal amount; // positive credits, negative debits
+}
@@ -0,0 +1,26 @@
+package com.inditrad.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat, read-only projection of an {@link com.inditrad.entity.Admin} for admin listings,
+ * without credentials.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminView {
+    private Long id;
+    private String username;
+    private String name;
+    private String email;
+    private String mobile;
+    private String status;
+    private Long createdById;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,20 @@
+package com.inditrad.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@Builder
+public class AggregateTotals {
+    private Long adminId;
+    private long users;
+    private long pendingOrders;
+    private long approvedOrders;
+    private long rejectedOrders;
+    private BigDecimal walletFloat;
+    // Price times quantity of approved orders, by commodity id.
+    private Map<Long, BigDecimal> tradedNotional;
+}
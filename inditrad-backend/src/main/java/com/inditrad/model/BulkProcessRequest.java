@@ -0,0 +1,16 @@
+package com.inditrad.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkProcessRequest {
+    private List<OrderAction> orders;
+
+    @Data
+    public static class OrderAction {
+        private Long id;
+        private String action; // "approve" or "reject"
+    }
+}
@@ -0,0 +1,20 @@
+package com.inditrad.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BulkProcessResult {
+    private Long orderId;
+    private String status;
+    private String error;
+
+    public static BulkProcessResult ok(Long orderId, String status) {
+        return new BulkProcessResult(orderId, status, null);
+    }
+
+    public static BulkProcessResult failed(Long orderId, String error) {
+        return new BulkProcessResult(orderId, null, error);
+    }
+}
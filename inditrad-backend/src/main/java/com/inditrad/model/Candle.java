@@ -0,0 +1,23 @@
+package com.inditrad.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Open/high/low/close prices of one commodity over the interval starting at {@code time}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Candle {
+    private LocalDateTime time;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private long ticks;
+}
@@ -0,0 +1,21 @@
+package com.inditrad.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable view of a commodity price as held by the in-memory price book.
+ */
+@Value
+@Builder(toBuilder = true)
+public class CommoditySnapshot {
+    Long id;
+    String name;
+    String unit;
+    BigDecimal currentPrice;
+    BigDecimal previousPrice;
+    LocalDateTime lastUpdated;
+}
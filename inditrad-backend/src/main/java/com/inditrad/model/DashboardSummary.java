@@ -0,0 +1,16 @@
+package com.inditrad.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class DashboardSummary {
+    private long admins;
+    private AggregateTotals totals;
+    private List<AggregateTotals> byAdmin;
+    private LocalDateTime reconciledAt;
+}
@@ -0,0 +1,21 @@
+package com.inditrad.model;
+
+import com.inditrad.entity.EodDiscrepancy;
+import com.inditrad.entity.EodRun;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Progress and findings of an end-of-day run: discrepancy counts by kind and the first of them.
+ */
+@Data
+@Builder
+public class EodReport {
+    private EodRun run;
+    private long completedPartitions;
+    private Map<String, Long> discrepanciesByKind;
+    private List<EodDiscrepancy> discrepancies;
+}
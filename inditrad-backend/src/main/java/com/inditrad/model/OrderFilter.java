@@ -0,0 +1,23 @@
+package com.inditrad.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for order listings; {@code null} fields are ignored.
+ * {@code from} is inclusive and {@code to} is exclusive. Archived orders are only listed
+ * with {@code includeArchived}.
+ */
+@Value
+@Builder
+public class OrderFilter {
+    String status;
+    Long userId;
+    Long adminId;
+    Long commodityId;
+    LocalDateTime from;
+    LocalDateTime to;
+    boolean includeArchived;
+}
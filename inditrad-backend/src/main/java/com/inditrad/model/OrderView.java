@@ -0,0 +1,28 @@
+package com.inditrad.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat, read-only projection of a {@link com.inditrad.entity.Transaction} for order listings.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderView {
+    private Long id;
+    private Long userId;
+    private String userName;
+    private Long commodityId;
+    private String commodityName;
+    private Long adminId;
+    private String type;
+    private BigDecimal quantity;
+    private BigDecimal price;
+    private String status;
+    private LocalDateTime timestamp;
+}
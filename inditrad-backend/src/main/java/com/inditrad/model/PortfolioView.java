@@ -0,0 +1,20 @@
+package com.inditrad.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A user's positions marked against the live price book, with totals across commodities.
+ */
+@Data
+@Builder
+public class PortfolioView {
+    private Long userId;
+    private List<PositionView> positions;
+    private BigDecimal marketValue;
+    private BigDecimal unrealizedPnl;
+    private BigDecimal realizedPnl;
+}
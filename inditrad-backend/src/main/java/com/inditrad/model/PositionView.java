@@ -0,0 +1,20 @@
+package com.inditrad.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class PositionView {
+    private Long commodityId;
+    private String commodityName;
+    // Negative when short.
+    private BigDecimal quantity;
+    private BigDecimal averageCost;
+    private BigDecimal marketPrice;
+    private BigDecimal marketValue;
+    private BigDecimal unrealizedPnl;
+    private BigDecimal realizedPnl;
+}
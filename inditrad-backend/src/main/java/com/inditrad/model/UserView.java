@@ -0,0 +1,29 @@
+package com.inditrad.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat, read-only projection of an {@link com.inditrad.entity.AppUser} for user listings,
+ * including the owning admin and without credentials.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserView {
+    private Long id;
+    private String username;
+    private String name;
+    private String email;
+    private String mobile;
+    private BigDecimal walletBalance;
+    private String status;
+    private Long adminId;
+    private String adminUsername;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
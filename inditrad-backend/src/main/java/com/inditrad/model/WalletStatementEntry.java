@@ -0,0 +1,24 @@
+package com.inditrad.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One line of a user's wallet statement, read straight from {@code wallet_log}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletStatementEntry {
+    private Long id;
+    private String transactionType;
+    private BigDecimal changeAmount;
+    private BigDecimal balanceAfter;
+    private String remarks;
+    private Long orderId;
+    private LocalDateTime timestamp;
+}
@@ -1,7 +1,10 @@
 package com.inditrad.repository;
 
 import com.inditrad.entity.*;
+import com.inditrad.model.AdminView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +13,15 @@ import java.util.Optional;
 @Repository
 public interface AdminRepository extends JpaRepository<Admin, Long> {
     Optional<Admin> findByUsername(String username);
+
+    @Query("select new com.inditrad.model.AdminView(a.id, a.username, a.name, a.email, a.mobile, a.status, "
+            + "s.id, a.createdAt, a.updatedAt) from Admin a left join a.createdBy s order by a.id")
+    List<AdminView> findAllViews();
+
+    @Query("select new com.inditrad.model.AdminView(a.id, a.username, a.name, a.email, a.mobile, a.status, "
+            + "s.id, a.createdAt, a.updatedAt) from Admin a left join a.createdBy s where a.id = :id")
+    Optional<AdminView> findViewById(@Param("id") Long id);
+
+    @Query("select a.id from Admin a where a.status = :status")
+    List<Long> findIdsByStatus(@Param("status") String status);
 }
@@ -1,9 +1,15 @@
 package com.inditrad.repository;
 
 import com.inditrad.entity.*;
+import com.inditrad.model.UserView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +18,29 @@ public interface AppUserRepository extends JpaRepository<AppUser, Long> {
     Optional<AppUser> findByUsername(String username);
     List<AppUser> findByAdminId(Long adminId);
     long countByAdminId(Long adminId);
+
+    @Query("select new com.inditrad.model.UserView(u.id, u.username, u.name, u.email, u.mobile, u.walletBalance, "
+            + "u.status, a.id, a.username, u.createdAt, u.updatedAt) from AppUser u left join u.admin a order by u.id")
+    List<UserView> findAllViews();
+
+    @Query("select new com.inditrad.model.UserView(u.id, u.username, u.name, u.email, u.mobile, u.walletBalance, "
+            + "u.status, a.id, a.username, u.createdAt, u.updatedAt) from AppUser u join u.admin a "
+            + "where a.id = :adminId order by u.id")
+    List<UserView> findViewsByAdminId(@Param("adminId") Long adminId);
+
+    @Query("select u.id from AppUser u where u.status = :status")
+    List<Long> findIdsByStatus(@Param("status") String status);
+
+    // Profile edits touch only their own columns, so they never write back a stale wallet_balance.
+    @Transactional
+    @Modifying
+    @Query("update AppUser u set u.status = :status, u.updatedAt = :now where u.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") String status, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update AppUser u set u.name = :name, u.email = :email, u.mobile = :mobile, u.updatedAt = :now "
+            + "where u.id = :id")
+    int updateContact(@Param("id") Long id, @Param("name") String name, @Param("email") String email,
+                      @Param("mobile") String mobile, @Param("now") LocalDateTime now);
 }
@@ -2,7 +2,11 @@ package com.inditrad.repository;
 
 import com.inditrad.entity.*;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,4 +14,15 @@ import java.util.Optional;
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByAdminIdAndReadStatusFalse(Long adminId);
+    long countByAdminIdAndReadStatusFalse(Long adminId);
+
+    @Transactional
+    @Modifying
+    @Query("update Notification n set n.readStatus = true where n.id = :id and n.readStatus = false")
+    int markRead(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("update Notification n set n.readStatus = true where n.admin.id = :adminId and n.readStatus = false")
+    int markAllRead(@Param("adminId") Long adminId);
 }
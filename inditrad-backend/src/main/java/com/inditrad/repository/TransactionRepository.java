@@ -1,15 +1,32 @@
 package com.inditrad.repository;
 
 import com.inditrad.entity.*;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
     List<Transaction> findByUserId(Long userId);
     List<Transaction> findByAdminId(Long adminId);
     List<Transaction> findByStatus(String status);
+    List<Transaction> findByStatusOrderByTimestampAscIdAsc(String status);
+    Optional<Transaction> findByUserIdAndRequestKey(Long userId, String requestKey);
+
+    @Query("select t from Transaction t join fetch t.user where t.id in :ids")
+    List<Transaction> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Transaction t where t.id = :id")
+    Optional<Transaction> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("select t.user.id from Transaction t where t.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
 }
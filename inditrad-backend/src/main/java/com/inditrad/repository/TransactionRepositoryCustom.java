@@ -0,0 +1,17 @@
+package com.inditrad.repository;
+
+import com.inditrad.model.OrderFilter;
+import com.inditrad.model.OrderView;
+import com.inditrad.model.PageCursor;
+
+import java.util.List;
+
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Returns up to {@code limit} orders matching {@code filter}, newest first, strictly after
+     * {@code after} in {@code (timestamp, id)} descending order. A {@code null} cursor starts
+     * from the newest order.
+     */
+    List<OrderView> findOrderPage(OrderFilter filter, PageCursor after, int limit);
+}
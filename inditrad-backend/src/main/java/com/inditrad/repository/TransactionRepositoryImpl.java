@@ -0,0 +1,94 @@
+package com.inditrad.repository;
+
+import com.inditrad.entity.Admin;
+import com.inditrad.entity.ArchivedTransaction;
+import com.inditrad.entity.AppUser;
+import com.inditrad.entity.Commodity;
+import com.inditrad.entity.Transaction;
+import com.inditrad.model.OrderFilter;
+import com.inditrad.model.OrderView;
+import com.inditrad.model.PageCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final Comparator<OrderView> NEWEST_FIRST =
+            Comparator.comparing(OrderView::getTimestamp).thenComparing(OrderView::getId).reversed();
+
+    @Override
+    public List<OrderView> findOrderPage(OrderFilter filter, PageCursor after, int limit) {
+        List<OrderView> page = findOrderPage(Transaction.class, filter, after, limit);
+        if (!filter.isIncludeArchived()) {
+            return page;
+        }
+        // Both tables are read up to the same cursor; the newest of the two pages form this one.
+        List<OrderView> merged = new ArrayList<>(page);
+        merged.addAll(findOrderPage(ArchivedTransaction.class, filter, after, limit));
+        merged.sort(NEWEST_FIRST);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    // ArchivedTransaction mirrors Transaction's attribute names, so one query serves both.
+    private <T> List<OrderView> findOrderPage(Class<T> table, OrderFilter filter, PageCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderView> query = cb.createQuery(OrderView.class);
+        Root<T> txn = query.from(table);
+        Join<T, AppUser> user = txn.join("user", JoinType.LEFT);
+        Join<T, Commodity> commodity = txn.join("commodity", JoinType.LEFT);
+        Join<T, Admin> admin = txn.join("admin", JoinType.LEFT);
+        Path<LocalDateTime> timestamp = txn.get("timestamp");
+        Path<Long> id = txn.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getStatus() != null) {
+            predicates.add(cb.equal(txn.get("status"), filter.getStatus()));
+        }
+        if (filter.getUserId() != null) {
+            predicates.add(cb.equal(txn.get("user").get("id"), filter.getUserId()));
+        }
+        if (filter.getAdminId() != null) {
+            predicates.add(cb.equal(txn.get("admin").get("id"), filter.getAdminId()));
+        }
+        if (filter.getCommodityId() != null) {
+            predicates.add(cb.equal(txn.get("commodity").get("id"), filter.getCommodityId()));
+        }
+        if (filter.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(timestamp, filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            predicates.add(cb.lessThan(timestamp, filter.getTo()));
+        }
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(timestamp, after.getTimestamp()),
+                    cb.and(cb.equal(timestamp, after.getTimestamp()), cb.lessThan(id, after.getId()))));
+        }
+
+        query.select(cb.construct(OrderView.class,
+                        id, user.get("id"), user.get("username"), commodity.get("id"), commodity.get("name"),
+                        admin.get("id"), txn.get("type"), txn.get("quantity"), txn.get("price"),
+                        txn.get("status"), timestamp))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(timestamp), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
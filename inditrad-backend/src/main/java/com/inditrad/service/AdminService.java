@@ -3,16 +3,22 @@ package com.inditrad.service;
 
 import lombok.extern.slf4j.Slf4j;
 
+import com.inditrad.config.AuthenticatedUser;
 import com.inditrad.entity.Admin;
 import com.inditrad.entity.AppUser;
+import com.inditrad.event.AccountCreatedEvent;
 import com.inditrad.model.CreateAdminRequest;
 import com.inditrad.model.CreateUserRequest;
 import com.inditrad.repository.AdminRepository;
 import com.inditrad.repository.AppUserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -21,6 +27,8 @@ public class AdminService {
     private final AdminRepository adminRepository;
     private final AppUserRepository appUserRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CredentialIndex credentialIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Admin createAdmin(CreateAdminRequest request) {
         Admin admin = new Admin();
@@ -28,7 +36,10 @@ public class AdminService {
         admin.setPassword(passwordEncoder.encode(request.getPassword()));
         admin.setName(request.getName());
         admin.setMobile(request.getMobile());
-        return adminRepository.save(admin);
+        Admin saved = adminRepository.save(admin);
+        credentialIndex.put(AuthenticatedUser.ADMIN, saved.getId(), saved.getUsername(), saved.getPassword());
+        eventPublisher.publishEvent(new AccountCreatedEvent(AuthenticatedUser.ADMIN, saved.getId(), null, null));
+        return saved;
     }
 
     public AppUser createUser(CreateUserRequest request, Long adminId) {
@@ -47,6 +58,44 @@ public class AdminService {
         user.setWalletBalance(request.getInitialWalletBalance());
         user.setAdmin(admin);
 
-        return appUserRepository.save(user);
+        AppUser saved = appUserRepository.save(user);
+        credentialIndex.put(AuthenticatedUser.USER, saved.getId(), saved.getUsername(), saved.getPassword());
+        eventPublisher.publishEvent(new AccountCreatedEvent(AuthenticatedUser.USER, saved.getId(), adminId,
+                saved.getWalletBalance()));
+        return saved;
+    }
+
+    /** Admins may only manage their own users; a super admin manages every user. */
+    public void checkManagedUser(AuthenticatedUser principal, Long userId) {
+        if (!AuthenticatedUser.ADMIN.equals(principal.getRole())) {
+            return;
+        }
+        AppUser user = appUserRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (user.getAdmin() == null || !principal.getUserId().equals(user.getAdmin().getId())) {
+            throw new RuntimeException("Cannot manage another admin's user");
+        }
+    }
+
+    /**
+     * Updates only the status column; the wallet balance is owned by {@link WalletLedger} and
+     * is never written from a loaded entity.
+     */
+    public AppUser updateUserStatus(Long userId, String status) {
+        if (appUserRepository.updateStatus(userId, status, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("User not found");
+        }
+        return appUserRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    /** Updates the name, email and mobile present in {@code request}, leaving the others as they are. */
+    public AppUser updateUserInfo(Long userId, Map<String, Object> request) {
+        AppUser user = appUserRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        String name = request.containsKey("name") ? (String) request.get("name") : user.getName();
+        String email = request.containsKey("email") ? (String) request.get("email") : user.getEmail();
+        String mobile = request.containsKey("mobile") ? (String) request.get("mobile") : user.getMobile();
+        appUserRepository.updateContact(userId, name, email, mobile, LocalDateTime.now());
+        return appUserRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
     }
 }
@@ -2,15 +2,13 @@ package com.inditrad.service;
 
 import lombok.extern.slf4j.Slf4j;
 
+import com.inditrad.config.AuthenticatedUser;
 import com.inditrad.config.JwtUtil;
-import com.inditrad.entity.Admin;
-import com.inditrad.entity.AppUser;
-import com.inditrad.entity.SuperAdmin;
 import com.inditrad.repository.AdminRepository;
 import com.inditrad.repository.AppUserRepository;
 import com.inditrad.repository.SuperAdminRepository;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -23,48 +21,51 @@ public class AuthService {
     private final AppUserRepository appUserRepository;
     private final AdminRepository adminRepository;
     private final SuperAdminRepository superAdminRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final CredentialIndex credentialIndex;
+    private final PasswordVerifier passwordVerifier;
     private final JwtUtil jwtUtil;
+    private final TradingMetrics metrics;
 
+    /**
+     * Resolves the account through the {@link CredentialIndex} and checks the password once,
+     * on the {@link PasswordVerifier} pool. Returns the matching account entity.
+     */
     public Optional<?> login(String username, String password) {
-        Optional<AppUser> user = appUserRepository.findByUsername(username);
-        if (user.isPresent() && passwordEncoder.matches(password, user.get().getPassword())) {
-            return Optional.of(user.get());
+        Timer.Sample sample = metrics.start();
+        String outcome = TradingMetrics.FAILURE;
+        try {
+            Optional<CredentialIndex.Credential> credential = credentialIndex.find(username);
+            if (credential.isEmpty() || !passwordVerifier.matches(password, credential.get().getPasswordHash())) {
+                outcome = "invalid";
+                return Optional.empty();
+            }
+            Optional<?> account = Optional.ofNullable(findAccount(credential.get().getRole(), credential.get().getId()));
+            outcome = account.isPresent() ? TradingMetrics.SUCCESS : "invalid";
+            return account;
+        } finally {
+            // Refused logins (hash pool saturated) throw and are recorded as failures.
+            metrics.stop(sample, "inditrad.auth.login", TradingMetrics.OUTCOME, outcome);
         }
-
-        Optional<Admin> admin = adminRepository.findByUsername(username);
-        if (admin.isPresent() && passwordEncoder.matches(password, admin.get().getPassword())) {
-            return Optional.of(admin.get());
-        }
-
-        Optional<SuperAdmin> superAdmin = superAdminRepository.findByUsername(username);
-        if (superAdmin.isPresent() && passwordEncoder.matches(password, superAdmin.get().getPassword())) {
-            return Optional.of(superAdmin.get());
-        }
-
-        return Optional.empty();
     }
 
     public String generateToken(String username, String role, Long userId) {
         return jwtUtil.generateToken(username, role, userId);
     }
 
-    public Object getCurrentUser(String username) {
-        Optional<AppUser> user = appUserRepository.findByUsername(username);
-        if (user.isPresent()) {
-            return user.get();
-        }
-
-        Optional<Admin> admin = adminRepository.findByUsername(username);
-        if (admin.isPresent()) {
-            return admin.get();
-        }
-
-        Optional<SuperAdmin> superAdmin = superAdminRepository.findByUsername(username);
-        if (superAdmin.isPresent()) {
-            return superAdmin.get();
+    /** Loads the account behind an authenticated principal with a single primary-key lookup. */
+    public Object getCurrentUser(AuthenticatedUser principal) {
+        if (principal == null || principal.getUserId() == null) {
+            return null;
         }
+        return findAccount(principal.getRole(), principal.getUserId());
+    }
 
-        return null;
+    private Object findAccount(String role, Long id) {
+        return switch (role) {
+            case AuthenticatedUser.USER -> appUserRepository.findById(id).orElse(null);
+            case AuthenticatedUser.ADMIN -> adminRepository.findById(id).orElse(null);
+            case AuthenticatedUser.SUPER_ADMIN -> superAdminRepository.findById(id).orElse(null);
+            default -> null;
+        };
     }
 }
@@ -0,0 +1,161 @@
+package com.inditrad.service;
+
+import com.inditrad.entity.Commodity;
+import com.inditrad.event.PriceTickEvent;
+import com.inditrad.model.CommoditySnapshot;
+import com.inditrad.repository.CommodityRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Authoritative in-memory price book. Readers always see a complete, versioned
+ * snapshot; writers swap in a new snapshot atomically. Changed prices are
+ * written back to the database in batches by {@link #flush()}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@DependsOn("dataInitializer")
+public class CommodityPriceBook {
+
+    private static final String UPDATE_PRICE_SQL =
+            "UPDATE commodity SET current_price = ?, last_updated = ? WHERE id = ?";
+
+    private final CommodityRepository commodityRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TradingMetrics metrics;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    private final Map<Long, CommoditySnapshot> pendingWrites = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        Map<Long, CommoditySnapshot> prices = new LinkedHashMap<>();
+        for (Commodity commodity : commodityRepository.findAll()) {
+            prices.put(commodity.getId(), CommoditySnapshot.builder()
+                    .id(commodity.getId())
+                    .name(commodity.getName())
+                    .unit(commodity.getUnit())
+                    .currentPrice(commodity.getCurrentPrice())
+                    .previousPrice(commodity.getCurrentPrice())
+                    .lastUpdated(commodity.getLastUpdated())
+                    .build());
+        }
+        snapshot.set(new Snapshot(1, prices));
+        log.info("Price book loaded with {} commodities", prices.size());
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    public List<CommoditySnapshot> getAll() {
+        return snapshot.get().getCommodities();
+    }
+
+    public Optional<CommoditySnapshot> get(Long commodityId) {
+        return Optional.ofNullable(snapshot.get().prices.get(commodityId));
+    }
+
+    /**
+     * Applies a set of new prices as one atomic step, queues them for write-back and
+     * publishes a {@link PriceTickEvent}. Unknown commodity ids are ignored.
+     */
+    public Snapshot updatePrices(Map<Long, BigDecimal> newPrices) {
+        return metrics.record("inditrad.prices.update", () -> applyPrices(newPrices));
+    }
+
+    private Snapshot applyPrices(Map<Long, BigDecimal> newPrices) {
+        LocalDateTime now = LocalDateTime.now();
+        Snapshot current;
+        Snapshot next;
+        do {
+            current = snapshot.get();
+            Map<Long, CommoditySnapshot> prices = new LinkedHashMap<>(current.prices);
+            newPrices.forEach((id, price) -> prices.computeIfPresent(id, (key, old) -> old.toBuilder()
+                    .previousPrice(old.getCurrentPrice())
+                    .currentPrice(price)
+                    .lastUpdated(now)
+                    .build()));
+            next = new Snapshot(current.version + 1, prices);
+        } while (!snapshot.compareAndSet(current, next));
+
+        List<CommoditySnapshot> changed = new ArrayList<>(newPrices.size());
+        for (Long id : newPrices.keySet()) {
+            CommoditySnapshot updated = next.prices.get(id);
+            if (updated != null) {
+                pendingWrites.put(id, updated);
+                changed.add(updated);
+                metrics.increment("inditrad.prices.ticks", "commodity", updated.getName());
+            }
+        }
+        eventPublisher.publishEvent(new PriceTickEvent(next, changed));
+        return next;
+    }
+
+    public CommoditySnapshot updatePrice(Long commodityId, BigDecimal price) {
+        if (!snapshot.get().prices.containsKey(commodityId)) {
+            throw new RuntimeException("Commodity not found");
+        }
+        return updatePrices(Map.of(commodityId, price)).prices.get(commodityId);
+    }
+
+    @Scheduled(fixedDelayString = "${inditrad.prices.flush-interval-ms:5000}")
+    @PreDestroy
+    public void flush() {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+        List<CommoditySnapshot> batch = new ArrayList<>(pendingWrites.values());
+        jdbcTemplate.batchUpdate(UPDATE_PRICE_SQL, batch, batch.size(), (ps, commodity) -> {
+            ps.setBigDecimal(1, commodity.getCurrentPrice());
+            ps.setTimestamp(2, Timestamp.valueOf(commodity.getLastUpdated()));
+            ps.setLong(3, commodity.getId());
+        });
+        // Only clear entries that were not overwritten by a newer tick while writing.
+        batch.forEach(commodity -> pendingWrites.remove(commodity.getId(), commodity));
+        log.debug("Flushed {} commodity prices", batch.size());
+    }
+
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(0, Collections.emptyMap());
+
+        private final long version;
+        private final Map<Long, CommoditySnapshot> prices;
+        private final List<CommoditySnapshot> commodities;
+
+        Snapshot(long version, Map<Long, CommoditySnapshot> prices) {
+            this.version = version;
+            this.prices = Collections.unmodifiableMap(prices);
+            this.commodities = List.copyOf(prices.values());
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public List<CommoditySnapshot> getCommodities() {
+            return commodities;
+        }
+    }
+}
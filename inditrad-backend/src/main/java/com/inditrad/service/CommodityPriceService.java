@@ -1,31 +1,38 @@
 package com.inditrad.service;
 
-import com.inditrad.entity.Commodity;
-import com.inditrad.repository.CommodityRepository;
+import com.inditrad.model.CommoditySnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
+/**
+ * Simulated prices: a random walk applied every 30 seconds. Replaced by an external
+ * {@link com.inditrad.service.feed.PriceFeed} when {@code inditrad.feed.source} is set.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "inditrad.feed.source", havingValue = "simulated", matchIfMissing = true)
 public class CommodityPriceService {
 
-    private final CommodityRepository commodityRepository;
+    private final CommodityPriceBook priceBook;
     private final Random random = new Random();
 
     @Scheduled(fixedRate = 30000)
     public void updateCommodityPrices() {
-        List<Commodity> commodities = commodityRepository.findAll();
-        
-        for (Commodity commodity : commodities) {
+        List<CommoditySnapshot> commodities = priceBook.getAll();
+        Map<Long, BigDecimal> newPrices = new HashMap<>();
+
+        for (CommoditySnapshot commodity : commodities) {
             BigDecimal currentPrice = commodity.getCurrentPrice();
             
             double changePercent = (random.nextDouble() - 0.5) * 0.04;
@@ -36,11 +43,10 @@ public class CommodityPriceService {
                 newPrice = BigDecimal.valueOf(0.01);
             }
             
-            commodity.setCurrentPrice(newPrice);
-            commodity.setLastUpdated(LocalDateTime.now());
-            commodityRepository.save(commodity);
+            newPrices.put(commodity.getId(), newPrice);
         }
-        
+
+        priceBook.updatePrices(newPrices);
         log.info("Updated prices for {} commodities", commodities.size());
     }
 }
@@ -0,0 +1,94 @@
+package com.inditrad.service;
+
+import com.inditrad.config.AuthenticatedUser;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory username → (role, id, password hash) index over users, admins and super admins,
+ * so login resolves an account with one map lookup instead of probing three tables.
+ * <p>
+ * Loaded at startup and updated by {@link AdminService} as accounts are created. Accounts
+ * written by other paths are still found: a miss falls back to a single UNION query and
+ * caches the result. When a username exists in more than one table, the user account wins
+ * over the admin and the admin over the super admin.
+ */
+@Slf4j
+@Service
+@DependsOn("dataInitializer")
+@RequiredArgsConstructor
+public class CredentialIndex {
+
+    private static final String SELECT_ALL_SQL =
+            "SELECT 'super_admin' AS role, id, username, password FROM super_admin "
+                    + "UNION ALL SELECT 'admin', id, username, password FROM admin "
+                    + "UNION ALL SELECT 'user', id, username, password FROM app_user";
+    private static final String SELECT_ONE_SQL =
+            "SELECT 'user' AS role, id, username, password, 0 AS priority FROM app_user WHERE username = ? "
+                    + "UNION ALL SELECT 'admin', id, username, password, 1 FROM admin WHERE username = ? "
+                    + "UNION ALL SELECT 'super_admin', id, username, password, 2 FROM super_admin WHERE username = ? "
+                    + "ORDER BY priority LIMIT 1";
+    private static final RowMapper<Credential> CREDENTIAL_MAPPER = (rs, rowNum) -> new Credential(
+            rs.getString("role"), rs.getLong("id"), rs.getString("username"), rs.getString("password"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Credential> credentials = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        jdbcTemplate.query(SELECT_ALL_SQL, CREDENTIAL_MAPPER).forEach(this::put);
+        log.info("Credential index loaded with {} accounts", credentials.size());
+    }
+
+    public Optional<Credential> find(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        Credential credential = credentials.get(username);
+        if (credential == null) {
+            List<Credential> found = jdbcTemplate.query(SELECT_ONE_SQL, CREDENTIAL_MAPPER, username, username, username);
+            if (found.isEmpty()) {
+                return Optional.empty();
+            }
+            credential = found.get(0);
+            credentials.putIfAbsent(username, credential);
+        }
+        return Optional.of(credential);
+    }
+
+    public void put(String role, Long id, String username, String passwordHash) {
+        put(new Credential(role, id, username, passwordHash));
+    }
+
+    private void put(Credential credential) {
+        credentials.merge(credential.getUsername(), credential,
+                (existing, updated) -> precedence(updated.getRole()) <= precedence(existing.getRole()) ? updated : existing);
+    }
+
+    private static int precedence(String role) {
+        return switch (role) {
+            case AuthenticatedUser.USER -> 0;
+            case AuthenticatedUser.ADMIN -> 1;
+            default -> 2;
+        };
+    }
+
+    @Value
+    public static class Credential {
+        String role;
+        Long id;
+        String username;
+        String passwordHash;
+    }
+}
@@ -0,0 +1,281 @@
+package com.inditrad.service;
+
+import com.inditrad.config.AuthenticatedUser;
+import com.inditrad.event.AccountCreatedEvent;
+import com.inditrad.event.OrderEvent;
+import com.inditrad.event.WalletPostedEvent;
+import com.inditrad.model.AggregateTotals;
+import com.inditrad.model.DashboardSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Totals for the super-admin dashboard, globally and per admin: user counts, order counts by
+ * status, traded notional per commodity and wallet float.
+ * <p>
+ * Counters are {@link LongAdder}s (money in hundredths) updated from committed
+ * {@link OrderEvent}s, {@link WalletPostedEvent}s and {@link AccountCreatedEvent}s, so reading
+ * them costs the same however large the tables grow. They are loaded from SQL once the
+ * application is ready and reconciled against it every {@code reconcile-interval-ms}; any
+ * drift is logged, counted as {@code inditrad.aggregates.drift} and replaced by the SQL figures.
+ * An event racing a reconciliation can leave a small error until the next one.
+ */
+@Slf4j
+@Service
+public class DashboardAggregates {
+
+    private static final String SELECT_USERS_SQL = "SELECT id, admin_id, wallet_balance FROM app_user";
+    private static final String COUNT_ADMINS_SQL = "SELECT COUNT(*) FROM admin";
+    // Archived orders still count; archiving moves rows without changing any totals.
+    private static final String COUNT_ORDERS_SQL =
+            "SELECT approved_by, status, COUNT(*) FROM transaction GROUP BY approved_by, status "
+                    + "UNION ALL SELECT approved_by, status, COUNT(*) FROM transaction_archive GROUP BY approved_by, status";
+    private static final String SUM_NOTIONAL_SQL =
+            "SELECT approved_by, commodity_id, SUM(ROUND(price * quantity, 2)) FROM transaction "
+                    + "WHERE status = 'APPROVED' GROUP BY approved_by, commodity_id "
+                    + "UNION ALL SELECT approved_by, commodity_id, SUM(ROUND(price * quantity, 2)) FROM transaction_archive "
+                    + "WHERE status = 'APPROVED' GROUP BY approved_by, commodity_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WalletJournal journal;
+    private final TradingMetrics metrics;
+
+    // Events update under the read lock; reconciliation swaps everything under the write lock.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Long> userAdmins = new ConcurrentHashMap<>();
+    private final LongAdder admins = new LongAdder();
+    private volatile State state = new State();
+    private volatile LocalDateTime reconciledAt;
+
+    public DashboardAggregates(JdbcTemplate jdbcTemplate, WalletJournal journal, TradingMetrics metrics) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.journal = journal;
+        this.metrics = metrics;
+    }
+
+    public DashboardSummary getSummary() {
+        State current = state;
+        List<AggregateTotals> byAdmin = new ArrayList<>(current.byAdmin.size());
+        new TreeMap<>(current.byAdmin).forEach((adminId, counters) -> byAdmin.add(counters.totals(adminId)));
+        return DashboardSummary.builder()
+                .admins(admins.sum())
+                .totals(current.global.totals(null))
+                .byAdmin(byAdmin)
+                .reconciledAt(reconciledAt)
+                .build();
+    }
+
+    /** Number of users assigned to the admin. */
+    public long getUserCount(Long adminId) {
+        Counters counters = state.byAdmin.get(adminId);
+        return counters != null ? counters.users.sum() : 0;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile(false);
+    }
+
+    @Scheduled(initialDelayString = "${inditrad.aggregates.reconcile-interval-ms:600000}",
+            fixedDelayString = "${inditrad.aggregates.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        reconcile(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountCreated(AccountCreatedEvent event) {
+        update(() -> {
+            if (AuthenticatedUser.ADMIN.equals(event.getRole())) {
+                admins.increment();
+            } else if (AuthenticatedUser.USER.equals(event.getRole())) {
+                if (event.getAdminId() != null) {
+                    userAdmins.put(event.getId(), event.getAdminId());
+                }
+                long balance = toCents(event.getWalletBalance());
+                for (Counters counters : countersFor(event.getAdminId())) {
+                    counters.users.increment();
+                    counters.walletFloat.add(balance);
+                }
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWalletPosted(WalletPostedEvent event) {
+        long amount = toCents(event.getAmount());
+        update(() -> {
+            for (Counters counters : countersFor(userAdmins.get(event.getUserId()))) {
+                counters.walletFloat.add(amount);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrder(OrderEvent event) {
+        if (Objects.equals(event.getStatus(), event.getPreviousStatus())) {
+            return;
+        }
+        long notional = "APPROVED".equals(event.getStatus()) && event.getPrice() != null && event.getQuantity() != null
+                ? toCents(event.getPrice().multiply(event.getQuantity())) : 0;
+        update(() -> {
+            for (Counters counters : countersFor(event.getAdminId())) {
+                counters.status(event.getPreviousStatus(), -1);
+                counters.status(event.getStatus(), 1);
+                if (notional != 0) {
+                    counters.notional.computeIfAbsent(event.getCommodityId(), id -> new LongAdder()).add(notional);
+                }
+            }
+        });
+    }
+
+    private void update(Runnable change) {
+        lock.readLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Counters> countersFor(Long adminId) {
+        return state.countersFor(adminId);
+    }
+
+    private void reconcile(boolean reportDrift) {
+        lock.writeLock().lock();
+        try {
+            if (journal.isEnabled()) {
+                // Balances in app_user lag the journal; bring them up to date first.
+                journal.checkpoint();
+            }
+            State actual = new State();
+            Map<Long, Long> actualUserAdmins = new ConcurrentHashMap<>();
+            jdbcTemplate.query(SELECT_USERS_SQL, rs -> {
+                Long adminId = rs.getObject(2, Long.class);
+                if (adminId != null) {
+                    actualUserAdmins.put(rs.getLong(1), adminId);
+                }
+                long balance = toCents(rs.getBigDecimal(3));
+                for (Counters counters : actual.countersFor(adminId)) {
+                    counters.users.increment();
+                    counters.walletFloat.add(balance);
+                }
+            });
+            jdbcTemplate.query(COUNT_ORDERS_SQL, rs -> {
+                for (Counters counters : actual.countersFor(rs.getObject(1, Long.class))) {
+                    counters.status(rs.getString(2), rs.getLong(3));
+                }
+            });
+            jdbcTemplate.query(SUM_NOTIONAL_SQL, rs -> {
+                long notional = toCents(rs.getBigDecimal(3));
+                for (Counters counters : actual.countersFor(rs.getObject(1, Long.class))) {
+                    counters.notional.computeIfAbsent(rs.getLong(2), id -> new LongAdder()).add(notional);
+                }
+            });
+            long actualAdmins = jdbcTemplate.queryForObject(COUNT_ADMINS_SQL, Long.class);
+
+            if (reportDrift) {
+                List<String> drifted = new ArrayList<>();
+                if (actualAdmins != admins.sum()) {
+                    drifted.add("admins");
+                }
+                if (!actual.global.totals(null).equals(state.global.totals(null))) {
+                    drifted.add("global");
+                }
+                for (Long adminId : actual.byAdmin.keySet()) {
+                    Counters counters = state.byAdmin.get(adminId);
+                    if (counters == null || !actual.byAdmin.get(adminId).totals(adminId).equals(counters.totals(adminId))) {
+                        drifted.add("admin " + adminId);
+                    }
+                }
+                if (!drifted.isEmpty()) {
+                    log.warn("Dashboard aggregates drifted from the database for {}; corrected", drifted);
+                    metrics.increment("inditrad.aggregates.drift");
+                }
+            }
+
+            userAdmins.clear();
+            userAdmins.putAll(actualUserAdmins);
+            admins.reset();
+            admins.add(actualAdmins);
+            state = actual;
+            reconciledAt = LocalDateTime.now();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static final class State {
+        private final Counters global = new Counters();
+        private final Map<Long, Counters> byAdmin = new ConcurrentHashMap<>();
+
+        private List<Counters> countersFor(Long adminId) {
+            return adminId == null
+                    ? List.of(global)
+                    : List.of(global, byAdmin.computeIfAbsent(adminId, id -> new Counters()));
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder users = new LongAdder();
+        private final LongAdder pending = new LongAdder();
+        private final LongAdder approved = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder walletFloat = new LongAdder();
+        private final Map<Long, LongAdder> notional = new ConcurrentHashMap<>();
+
+        private void status(String status, long delta) {
+            if ("PENDING".equals(status)) {
+                pending.add(delta);
+            } else if ("APPROVED".equals(status)) {
+                approved.add(delta);
+            } else if ("REJECTED".equals(status)) {
+                rejected.add(delta);
+            }
+        }
+
+        private AggregateTotals totals(Long adminId) {
+            Map<Long, BigDecimal> traded = new TreeMap<>();
+            notional.forEach((commodityId, cents) -> {
+                long sum = cents.sum();
+                if (sum != 0) {
+                    traded.put(commodityId, fromCents(sum));
+                }
+            });
+            return AggregateTotals.builder()
+                    .adminId(adminId)
+                    .users(users.sum())
+                    .pendingOrders(pending.sum())
+                    .approvedOrders(approved.sum())
+                    .rejectedOrders(rejected.sum())
+                    .walletFloat(fromCents(walletFloat.sum()))
+                    .tradedNotional(traded)
+                    .build();
+        }
+    }
+}
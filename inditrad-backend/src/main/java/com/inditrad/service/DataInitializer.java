@@ -10,16 +10,19 @@ import com.inditrad.repository.CommodityRepository;
 import com.inditrad.repository.SuperAdminRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@DependsOn("pooledSequenceMigration")
 public class DataInitializer {
 
     private final SuperAdminRepository superAdminRepository;
@@ -69,9 +72,7 @@ public class DataInitializer {
                 Commodity.builder().name("Cotton").unit("lb").currentPrice(new BigDecimal("0.72")).lastUpdated(LocalDateTime.now()).build()
             };
             
-            for (Commodity commodity : commodities) {
-                commodityRepository.save(commodity);
-            }
+            commodityRepository.saveAll(Arrays.asList(commodities));
             log.info("Commodities initialized: {} items", commodities.length);
         }
     }
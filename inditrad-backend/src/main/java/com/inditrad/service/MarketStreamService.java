@@ -0,0 +1,270 @@
+package com.inditrad.service;
+
+import com.inditrad.entity.Notification;
+import com.inditrad.event.OrderEvent;
+import com.inditrad.event.PriceTickEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes price ticks, order status changes and admin notifications to connected SSE clients.
+ * <p>
+ * Idle connections hold no thread: each subscriber only owns a pending-price slot and a
+ * bounded event queue. Writes happen on a small shared pool, with at most one drain in
+ * flight per subscriber, so a slow client only ever sees the latest price snapshot and,
+ * if its event queue overflows, a {@code resync} event telling it to refetch.
+ * <p>
+ * A client that stops reading blocks its writer thread inside {@code send} once the socket
+ * buffer fills. Any send still in flight after {@code inditrad.stream.send-timeout-ms} is
+ * interrupted and its subscriber dropped, so a stalled client holds a pool thread for at
+ * most that long.
+ */
+@Slf4j
+@Service
+public class MarketStreamService {
+
+    private final CommodityPriceBook priceBook;
+    private final long emitterTimeoutMs;
+    private final int orderBufferSize;
+    private final long sendTimeoutNanos;
+    private final ExecutorService writer;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong threadCounter = new AtomicLong();
+
+    public MarketStreamService(CommodityPriceBook priceBook,
+                               @Value("${inditrad.stream.timeout-ms:1800000}") long emitterTimeoutMs,
+                               @Value("${inditrad.stream.order-buffer:256}") int orderBufferSize,
+                               @Value("${inditrad.stream.writer-threads:4}") int writerThreads,
+                               @Value("${inditrad.stream.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.priceBook = priceBook;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.orderBufferSize = orderBufferSize;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.writer = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "market-stream-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Registers a new client. Order events are limited to the given user or admin;
+     * with neither set the client receives every order event.
+     */
+    public SseEmitter subscribe(Long userId, Long adminId) {
+        return register(new SseEmitter(emitterTimeoutMs), userId, adminId);
+    }
+
+    SseEmitter register(SseEmitter emitter, Long userId, Long adminId) {
+        Subscriber subscriber = new Subscriber(emitter, userId, adminId);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        subscriber.pendingPrices.set(priceBook.getSnapshot());
+        schedule(subscriber);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener
+    public void onPriceTick(PriceTickEvent event) {
+        CommodityPriceBook.Snapshot snapshot = event.getSnapshot();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.pendingPrices.accumulateAndGet(snapshot, (pending, latest) ->
+                    pending == null || latest.getVersion() > pending.getVersion() ? latest : pending);
+            schedule(subscriber);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrder(OrderEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.wants(event)) {
+                subscriber.offer(new StreamEvent("order", event));
+                schedule(subscriber);
+            }
+        }
+    }
+
+    /** Delivers a persisted notification to the streams of the admin it is addressed to. */
+    public void pushNotification(Long adminId, Notification notification) {
+        for (Subscriber subscriber : subscribers) {
+            if (adminId.equals(subscriber.adminId)) {
+                subscriber.offer(new StreamEvent("notification", notification));
+                schedule(subscriber);
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${inditrad.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat.set(true);
+            schedule(subscriber);
+        }
+    }
+
+    /** Drops subscribers whose current send has been blocked for longer than the send timeout. */
+    @Scheduled(fixedRateString = "${inditrad.stream.stall-check-ms:1000}")
+    public void evictStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.interruptSendStartedBefore(now - sendTimeoutNanos)) {
+                log.debug("Dropping stream subscriber that stopped reading");
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        writer.shutdownNow();
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            writer.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            do {
+                subscriber.writePending();
+                subscriber.draining.set(false);
+            } while (subscriber.hasPending() && subscribers.contains(subscriber)
+                    && subscriber.draining.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping stream subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Long userId;
+        private final Long adminId;
+        private final AtomicReference<CommodityPriceBook.Snapshot> pendingPrices = new AtomicReference<>();
+        private final Queue<StreamEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingEventCount = new AtomicInteger();
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private final AtomicBoolean heartbeat = new AtomicBoolean();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Guarded by this: the thread blocked in send and when it started, or null when idle.
+        private Thread sendingThread;
+        private long sendStartedAt;
+
+        private Subscriber(SseEmitter emitter, Long userId, Long adminId) {
+            this.emitter = emitter;
+            this.userId = userId;
+            this.adminId = adminId;
+        }
+
+        private boolean wants(OrderEvent event) {
+            if (userId != null) {
+                return userId.equals(event.getUserId());
+            }
+            if (adminId != null) {
+                return adminId.equals(event.getAdminId());
+            }
+            return true;
+        }
+
+        private void offer(StreamEvent event) {
+            pendingEvents.add(event);
+            if (pendingEventCount.incrementAndGet() > orderBufferSize) {
+                // Slow consumer: discard the oldest update and ask the client to refetch.
+                if (pendingEvents.poll() != null) {
+                    pendingEventCount.decrementAndGet();
+                }
+                overflowed.set(true);
+            }
+        }
+
+        private boolean hasPending() {
+            return pendingPrices.get() != null || !pendingEvents.isEmpty()
+                    || overflowed.get() || heartbeat.get();
+        }
+
+        private void writePending() throws IOException {
+            CommodityPriceBook.Snapshot prices = pendingPrices.getAndSet(null);
+            if (prices != null) {
+                send(SseEmitter.event()
+                        .name("prices")
+                        .id(Long.toString(prices.getVersion()))
+                        .data(prices.getCommodities()));
+            }
+            if (overflowed.getAndSet(false)) {
+                send(SseEmitter.event().name("resync").data("orders"));
+            }
+            StreamEvent event;
+            while ((event = pendingEvents.poll()) != null) {
+                pendingEventCount.decrementAndGet();
+                send(SseEmitter.event().name(event.name).data(event.data));
+            }
+            if (heartbeat.getAndSet(false)) {
+                send(SseEmitter.event().comment("keep-alive"));
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            synchronized (this) {
+                sendingThread = Thread.currentThread();
+                sendStartedAt = System.nanoTime();
+            }
+            try {
+                emitter.send(event);
+            } finally {
+                synchronized (this) {
+                    sendingThread = null;
+                    // An eviction that raced with a completed send must not leak into the next drain.
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private synchronized boolean interruptSendStartedBefore(long deadline) {
+            if (sendingThread == null || sendStartedAt - deadline > 0) {
+                return false;
+            }
+            sendingThread.interrupt();
+            return true;
+        }
+    }
+
+    private static final class StreamEvent {
+        private final String name;
+        private final Object data;
+
+        private StreamEvent(String name, Object data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.inditrad.service;
+
+import com.inditrad.entity.Notification;
+import com.inditrad.event.NotificationEvent;
+import com.inditrad.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Persists and delivers admin notifications off the request path.
+ * <p>
+ * {@link NotificationEvent}s are queued once the publishing transaction commits, and a writer
+ * thread inserts them in JDBC batches, then pushes each one to the admin's open streams.
+ * Unread counts are kept in memory per admin, seeded from the database on first use.
+ * Inserts, read updates and counter seeding share one lock, so a count never includes
+ * a batch twice or misses one.
+ */
+@Slf4j
+@Service
+public class NotificationService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notification (admin_id, message, read_status, created_at) VALUES (?, ?, false, ?)";
+
+    private final NotificationRepository notificationRepository;
+    private final MarketStreamService marketStreamService;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final BlockingQueue<NotificationEvent> queue;
+    private final Map<Long, AtomicLong> unreadCounts = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public NotificationService(NotificationRepository notificationRepository,
+                               MarketStreamService marketStreamService,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${inditrad.notifications.queue:10000}") int queueSize,
+                               @Value("${inditrad.notifications.batch-size:200}") int batchSize) {
+        this.notificationRepository = notificationRepository;
+        this.marketStreamService = marketStreamService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.writer = new Thread(this::writeLoop, "notification-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotification(NotificationEvent event) {
+        if (event.getAdminId() == null) {
+            return;
+        }
+        if (!queue.offer(event)) {
+            // Writer is saturated: fall back to writing on the caller rather than dropping it.
+            log.warn("Notification queue full, writing synchronously");
+            write(List.of(event));
+        }
+    }
+
+    public List<Notification> getUnread(Long adminId) {
+        return notificationRepository.findByAdminIdAndReadStatusFalse(adminId);
+    }
+
+    public long getUnreadCount(Long adminId) {
+        AtomicLong count = unreadCounts.get(adminId);
+        if (count != null) {
+            return count.get();
+        }
+        writeLock.lock();
+        try {
+            return unreadCounts.computeIfAbsent(adminId,
+                    id -> new AtomicLong(notificationRepository.countByAdminIdAndReadStatusFalse(id))).get();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void markAsRead(Long id) {
+        Notification note = notificationRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Notification not found"));
+        writeLock.lock();
+        try {
+            if (notificationRepository.markRead(id) > 0 && note.getAdmin() != null) {
+                AtomicLong count = unreadCounts.get(note.getAdmin().getId());
+                if (count != null) {
+                    count.decrementAndGet();
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Marks every unread notification of the admin as read with a single UPDATE. */
+    public int markAllAsRead(Long adminId) {
+        writeLock.lock();
+        try {
+            int updated = notificationRepository.markAllRead(adminId);
+            unreadCounts.put(adminId, new AtomicLong());
+            return updated;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void writeLoop() {
+        List<NotificationEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                NotificationEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    queue.drainTo(batch);
+                    if (!batch.isEmpty()) {
+                        write(batch);
+                    }
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to write {} notifications", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<NotificationEvent> events) {
+        List<Notification> written = new ArrayList<>(events.size());
+        writeLock.lock();
+        try {
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            NotificationEvent event = events.get(i);
+                            ps.setLong(1, event.getAdminId());
+                            ps.setString(2, event.getMessage());
+                            ps.setTimestamp(3, Timestamp.valueOf(event.getCreatedAt()));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return events.size();
+                        }
+                    }, keys);
+            List<Map<String, Object>> ids = keys.getKeyList();
+            for (int i = 0; i < events.size(); i++) {
+                NotificationEvent event = events.get(i);
+                Notification note = new Notification();
+                note.setId(i < ids.size() ? ((Number) ids.get(i).values().iterator().next()).longValue() : null);
+                note.setMessage(event.getMessage());
+                note.setReadStatus(false);
+                note.setCreatedAt(event.getCreatedAt());
+                written.add(note);
+                AtomicLong count = unreadCounts.get(event.getAdminId());
+                if (count != null) {
+                    count.incrementAndGet();
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        for (int i = 0; i < events.size(); i++) {
+            marketStreamService.pushNotification(events.get(i).getAdminId(), written.get(i));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.inditrad.service;
+
+import com.inditrad.entity.Transaction;
+import com.inditrad.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers recently placed orders by their client request key, so that a retried or
+ * double-submitted placement gets the original order back instead of creating another.
+ * <p>
+ * A request whose key is already in flight waits for the first one and shares its result; if
+ * that attempt fails, nothing was placed and the waiter tries itself. Keys are scoped per user,
+ * bounded to {@code cache-size} and forgotten after {@code ttl-ms}, after which the unique
+ * {@code (user_id, request_key)} constraint on {@code transaction} still catches duplicates.
+ */
+@Component
+public class OrderIdempotency {
+
+    static final int MAX_KEY_LENGTH = 64;
+
+    private final ExpiringCache<String, CompletableFuture<Transaction>> placed;
+    private final long ttlMs;
+    private final TradingMetrics metrics;
+
+    public OrderIdempotency(TradingMetrics metrics,
+                            @Value("${inditrad.orders.idempotency.cache-size:10000}") int cacheSize,
+                            @Value("${inditrad.orders.idempotency.ttl-ms:86400000}") long ttlMs) {
+        this.metrics = metrics;
+        this.placed = new ExpiringCache<>(cacheSize);
+        this.ttlMs = ttlMs;
+    }
+
+    /** Runs {@code place} unless an order with this key was placed recently, returning that order instead. */
+    public Transaction place(Long userId, String requestKey, Supplier<Transaction> place) {
+        if (requestKey.isBlank() || requestKey.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Invalid Idempotency-Key");
+        }
+        String key = userId + ":" + requestKey;
+        while (true) {
+            CompletableFuture<Transaction> pending = new CompletableFuture<>();
+            CompletableFuture<Transaction> existing = placed.putIfAbsent(key, pending, System.currentTimeMillis() + ttlMs);
+            if (existing == null) {
+                try {
+                    Transaction txn = place.get();
+                    pending.complete(txn);
+                    return txn;
+                } catch (RuntimeException | Error e) {
+                    // Nothing was placed, so the key is free for a retry.
+                    placed.remove(key);
+                    pending.completeExceptionally(e);
+                    throw e;
+                }
+            }
+            try {
+                Transaction txn = existing.join();
+                metrics.increment("inditrad.orders.replayed", "source", "cache");
+                return txn;
+            } catch (CompletionException | CancellationException e) {
+                // The first attempt failed; go again, either placing the order or waiting for whoever does.
+            }
+        }
+    }
+}
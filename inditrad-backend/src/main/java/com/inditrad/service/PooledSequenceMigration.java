@@ -0,0 +1,69 @@
+package com.inditrad.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves the pooled id sequences past the ids already in their tables, for databases created
+ * while those tables used identity ids. Hibernate hands out each block of
+ * {@link #ALLOCATION_SIZE} ids ending at the value the sequence returns, so a sequence is
+ * behind when that block would start at or below an existing id.
+ * <p>
+ * Runs on every startup, once the schema is up to date and before {@link DataInitializer} or
+ * any request inserts a row. Each check draws one block, which costs a gap in the ids; a
+ * sequence that is not behind is left alone.
+ */
+@Slf4j
+@Service
+@DependsOn("entityManagerFactory")
+public class PooledSequenceMigration {
+
+    static final int ALLOCATION_SIZE = 50;
+
+    // Sequence name to the tables whose ids it allocates; archived orders keep their ids.
+    private static final Map<String, List<String>> SEQUENCES = new LinkedHashMap<>();
+
+    static {
+        SEQUENCES.put("super_admin_seq", List.of("super_admin"));
+        SEQUENCES.put("admin_seq", List.of("admin"));
+        SEQUENCES.put("app_user_seq", List.of("app_user"));
+        SEQUENCES.put("commodity_seq", List.of("commodity"));
+        SEQUENCES.put("transaction_seq", List.of("transaction", "transaction_archive"));
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PooledSequenceMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        SEQUENCES.forEach(this::align);
+    }
+
+    private void align(String sequence, List<String> tables) {
+        long maxId = 0;
+        for (String table : tables) {
+            Long tableMax = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            maxId = Math.max(maxId, tableMax != null ? tableMax : 0);
+        }
+        if (maxId == 0) {
+            return;
+        }
+        Long next = jdbcTemplate.queryForObject("SELECT nextval('" + sequence + "')", Long.class);
+        if (next != null && next - ALLOCATION_SIZE >= maxId) {
+            return;
+        }
+        long restart = maxId + ALLOCATION_SIZE;
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restart);
+        log.info("Moved {} past existing id {}; next block ends at {}", sequence, maxId, restart);
+    }
+}
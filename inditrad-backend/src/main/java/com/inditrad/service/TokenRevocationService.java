@@ -0,0 +1,68 @@
+package com.inditrad.service;
+
+import com.inditrad.config.AuthenticatedUser;
+import com.inditrad.repository.AdminRepository;
+import com.inditrad.repository.AppUserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of accounts whose tokens must no longer be accepted. Each entry holds a
+ * cut-off: tokens issued at or before it are revoked. Deactivated accounts are revoked
+ * indefinitely until they are reactivated. The set is seeded from inactive users and
+ * admins at startup, so the request path never has to query account status.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private static final String INACTIVE = "INACTIVE";
+
+    private final AppUserRepository appUserRepository;
+    private final AdminRepository adminRepository;
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        appUserRepository.findIdsByStatus(INACTIVE).forEach(id -> deactivate(AuthenticatedUser.USER, id));
+        adminRepository.findIdsByStatus(INACTIVE).forEach(id -> deactivate(AuthenticatedUser.ADMIN, id));
+        log.info("Loaded {} revoked accounts", revokedBefore.size());
+    }
+
+    /** {@code issuedAt} is the token's {@code iat} in epoch milliseconds, or null if it has none. */
+    public boolean isRevoked(String role, Long id, Long issuedAt) {
+        Long cutoff = revokedBefore.get(key(role, id));
+        return cutoff != null && (issuedAt == null || issuedAt <= cutoff);
+    }
+
+    /** Rejects every token of the account, including ones issued later, until {@link #reactivate}. */
+    public void deactivate(String role, Long id) {
+        revokedBefore.put(key(role, id), Long.MAX_VALUE);
+    }
+
+    public void reactivate(String role, Long id) {
+        revokedBefore.remove(key(role, id));
+    }
+
+    /**
+     * Rejects tokens issued up to now; tokens from later logins remain valid. Token {@code iat}
+     * has whole-second precision, so the cut-off is truncated to the second and a login within
+     * the same second as the revocation is rejected as well.
+     */
+    public void revokeIssuedTokens(String role, Long id) {
+        long cutoff = Instant.now().truncatedTo(ChronoUnit.SECONDS).toEpochMilli();
+        revokedBefore.merge(key(role, id), cutoff, Math::max);
+    }
+
+    private static String key(String role, Long id) {
+        return role + ':' + id;
+    }
+}
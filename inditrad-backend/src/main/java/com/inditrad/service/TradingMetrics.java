@@ -0,0 +1,66 @@
+package com.inditrad.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Timers and counters for the trading hot paths. All meters are named {@code inditrad.*};
+ * percentiles and histograms for them are configured under {@code management.metrics}.
+ * Tag values that come from requests are normalised through {@link #tagValue} so that
+ * arbitrary input cannot create unbounded series.
+ */
+@Component
+@RequiredArgsConstructor
+public class TradingMetrics {
+
+    public static final String OUTCOME = "outcome";
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+
+    private static final String OTHER = "other";
+
+    private final MeterRegistry registry;
+
+    /**
+     * Runs {@code action}, recording its duration in timer {@code name} with the given tags plus
+     * {@code outcome} of {@code success}, or {@code failure} if it throws.
+     */
+    public <T> T record(String name, Supplier<T> action, String... tags) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = FAILURE;
+        try {
+            T result = action.get();
+            outcome = SUCCESS;
+            return result;
+        } finally {
+            sample.stop(registry.timer(name, Tags.of(tags).and(OUTCOME, outcome)));
+        }
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void stop(Timer.Sample sample, String name, String... tags) {
+        sample.stop(registry.timer(name, tags));
+    }
+
+    public void increment(String name, String... tags) {
+        registry.counter(name, tags).increment();
+    }
+
+    /** The value lower-cased if it is one of {@code allowed}, otherwise {@code "other"}. */
+    public static String tagValue(String value, Set<String> allowed) {
+        if (value == null) {
+            return OTHER;
+        }
+        String normalised = value.toLowerCase();
+        return allowed.contains(normalised) ? normalised : OTHER;
+    }
+}
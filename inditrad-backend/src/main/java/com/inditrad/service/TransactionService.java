@@ -5,76 +5,438 @@ package com.inditrad.service;
 import lombok.extern.slf4j.Slf4j;
 
 import com.inditrad.entity.*;
+import com.inditrad.event.NotificationEvent;
+import com.inditrad.event.OrderEvent;
+import com.inditrad.model.BulkProcessRequest;
+import com.inditrad.model.BulkProcessResult;
+import com.inditrad.model.CommoditySnapshot;
+import com.inditrad.model.CursorPage;
+import com.inditrad.model.OrderFilter;
+import com.inditrad.model.OrderView;
+import com.inditrad.model.PageCursor;
 import com.inditrad.model.TransactionRequest;
 import com.inditrad.repository.*;
+import com.inditrad.service.matching.Fill;
+import com.inditrad.service.matching.MatchingEngine;
+import com.inditrad.service.matching.Trade;
+import com.inditrad.service.positions.Execution;
+import com.inditrad.service.positions.PositionService;
+import com.inditrad.service.risk.RiskEngine;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final Set<String> ORDER_TYPES = Set.of("buy", "sell");
+    private static final Set<String> ORDER_ACTIONS = Set.of("approve", "reject");
+    private static final int MAX_BULK_SIZE = 1000;
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE transaction SET status = ? WHERE id = ? AND status = 'PENDING'";
+    private static final String RECORD_FILL_SQL =
+            "UPDATE transaction SET filled_quantity = COALESCE(filled_quantity, 0) + ?, status = ? "
+                    + "WHERE id = ? AND status = 'PENDING'";
+    private static final String LOCK_PENDING_SQL =
+            "SELECT id FROM transaction WHERE id IN (:ids) AND status = 'PENDING' ORDER BY id FOR UPDATE";
+
     private final AppUserRepository userRepository;
     private final CommodityRepository commodityRepository;
     private final TransactionRepository transactionRepository;
-    private final NotificationRepository notificationRepository;
+    private final CommodityPriceBook priceBook;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WalletLedger walletLedger;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final TradingMetrics metrics;
+    private final OrderIdempotency idempotency;
+    private final RiskEngine riskEngine;
+    private final PositionService positionService;
+    private final ObjectProvider<MatchingEngine> matchingEngine;
 
     public Transaction placeTransaction(TransactionRequest request) {
+        return placeTransaction(request, null);
+    }
+
+    /**
+     * Places an order. With a {@code requestKey}, placing again with the same key returns the
+     * original order without creating another, as long as it describes the same order.
+     */
+    public Transaction placeTransaction(TransactionRequest request, String requestKey) {
+        if (requestKey == null) {
+            return recordPlacement(request, null);
+        }
+        Transaction txn = idempotency.place(request.getUserId(), requestKey, () -> placeOnce(request, requestKey));
+        checkSameOrder(txn, request);
+        return txn;
+    }
+
+    private Transaction placeOnce(TransactionRequest request, String requestKey) {
+        // Placed earlier but no longer cached, e.g. before a restart or on another instance.
+        Optional<Transaction> placed = transactionRepository.findByUserIdAndRequestKey(request.getUserId(), requestKey);
+        if (placed.isPresent()) {
+            metrics.increment("inditrad.orders.replayed", "source", "database");
+            return placed.get();
+        }
+        try {
+            return recordPlacement(request, requestKey);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent placement with the same key won the unique constraint.
+            metrics.increment("inditrad.orders.replayed", "source", "database");
+            return transactionRepository.findByUserIdAndRequestKey(request.getUserId(), requestKey)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private static void checkSameOrder(Transaction txn, TransactionRequest request) {
+        boolean same = Objects.equals(txn.getCommodity().getId(), request.getCommodityId())
+                && Objects.equals(txn.getType(), request.getTransactionType())
+                && request.getQuantity() != null && txn.getQuantity().compareTo(request.getQuantity()) == 0;
+        if (!same) {
+            throw new RuntimeException("Idempotency-Key was already used for a different order");
+        }
+    }
+
+    private Transaction recordPlacement(TransactionRequest request, String requestKey) {
+        String commodity = priceBook.get(request.getCommodityId()).map(CommoditySnapshot::getName).orElse("unknown");
+        return metrics.record("inditrad.orders.place", () -> createOrder(request, requestKey),
+                "commodity", commodity, "type", TradingMetrics.tagValue(request.getTransactionType(), ORDER_TYPES));
+    }
+
+    private Transaction createOrder(TransactionRequest request, String requestKey) {
         AppUser user = userRepository.findById(request.getUserId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        Commodity commodity = commodityRepository.findById(request.getCommodityId())
+        CommoditySnapshot quote = priceBook.get(request.getCommodityId())
                 .orElseThrow(() -> new RuntimeException("Commodity not found"));
+        Commodity commodity = commodityRepository.getReferenceById(quote.getId());
 
         Transaction txn = Transaction.builder()
                 .user(user)
                 .commodity(commodity)
                 .quantity(request.getQuantity())
                 .type(request.getTransactionType())
-                .price(commodity.getCurrentPrice())
+                .price(quote.getCurrentPrice())
                 .status("PENDING")
                 .timestamp(LocalDateTime.now())
                 .admin(user.getAdmin())
+                .requestKey(requestKey)
                 .build();
-        transactionRepository.save(txn);
-
-        Notification note = new Notification();
-        note.setAdmin(user.getAdmin());
-        note.setMessage("New " + request.getTransactionType() + " request by user: " + user.getUsername());
-        note.setReadStatus(false);
-        note.setCreatedAt(LocalDateTime.now());
-        notificationRepository.save(note);
+        // A BUY reserves its funds before the order commits; nothing is placed if they are short.
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                transactionRepository.save(txn);
+                if ("BUY".equals(txn.getType())) {
+                    riskEngine.reserveOrder(user.getId(), txn.getId(), txn.getPrice(), txn.getQuantity());
+                } else {
+                    riskEngine.track(user.getId());
+                }
+            });
+        } catch (RuntimeException e) {
+            if (txn.getId() != null) {
+                riskEngine.releaseOrder(txn.getId());
+            }
+            throw e;
+        }
 
+        eventPublisher.publishEvent(OrderEvent.of(txn, null));
+        if (user.getAdmin() != null) {
+            eventPublisher.publishEvent(new NotificationEvent(user.getAdmin().getId(),
+                    "New " + request.getTransactionType() + " request by user: " + user.getUsername(),
+                    LocalDateTime.now()));
+        }
         return txn;
     }
 
-    public List<Transaction> getAllOrders() {
-        return transactionRepository.findAll();
+    public CursorPage<OrderView> getOrders(OrderFilter filter, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<OrderView> items = transactionRepository.findOrderPage(filter, PageCursor.decode(cursor), pageSize);
+        String nextCursor = null;
+        if (items.size() == pageSize) {
+            OrderView last = items.get(items.size() - 1);
+            nextCursor = new PageCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return new CursorPage<>(items, nextCursor);
     }
 
     public Transaction processOrder(Long orderId, String action) {
-        Transaction transaction = transactionRepository.findById(orderId)
+        Long userId = transactionRepository.findUserIdById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Long> orderIds = ORDER_ACTIONS.contains(action) ? List.of(orderId) : List.of();
+        try {
+            // No fill can land between reading the filled quantity and settling the rest.
+            withdrawFromBook(orderIds);
+            // Wallet lock before order row, the same order as processOrders and recordFills take them in.
+            return metrics.record("inditrad.orders.process",
+                    () -> walletLedger.withUserLocks(List.of(userId),
+                            () -> transactionTemplate.execute(status -> applyAction(orderId, action))),
+                    "action", TradingMetrics.tagValue(action, ORDER_ACTIONS));
+        } catch (RuntimeException e) {
+            restoreToBook(orderIds);
+            throw e;
+        }
+    }
+
+    private Transaction applyAction(Long orderId, String action) {
+        Transaction transaction = transactionRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
+        String previousStatus = transaction.getStatus();
+        if (!"PENDING".equals(previousStatus)) {
+            throw new RuntimeException("Order has already been processed");
+        }
         
         if ("approve".equals(action)) {
             transaction.setStatus("APPROVED");
-            AppUser user = transaction.getUser();
-            BigDecimal amount = transaction.getPrice().multiply(transaction.getQuantity());
+            Long userId = transaction.getUser().getId();
+            BigDecimal amount = transaction.getPrice().multiply(unfilledQuantity(transaction));
             
             if ("BUY".equals(transaction.getType())) {
-                user.setWalletBalance(user.getWalletBalance().subtract(amount));
+                walletLedger.debit(userId, amount, "BUY order #" + orderId + " settled", orderId, true);
             } else if ("SELL".equals(transaction.getType())) {
-                user.setWalletBalance(user.getWalletBalance().add(amount));
+                walletLedger.credit(userId, amount, "SELL order #" + orderId + " settled", orderId);
             }
-            userRepository.save(user);
+            positionService.apply(List.of(settlement(transaction)));
         } else if ("reject".equals(action)) {
             transaction.setStatus("REJECTED");
         }
         
-        return transactionRepository.save(transaction);
+        Transaction saved = transactionRepository.save(transaction);
+        eventPublisher.publishEvent(OrderEvent.of(saved, previousStatus));
+        return saved;
+    }
+
+    /**
+     * Approves or rejects many orders at once. Orders and their users are loaded in one
+     * query, status changes and wallet postings are written with JDBC batches in a single
+     * transaction, and the outcome is reported per order. Orders that are missing, already
+     * processed or carry an unknown action are skipped without failing the batch.
+     */
+    public List<BulkProcessResult> processOrders(List<BulkProcessRequest.OrderAction> actions) {
+        if (actions == null || actions.isEmpty()) {
+            return List.of();
+        }
+        if (actions.size() > MAX_BULK_SIZE) {
+            throw new RuntimeException("At most " + MAX_BULK_SIZE + " orders can be processed at once");
+        }
+
+        Map<Long, BulkProcessResult> results = new LinkedHashMap<>();
+        Map<Long, String> requested = new LinkedHashMap<>();
+        for (BulkProcessRequest.OrderAction action : actions) {
+            if (action.getId() == null) {
+                continue;
+            }
+            if (!"approve".equals(action.getAction()) && !"reject".equals(action.getAction())) {
+                results.put(action.getId(), BulkProcessResult.failed(action.getId(), "Invalid action"));
+            } else if (requested.putIfAbsent(action.getId(), action.getAction()) != null) {
+                results.put(action.getId(), BulkProcessResult.failed(action.getId(), "Duplicate order id"));
+            }
+        }
+
+        try {
+            withdrawFromBook(requested.keySet());
+            settleBulk(requested, results);
+        } catch (RuntimeException e) {
+            restoreToBook(requested.keySet());
+            throw e;
+        }
+
+        return actions.stream()
+                .map(BulkProcessRequest.OrderAction::getId)
+                .filter(id -> id != null && results.containsKey(id))
+                .distinct()
+                .map(results::get)
+                .toList();
+    }
+
+    private void settleBulk(Map<Long, String> requested, Map<Long, BulkProcessResult> results) {
+        Map<Long, Transaction> orders = transactionRepository.findAllWithUserByIdIn(requested.keySet()).stream()
+                .collect(Collectors.toMap(Transaction::getId, txn -> txn));
+        List<Transaction> candidates = new ArrayList<>();
+        for (Long id : requested.keySet()) {
+            Transaction txn = orders.get(id);
+            if (txn == null) {
+                results.put(id, BulkProcessResult.failed(id, "Order not found"));
+            } else if (!"PENDING".equals(txn.getStatus())) {
+                results.put(id, BulkProcessResult.failed(id, "Order has already been processed"));
+            } else {
+                candidates.add(txn);
+            }
+        }
+
+        // Every candidate's wallet lock is taken before any order row, as processOrder does.
+        Set<Long> userIds = candidates.stream()
+                .map(txn -> txn.getUser().getId())
+                .collect(Collectors.toSet());
+        Map<Long, String> newStatuses = candidates.stream().collect(Collectors.toMap(Transaction::getId,
+                txn -> "approve".equals(requested.get(txn.getId())) ? "APPROVED" : "REJECTED"));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        walletLedger.withUserLocks(userIds, () -> transactionTemplate.execute(status -> {
+            if (candidates.isEmpty()) {
+                return null;
+            }
+            int[][] counts = jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, candidates, candidates.size(),
+                    (ps, txn) -> {
+                        ps.setString(1, newStatuses.get(txn.getId()));
+                        ps.setLong(2, txn.getId());
+                    });
+
+            List<WalletLedger.Posting> postings = new ArrayList<>();
+            List<Execution> executions = new ArrayList<>();
+            for (int i = 0; i < candidates.size(); i++) {
+                Transaction txn = candidates.get(i);
+                if (counts[0][i] == 0) {
+                    // Processed concurrently since we loaded it.
+                    results.put(txn.getId(), BulkProcessResult.failed(txn.getId(), "Order has already been processed"));
+                    continue;
+                }
+                String previousStatus = txn.getStatus();
+                txn.setStatus(newStatuses.get(txn.getId()));
+                if ("APPROVED".equals(txn.getStatus())) {
+                    BigDecimal amount = txn.getPrice().multiply(unfilledQuantity(txn));
+                    if ("BUY".equals(txn.getType())) {
+                        postings.add(new WalletLedger.Posting(txn.getUser().getId(), amount.negate(),
+                                "BUY order #" + txn.getId() + " settled", txn.getId()));
+                    } else if ("SELL".equals(txn.getType())) {
+                        postings.add(new WalletLedger.Posting(txn.getUser().getId(), amount,
+                                "SELL order #" + txn.getId() + " settled", txn.getId()));
+                    }
+                    executions.add(settlement(txn));
+                }
+                results.put(txn.getId(), BulkProcessResult.ok(txn.getId(), txn.getStatus()));
+                eventPublisher.publishEvent(OrderEvent.of(txn, previousStatus));
+            }
+            walletLedger.postBatch(postings);
+            positionService.apply(executions);
+            return null;
+        }));
+    }
+
+    /**
+     * Persists trades from the matching engine in one transaction. Both orders of every trade
+     * are locked first; a trade is dropped as a whole if either order was approved or rejected
+     * in the meantime. Filled quantities and completed orders are then written as a JDBC
+     * batch, and every fill moves funds and the user's position at its execution price.
+     *
+     * @return the fills of dropped trades whose own order is still pending, so the matching
+     *         engine can give their quantity back
+     */
+    public List<Fill> recordFills(List<Trade> trades) {
+        if (trades.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> orderIds = new HashSet<>();
+        for (Trade trade : trades) {
+            for (Fill fill : List.of(trade.getTaker(), trade.getMaker())) {
+                userIds.add(fill.getUserId());
+                orderIds.add(fill.getOrderId());
+            }
+        }
+        NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        List<Fill> applied = new ArrayList<>(trades.size() * 2);
+        List<Fill> unapplied = new ArrayList<>();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        walletLedger.withUserLocks(userIds, () -> transactionTemplate.execute(status -> {
+            Set<Long> pending = new HashSet<>(namedJdbcTemplate.queryForList(LOCK_PENDING_SQL,
+                    new MapSqlParameterSource("ids", orderIds), Long.class));
+            applied.clear();
+            unapplied.clear();
+            for (Trade trade : trades) {
+                Fill taker = trade.getTaker();
+                Fill maker = trade.getMaker();
+                if (!pending.contains(taker.getOrderId()) || !pending.contains(maker.getOrderId())) {
+                    log.warn("Dropping trade between orders #{} and #{}: no longer pending",
+                            taker.getOrderId(), maker.getOrderId());
+                    List.of(taker, maker).stream()
+                            .filter(fill -> pending.contains(fill.getOrderId()))
+                            .forEach(unapplied::add);
+                    continue;
+                }
+                for (Fill fill : List.of(taker, maker)) {
+                    applied.add(fill);
+                    if (fill.isCompleted()) {
+                        pending.remove(fill.getOrderId());
+                    }
+                }
+            }
+            if (applied.isEmpty()) {
+                return null;
+            }
+            jdbcTemplate.batchUpdate(RECORD_FILL_SQL, applied, applied.size(), (ps, fill) -> {
+                ps.setBigDecimal(1, fill.getQuantity());
+                ps.setString(2, fill.isCompleted() ? "APPROVED" : "PENDING");
+                ps.setLong(3, fill.getOrderId());
+            });
+
+            List<WalletLedger.Posting> postings = new ArrayList<>(applied.size());
+            List<Execution> executions = new ArrayList<>(applied.size());
+            List<Long> completed = new ArrayList<>();
+            for (Fill fill : applied) {
+                BigDecimal amount = fill.getPrice().multiply(fill.getQuantity());
+                boolean buy = "BUY".equals(fill.getType());
+                postings.add(new WalletLedger.Posting(fill.getUserId(), buy ? amount.negate() : amount,
+                        fill.getType() + " order #" + fill.getOrderId() + " filled " + fill.getQuantity()
+                                + " @ " + fill.getPrice(), fill.getOrderId()));
+                executions.add(new Execution(fill.getUserId(), fill.getCommodityId(), fill.getType(),
+                        fill.getQuantity(), fill.getPrice()));
+                if (fill.isCompleted()) {
+                    completed.add(fill.getOrderId());
+                }
+            }
+            walletLedger.postBatch(postings);
+            positionService.apply(executions);
+            if (!completed.isEmpty()) {
+                transactionRepository.findAllById(completed)
+                        .forEach(txn -> eventPublisher.publishEvent(OrderEvent.of(txn, "PENDING")));
+            }
+            return null;
+        }));
+        applied.forEach(fill -> riskEngine.fillOrder(fill.getOrderId(), fill.getQuantity()));
+        return List.copyOf(unapplied);
+    }
+
+    private void withdrawFromBook(Collection<Long> orderIds) {
+        if (!orderIds.isEmpty()) {
+            matchingEngine.ifAvailable(engine -> engine.withdraw(orderIds));
+        }
+    }
+
+    private void restoreToBook(Collection<Long> orderIds) {
+        if (!orderIds.isEmpty()) {
+            matchingEngine.ifAvailable(engine -> engine.restore(orderIds));
+        }
+    }
+
+    private static Execution settlement(Transaction txn) {
+        return new Execution(txn.getUser().getId(), txn.getCommodity().getId(), txn.getType(),
+                unfilledQuantity(txn), txn.getPrice());
+    }
+
+    private static BigDecimal unfilledQuantity(Transaction txn) {
+        return txn.getFilledQuantity() == null ? txn.getQuantity() : txn.getQuantity().subtract(txn.getFilledQuantity());
     }
 }
@@ -0,0 +1,384 @@
+package com.inditrad.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind wallet mode, enabled with {@code inditrad.wallet.mode=journal}.
+ * <p>
+ * Balances live in memory. A posting inside a transaction is held as pending until that
+ * transaction completes: on commit it moves into the committed balance and its
+ * {@code wallet_log} row is appended to a queue, on rollback it is dropped. Postings outside
+ * a transaction are committed and queued straight away. The overdraft check counts pending
+ * debits but not pending credits, so no posting can spend funds that may still roll back.
+ * A single writer thread inserts queued rows in JDBC batches
+ * and periodically checkpoints the balances it has written to {@code app_user.wallet_balance},
+ * recording the last log id covered in {@code wallet_checkpoint}.
+ * <p>
+ * On startup, in either mode, log entries after the checkpoint are replayed onto
+ * {@code app_user} from their {@code balance_after}, so a crash between a flush and the next
+ * checkpoint loses nothing that reached the log. Postings still queued at a crash are lost.
+ * While the mode is on, {@code app_user.wallet_balance} and {@code wallet_log} lag by up to
+ * one checkpoint interval; readers that need them current, such as wallet statements, call
+ * {@link #checkpoint()} first. The column is not updatable through the {@code AppUser}
+ * mapping, so saving a loaded user cannot write a stale balance over a checkpoint.
+ */
+@Slf4j
+@Service
+@DependsOn("entityManagerFactory")
+public class WalletJournal {
+
+    public static final String MODE_JOURNAL = "journal";
+
+    private static final long CHECKPOINT_ID = 1L;
+    private static final String INSERT_LOG_SQL =
+            "INSERT INTO wallet_log (user_id, change_amount, transaction_type, remarks, balance_after, order_id, timestamp) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] INSERT_LOG_TYPES =
+            {Types.BIGINT, Types.NUMERIC, Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.BIGINT, Types.TIMESTAMP};
+    private static final String UPDATE_BALANCE_SQL =
+            "UPDATE app_user SET wallet_balance = ?, updated_at = ? WHERE id = ?";
+    private static final String SELECT_CHECKPOINT_SQL =
+            "SELECT last_log_id FROM wallet_checkpoint WHERE id = ?";
+    private static final String UPDATE_CHECKPOINT_SQL =
+            "UPDATE wallet_checkpoint SET last_log_id = ?, updated_at = ? WHERE id = ?";
+    private static final String INSERT_CHECKPOINT_SQL =
+            "INSERT INTO wallet_checkpoint (id, last_log_id, updated_at) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long checkpointIntervalMs;
+
+    private final Map<Long, Balance> balances = new ConcurrentHashMap<>();
+    private final BlockingQueue<Entry> queue;
+    private Thread writer;
+    private volatile boolean running = true;
+
+    // Owned by the writer thread: balances as of the last row written, and users not yet checkpointed.
+    private final Map<Long, BigDecimal> writtenBalances = new HashMap<>();
+    private final Map<Long, BigDecimal> dirtyBalances = new LinkedHashMap<>();
+    private long lastCheckpointAt = System.currentTimeMillis();
+
+    public WalletJournal(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${inditrad.wallet.mode:direct}") String mode,
+                         @Value("${inditrad.wallet.journal-queue:100000}") int queueSize,
+                         @Value("${inditrad.wallet.journal-batch:500}") int batchSize,
+                         @Value("${inditrad.wallet.checkpoint-interval-ms:5000}") long checkpointIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = MODE_JOURNAL.equalsIgnoreCase(mode);
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.batchSize = batchSize;
+        this.checkpointIntervalMs = checkpointIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        recover();
+        if (enabled) {
+            writer = new Thread(this::writeLoop, "wallet-journal");
+            writer.setDaemon(true);
+            writer.start();
+            log.info("Wallet journal mode enabled");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Applies {@code delta} to the in-memory balance and journals it, once the caller's
+     * transaction commits if there is one. Unless {@code allowOverdraft} is set, a posting that
+     * would take the committed balance less pending debits below zero fails with
+     * "Insufficient funds" and changes nothing.
+     *
+     * @return the balance after the posting, once every pending posting has committed
+     */
+    public BigDecimal post(Long userId, BigDecimal delta, String remarks, Long orderId, boolean allowOverdraft) {
+        if (!balances.containsKey(userId)) {
+            balances.putIfAbsent(userId, new Balance(loadBalance(userId), BigDecimal.ZERO, BigDecimal.ZERO));
+        }
+        Entry entry = new Entry(userId, delta, remarks, orderId, LocalDateTime.now());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Balance updated = balances.compute(userId, (id, balance) -> balance.checked(delta, allowOverdraft).commit(delta));
+            enqueue(entry);
+            return updated.committed;
+        }
+
+        Balance updated = balances.compute(userId,
+                (id, balance) -> balance.checked(delta, allowOverdraft).addPending(delta));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    balances.computeIfPresent(userId, (id, balance) -> balance.removePending(delta).commit(delta));
+                    enqueue(entry);
+                } else {
+                    balances.computeIfPresent(userId, (id, balance) -> balance.removePending(delta));
+                }
+            }
+        });
+        return updated.committed.add(updated.pendingCredits).add(updated.pendingDebits);
+    }
+
+    /** Committed balance of the user, including postings not yet written. */
+    public BigDecimal balance(Long userId) {
+        Balance balance = balances.get(userId);
+        return balance != null ? balance.committed : loadBalance(userId);
+    }
+
+    /** Writes everything queued so far and checkpoints it, waiting until that is done. */
+    public void checkpoint() {
+        if (!enabled) {
+            return;
+        }
+        Entry barrier = Entry.barrier();
+        enqueue(barrier);
+        barrier.done.join();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    /**
+     * Brings {@code app_user.wallet_balance} up to date with log entries written after the
+     * last checkpoint, then moves the checkpoint to the newest entry.
+     */
+    void recover() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> checkpoint = jdbcTemplate.queryForList(SELECT_CHECKPOINT_SQL, Long.class, CHECKPOINT_ID);
+            if (checkpoint.isEmpty() && !enabled) {
+                return;
+            }
+            long lastLogId = checkpoint.isEmpty() || checkpoint.get(0) == null ? 0L : checkpoint.get(0);
+            Map<Long, BigDecimal> replayed = new LinkedHashMap<>();
+            long[] maxId = {lastLogId};
+            jdbcTemplate.query("SELECT id, user_id, balance_after FROM wallet_log WHERE id > ? ORDER BY id",
+                    rs -> {
+                        maxId[0] = Math.max(maxId[0], rs.getLong("id"));
+                        BigDecimal balanceAfter = rs.getBigDecimal("balance_after");
+                        if (balanceAfter != null) {
+                            replayed.put(rs.getLong("user_id"), balanceAfter);
+                        }
+                    }, lastLogId);
+            writeBalances(replayed);
+            writeCheckpoint(maxId[0], !checkpoint.isEmpty());
+            if (!replayed.isEmpty()) {
+                log.info("Replayed wallet log after id {} onto {} balances", lastLogId, replayed.size());
+            }
+        });
+    }
+
+    private BigDecimal loadBalance(Long userId) {
+        List<BigDecimal> found = jdbcTemplate.queryForList(
+                "SELECT wallet_balance FROM app_user WHERE id = ?", BigDecimal.class, userId);
+        if (found.isEmpty()) {
+            throw new RuntimeException("User not found");
+        }
+        return found.get(0) != null ? found.get(0) : BigDecimal.ZERO;
+    }
+
+    private void enqueue(Entry entry) {
+        try {
+            // Blocks when the writer falls behind: postings must never be dropped.
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while journaling wallet posting", e);
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(Math.max(1, checkpointIntervalMs / 2), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    queue.drainTo(batch);
+                    write(batch);
+                    checkpointNow();
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // Entries stay in the batch and are retried on the next pass.
+                log.error("Failed to write {} wallet journal entries", batch.size(), e);
+                sleepQuietly();
+            }
+        }
+        checkpointNow();
+    }
+
+    private void write(List<Entry> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        List<Entry> barriers = new ArrayList<>();
+        Map<Long, BigDecimal> updates = new HashMap<>();
+        for (Entry entry : batch) {
+            if (entry.done != null) {
+                barriers.add(entry);
+                continue;
+            }
+            BigDecimal base = updates.containsKey(entry.userId) ? updates.get(entry.userId)
+                    : writtenBalances.containsKey(entry.userId) ? writtenBalances.get(entry.userId)
+                    : loadBalance(entry.userId);
+            BigDecimal balanceAfter = base.add(entry.delta);
+            updates.put(entry.userId, balanceAfter);
+            rows.add(new Object[]{entry.userId, entry.delta.abs(),
+                    entry.delta.signum() < 0 ? WalletLedger.DEBIT : WalletLedger.CREDIT,
+                    entry.remarks, balanceAfter, entry.orderId, Timestamp.valueOf(entry.timestamp)});
+        }
+        if (!rows.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_LOG_SQL, rows, INSERT_LOG_TYPES));
+            writtenBalances.putAll(updates);
+            dirtyBalances.putAll(updates);
+        }
+        batch.clear();
+        try {
+            if (!barriers.isEmpty() || System.currentTimeMillis() - lastCheckpointAt >= checkpointIntervalMs) {
+                checkpointNow();
+            }
+        } finally {
+            // Rows are durable at this point even if the checkpoint has to be retried.
+            barriers.forEach(barrier -> barrier.done.complete(null));
+        }
+    }
+
+    private void checkpointNow() {
+        lastCheckpointAt = System.currentTimeMillis();
+        if (dirtyBalances.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM wallet_log", Long.class);
+            writeBalances(dirtyBalances);
+            writeCheckpoint(maxId != null ? maxId : 0L, true);
+        });
+        dirtyBalances.clear();
+    }
+
+    private void writeBalances(Map<Long, BigDecimal> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(updates.size());
+        updates.forEach((userId, balance) -> rows.add(new Object[]{balance, now, userId}));
+        jdbcTemplate.batchUpdate(UPDATE_BALANCE_SQL, rows, new int[]{Types.NUMERIC, Types.TIMESTAMP, Types.BIGINT});
+    }
+
+    private void writeCheckpoint(long lastLogId, boolean exists) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (!exists || jdbcTemplate.update(UPDATE_CHECKPOINT_SQL, lastLogId, now, CHECKPOINT_ID) == 0) {
+            jdbcTemplate.update(INSERT_CHECKPOINT_SQL, CHECKPOINT_ID, lastLogId, now);
+        }
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Immutable per-user state: committed balance plus the sums of in-flight credits and debits. */
+    private static final class Balance {
+        private final BigDecimal committed;
+        private final BigDecimal pendingCredits;
+        private final BigDecimal pendingDebits;
+
+        private Balance(BigDecimal committed, BigDecimal pendingCredits, BigDecimal pendingDebits) {
+            this.committed = committed;
+            this.pendingCredits = pendingCredits;
+            this.pendingDebits = pendingDebits;
+        }
+
+        private Balance checked(BigDecimal delta, boolean allowOverdraft) {
+            if (!allowOverdraft && delta.signum() < 0 && committed.add(pendingDebits).add(delta).signum() < 0) {
+                throw new RuntimeException("Insufficient funds");
+            }
+            return this;
+        }
+
+        private Balance addPending(BigDecimal delta) {
+            return delta.signum() < 0 ? new Balance(committed, pendingCredits, pendingDebits.add(delta))
+                    : new Balance(committed, pendingCredits.add(delta), pendingDebits);
+        }
+
+        private Balance removePending(BigDecimal delta) {
+            return delta.signum() < 0 ? new Balance(committed, pendingCredits, pendingDebits.subtract(delta))
+                    : new Balance(committed, pendingCredits.subtract(delta), pendingDebits);
+        }
+
+        private Balance commit(BigDecimal delta) {
+            return new Balance(committed.add(delta), pendingCredits, pendingDebits);
+        }
+    }
+
+    private static final class Entry {
+        private final Long userId;
+        private final BigDecimal delta;
+        private final String remarks;
+        private final Long orderId;
+        private final LocalDateTime timestamp;
+        private final CompletableFuture<Void> done;
+
+        private Entry(Long userId, BigDecimal delta, String remarks, Long orderId, LocalDateTime timestamp) {
+            this(userId, delta, remarks, orderId, timestamp, null);
+        }
+
+        private Entry(Long userId, BigDecimal delta, String remarks, Long orderId, LocalDateTime timestamp,
+                      CompletableFuture<Void> done) {
+            this.userId = userId;
+            this.delta = delta;
+            this.remarks = remarks;
+            this.orderId = orderId;
+            this.timestamp = timestamp;
+            this.done = done;
+        }
+
+        private static Entry barrier() {
+            return new Entry(null, null, null, null, null, new CompletableFuture<>());
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.inditrad.service;
+
+import com.inditrad.entity.WalletLog;
+import com.inditrad.event.WalletPostedEvent;
+import com.inditrad.repository.AppUserRepository;
+import com.inditrad.repository.WalletLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Single entry point for wallet balance changes.
+ * <p>
+ * Mutations for the same user are serialized by a striped lock, so distinct users proceed
+ * in parallel without a global lock. Inside the lock the user row is read with
+ * {@code SELECT ... FOR UPDATE} and the balance change and its {@link WalletLog} entry are
+ * written in one database transaction. Balances are only ever written with SQL here and in
+ * the {@link WalletJournal}; the {@code AppUser} mapping never updates the column. When called from an existing transaction the
+ * posting joins it, and the row lock keeps the user serialized until that transaction ends.
+ * <p>
+ * Every posting is rounded to {@value #SCALE} decimal places, half up, before it is applied,
+ * so each {@link WalletLog} entry's {@code balanceAfter} is the previous one plus its change.
+ * <p>
+ * In journal mode every posting is handed to the {@link WalletJournal} instead.
+ * <p>
+ * Every posting publishes a {@link WalletPostedEvent}.
+ */
+@Slf4j
+@Service
+public class WalletLedger {
+
+    public static final String CREDIT = "CREDIT";
+    public static final String DEBIT = "DEBIT";
+    private static final int SCALE = 2;
+
+    private static final String SELECT_BALANCES_SQL =
+            "SELECT id, wallet_balance FROM app_user WHERE id IN (:ids) FOR UPDATE";
+    private static final String SELECT_BALANCE_SQL =
+            "SELECT wallet_balance FROM app_user WHERE id = :id";
+    private static final String UPDATE_BALANCE_SQL =
+            "UPDATE app_user SET wallet_balance = ?, updated_at = ? WHERE id = ?";
+    private static final String INSERT_LOG_SQL =
+            "INSERT INTO wallet_log (user_id, change_amount, transaction_type, remarks, balance_after, order_id, timestamp) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final AppUserRepository userRepository;
+    private final WalletLogRepository walletLogRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final WalletJournal journal;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReentrantLock[] stripes;
+    private final int stripeMask;
+
+    public WalletLedger(AppUserRepository userRepository,
+                        WalletLogRepository walletLogRepository,
+                        NamedParameterJdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        WalletJournal journal,
+                        ApplicationEventPublisher eventPublisher,
+                        @Value("${inditrad.wallet.lock-stripes:1024}") int stripeCount) {
+        this.userRepository = userRepository;
+        this.walletLogRepository = walletLogRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = journal;
+        this.eventPublisher = eventPublisher;
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.stripeMask = size - 1;
+    }
+
+    public BigDecimal credit(Long userId, BigDecimal amount, String remarks, Long orderId) {
+        requirePositive(amount);
+        return post(userId, amount, CREDIT, remarks, orderId, true);
+    }
+
+    /**
+     * Debits the wallet. Unless {@code allowOverdraft} is set, a debit that would take the
+     * balance below zero fails with "Insufficient funds" and nothing is written.
+     */
+    public BigDecimal debit(Long userId, BigDecimal amount, String remarks, Long orderId, boolean allowOverdraft) {
+        requirePositive(amount);
+        return post(userId, amount.negate(), DEBIT, remarks, orderId, allowOverdraft);
+    }
+
+    /** Current balance of the user, as the next posting would see it. */
+    public BigDecimal balance(Long userId) {
+        if (journal.isEnabled()) {
+            return journal.balance(userId);
+        }
+        List<BigDecimal> found = jdbcTemplate.queryForList(SELECT_BALANCE_SQL,
+                new MapSqlParameterSource("id", userId), BigDecimal.class);
+        if (found.isEmpty()) {
+            throw new RuntimeException("User not found");
+        }
+        return found.get(0) != null ? found.get(0) : BigDecimal.ZERO;
+    }
+
+    /**
+     * Runs {@code action} while holding the stripe locks of all given users. Stripes are
+     * taken in ascending order so concurrent multi-user callers cannot deadlock.
+     */
+    public <T> T withUserLocks(Collection<Long> userIds, Supplier<T> action) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        userIds.forEach(userId -> indexes.add(stripeIndex(userId)));
+        List<ReentrantLock> held = new ArrayList<>(indexes.size());
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                held.add(stripes[index]);
+            }
+            return action.get();
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    /**
+     * Applies many postings with one balance read and JDBC batches for the balance updates
+     * and wallet log inserts. Must run inside a transaction, under
+     * {@link #withUserLocks} for every user involved. Overdrafts are allowed, as for
+     * trade settlement. Returns the resulting balance per user.
+     */
+    public Map<Long, BigDecimal> postBatch(List<Posting> postings) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("postBatch requires an active transaction");
+        }
+        if (postings.isEmpty()) {
+            return Map.of();
+        }
+        if (journal.isEnabled()) {
+            Map<Long, BigDecimal> balances = new HashMap<>();
+            for (Posting posting : postings) {
+                BigDecimal amount = round(posting.getAmount());
+                balances.put(posting.getUserId(), journal.post(posting.getUserId(), amount,
+                        posting.getRemarks(), posting.getOrderId(), true));
+                eventPublisher.publishEvent(new WalletPostedEvent(posting.getUserId(), amount));
+            }
+            return balances;
+        }
+
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        jdbcTemplate.query(SELECT_BALANCES_SQL,
+                new MapSqlParameterSource("ids", postings.stream().map(Posting::getUserId).distinct().toList()),
+                rs -> {
+                    BigDecimal balance = rs.getBigDecimal("wallet_balance");
+                    balances.put(rs.getLong("id"), balance != null ? balance : BigDecimal.ZERO);
+                });
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> logRows = new ArrayList<>(postings.size());
+        for (Posting posting : postings) {
+            BigDecimal balance = balances.get(posting.getUserId());
+            if (balance == null) {
+                throw new RuntimeException("User not found");
+            }
+            BigDecimal amount = round(posting.getAmount());
+            BigDecimal updated = balance.add(amount);
+            balances.put(posting.getUserId(), updated);
+            logRows.add(new Object[]{
+                    posting.getUserId(), amount.abs(),
+                    amount.signum() < 0 ? DEBIT : CREDIT,
+                    posting.getRemarks(), updated, posting.getOrderId(), now});
+            eventPublisher.publishEvent(new WalletPostedEvent(posting.getUserId(), amount));
+        }
+
+        List<Object[]> balanceRows = new ArrayList<>(balances.size());
+        balances.forEach((userId, balance) -> balanceRows.add(new Object[]{balance, now, userId}));
+        jdbcTemplate.getJdbcTemplate().batchUpdate(UPDATE_BALANCE_SQL, balanceRows,
+                new int[]{Types.NUMERIC, Types.TIMESTAMP, Types.BIGINT});
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_LOG_SQL, logRows,
+                new int[]{Types.BIGINT, Types.NUMERIC, Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.BIGINT, Types.TIMESTAMP});
+        return balances;
+    }
+
+    int stripeIndex(Long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & stripeMask;
+    }
+
+    ReentrantLock lockFor(Long userId) {
+        return stripes[stripeIndex(userId)];
+    }
+
+    private BigDecimal post(Long userId, BigDecimal amount, String transactionType, String remarks,
+                            Long orderId, boolean allowOverdraft) {
+        BigDecimal delta = round(amount);
+        if (journal.isEnabled()) {
+            BigDecimal updated = journal.post(userId, delta, remarks, orderId, allowOverdraft);
+            eventPublisher.publishEvent(new WalletPostedEvent(userId, delta));
+            return updated;
+        }
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            return transactionTemplate.execute(status -> {
+                List<BigDecimal> found = jdbcTemplate.query(SELECT_BALANCES_SQL,
+                        new MapSqlParameterSource("ids", List.of(userId)), (rs, rowNum) -> rs.getBigDecimal("wallet_balance"));
+                if (found.isEmpty()) {
+                    throw new RuntimeException("User not found");
+                }
+                BigDecimal balance = found.get(0) != null ? found.get(0) : BigDecimal.ZERO;
+                BigDecimal updated = balance.add(delta);
+                if (!allowOverdraft && updated.signum() < 0) {
+                    throw new RuntimeException("Insufficient funds");
+                }
+
+                LocalDateTime now = LocalDateTime.now();
+                jdbcTemplate.getJdbcTemplate().update(UPDATE_BALANCE_SQL, updated, Timestamp.valueOf(now), userId);
+                walletLogRepository.save(WalletLog.builder()
+                        .user(userRepository.getReferenceById(userId))
+                        .changeAmount(delta.abs())
+                        .transactionType(transactionType)
+                        .remarks(remarks)
+                        .balanceAfter(updated)
+                        .orderId(orderId)
+                        .timestamp(now)
+                        .build());
+                eventPublisher.publishEvent(new WalletPostedEvent(userId, delta));
+                return updated;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static BigDecimal round(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static void requirePositive(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new RuntimeException("Amount must be greater than zero");
+        }
+    }
+
+    @lombok.Value
+    public static class Posting {
+        Long userId;
+        BigDecimal amount; // positive credits, negative debits
+        String remarks;
+        Long orderId;
+    }
+}
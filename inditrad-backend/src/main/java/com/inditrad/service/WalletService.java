@@ -3,62 +3,45 @@ package com.inditrad.service;
 
 import lombok.extern.slf4j.Slf4j;
 
-import com.inditrad.entity.AppUser;
-import com.inditrad.entity.WalletLog;
-import com.inditrad.repository.AppUserRepository;
-import com.inditrad.repository.WalletLogRepository;
+import com.inditrad.service.risk.RiskEngine;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.util.Set;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class WalletService {
 
-    private final AppUserRepository userRepository;
-    private final WalletLogRepository walletLogRepository;
+    private static final Set<String> OPERATIONS = Set.of("add", "subtract");
 
-    public BigDecimal updateWallet(Long userId, BigDecimal amount, String operation) {
-        AppUser user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private final WalletLedger walletLedger;
+    private final TradingMetrics metrics;
+    private final RiskEngine riskEngine;
 
-        BigDecimal updatedBalance = user.getWalletBalance();
+    public BigDecimal updateWallet(Long userId, BigDecimal amount, String operation) {
+        return metrics.record("inditrad.wallet.update", () -> applyUpdate(userId, amount, operation),
+                "action", TradingMetrics.tagValue(operation, OPERATIONS));
+    }
 
+    private BigDecimal applyUpdate(Long userId, BigDecimal amount, String operation) {
         if ("ADD".equalsIgnoreCase(operation)) {
-            updatedBalance = updatedBalance.add(amount);
+            return walletLedger.credit(userId, amount, "Amount added to wallet", null);
         } else if ("SUBTRACT".equalsIgnoreCase(operation)) {
-            if (updatedBalance.compareTo(amount) < 0) throw new RuntimeException("Insufficient funds");
-            updatedBalance = updatedBalance.subtract(amount);
+            if (amount == null || amount.signum() <= 0) {
+                throw new RuntimeException("Amount must be greater than zero");
+            }
+            // Hold the amount first, so a withdrawal cannot spend funds reserved by pending orders.
+            riskEngine.hold(userId, amount);
+            try {
+                return walletLedger.debit(userId, amount, "Amount deducted from wallet", null, false);
+            } finally {
+                riskEngine.release(userId, amount);
+            }
         } else {
             throw new RuntimeException("Invalid operation");
         }
-
-        user.setWalletBalance(updatedBalance);
-        userRepository.save(user);
-        
-        String transactionType = "";
-        String remarks = "";
-        
-        if ("ADD".equalsIgnoreCase(operation)) {
-            transactionType = "CREDIT";
-            remarks = "Amount added to wallet";
-        } else if ("SUBTRACT".equalsIgnoreCase(operation)) {
-            transactionType = "DEBIT";
-            remarks = "Amount deducted from wallet";
-        }
-
-        WalletLog log = WalletLog.builder()
-                .user(user)
-                .changeAmount(amount)
-                .transactionType(transactionType)
-                .timestamp(LocalDateTime.now())
-                .remarks(remarks)
-                .build();
-        walletLogRepository.save(log);
-
-        return updatedBalance;
     }
 }
@@ -0,0 +1,204 @@
+package com.inditrad.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.inditrad.model.CursorPage;
+import com.inditrad.model.PageCursor;
+import com.inditrad.model.WalletStatementEntry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wallet statements over {@code wallet_log}, newest first. Pages are keyset-paginated on
+ * {@code (timestamp, id)}; exports stream the whole range through a forward-only JDBC cursor,
+ * writing each row to the response as it is read, so memory use does not grow with the
+ * number of rows.
+ */
+@Slf4j
+@Service
+public class WalletStatementService {
+
+    public static final String CSV = "csv";
+    public static final String NDJSON = "ndjson";
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final String SELECT_SQL =
+            "SELECT id, transaction_type, change_amount, balance_after, remarks, order_id, timestamp "
+                    + "FROM wallet_log WHERE user_id = ?";
+
+    private static final String CSV_HEADER = "id,timestamp,type,amount,balance_after,order_id,remarks\n";
+
+    private static final RowMapper<WalletStatementEntry> ROW_MAPPER = (rs, rowNum) -> new WalletStatementEntry(
+            rs.getLong("id"),
+            rs.getString("transaction_type"),
+            rs.getBigDecimal("change_amount"),
+            rs.getBigDecimal("balance_after"),
+            rs.getString("remarks"),
+            rs.getObject("order_id", Long.class),
+            rs.getObject("timestamp", LocalDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WalletJournal journal;
+    private final JdbcTemplate exportJdbcTemplate;
+    private final TransactionTemplate exportTransaction;
+    private final ObjectWriter jsonWriter;
+
+    public WalletStatementService(JdbcTemplate jdbcTemplate,
+                                  WalletJournal journal,
+                                  DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper,
+                                  @Value("${inditrad.wallet.export-fetch-size:1000}") int exportFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.journal = journal;
+        this.exportJdbcTemplate = new JdbcTemplate(dataSource);
+        this.exportJdbcTemplate.setFetchSize(exportFetchSize);
+        // PostgreSQL only honours the fetch size, rather than buffering the whole result, with
+        // auto-commit off, so the export cursor runs inside a read-only transaction.
+        this.exportTransaction = new TransactionTemplate(transactionManager);
+        this.exportTransaction.setReadOnly(true);
+        this.jsonWriter = objectMapper.writerFor(WalletStatementEntry.class);
+    }
+
+    public CursorPage<WalletStatementEntry> getStatement(Long userId, LocalDateTime from, LocalDateTime to,
+                                                         String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // In journal mode, postings still queued would otherwise be missing from the statement.
+        journal.checkpoint();
+        List<Object> args = new ArrayList<>();
+        String sql = buildQuery(userId, from, to, PageCursor.decode(cursor), args) + " LIMIT " + pageSize;
+        List<WalletStatementEntry> items = jdbcTemplate.query(sql, ROW_MAPPER, args.toArray());
+        String nextCursor = null;
+        if (items.size() == pageSize) {
+            WalletStatementEntry last = items.get(items.size() - 1);
+            nextCursor = new PageCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    /**
+     * Writes every statement line in the range to {@code out} in the given format.
+     *
+     * @return the number of rows written
+     */
+    public long export(Long userId, LocalDateTime from, LocalDateTime to, String format, OutputStream out) {
+        boolean csv = isCsv(format);
+        List<Object> args = new ArrayList<>();
+        String sql = buildQuery(userId, from, to, null, args);
+        journal.checkpoint();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long[] rows = {0};
+        exportTransaction.executeWithoutResult(status -> {
+            try {
+                if (csv) {
+                    writer.write(CSV_HEADER);
+                }
+                exportJdbcTemplate.query(sql, rs -> {
+                    WalletStatementEntry entry = ROW_MAPPER.mapRow(rs, 0);
+                    try {
+                        if (csv) {
+                            writeCsv(writer, entry);
+                        } else {
+                            writer.write(jsonWriter.writeValueAsString(entry));
+                            writer.write('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    rows[0]++;
+                }, args.toArray());
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        log.debug("Exported {} wallet statement rows for user {}", rows[0], userId);
+        return rows[0];
+    }
+
+    /** Validates an export format, returning whether it is CSV. */
+    public static boolean isCsv(String format) {
+        if (CSV.equalsIgnoreCase(format)) {
+            return true;
+        }
+        if (NDJSON.equalsIgnoreCase(format)) {
+            return false;
+        }
+        throw new RuntimeException("Invalid export format");
+    }
+
+    private static String buildQuery(Long userId, LocalDateTime from, LocalDateTime to, PageCursor after,
+                                     List<Object> args) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        args.add(userId);
+        if (from != null) {
+            sql.append(" AND timestamp >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND timestamp < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        if (after != null) {
+            sql.append(" AND (timestamp < ? OR (timestamp = ? AND id < ?))");
+            args.add(Timestamp.valueOf(after.getTimestamp()));
+            args.add(Timestamp.valueOf(after.getTimestamp()));
+            args.add(after.getId());
+        }
+        return sql.append(" ORDER BY timestamp DESC, id DESC").toString();
+    }
+
+    private static void writeCsv(Writer writer, WalletStatementEntry entry) throws IOException {
+        writer.write(String.valueOf(entry.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(entry.getTimestamp()));
+        writer.write(',');
+        writeCsvField(writer, entry.getTransactionType());
+        writer.write(',');
+        writeCsvField(writer, plain(entry.getChangeAmount()));
+        writer.write(',');
+        writeCsvField(writer, plain(entry.getBalanceAfter()));
+        writer.write(',');
+        writeCsvField(writer, entry.getOrderId() != null ? entry.getOrderId().toString() : null);
+        writer.write(',');
+        writeCsvField(writer, entry.getRemarks());
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : null;
+    }
+}
@@ -0,0 +1,161 @@
+package com.inditrad.service.archive;
+
+import com.inditrad.service.TradingMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves history out of the hot tables so they stay small enough to be cached: approved and
+ * rejected orders into {@code transaction_archive} and read notifications into
+ * {@code notification_archive}, once they are older than {@code retention-days}.
+ * <p>
+ * Rows move in batches of {@code batch-size}, each copied and deleted in one transaction, with
+ * a pause of {@code pause-ms} between batches so the job never holds locks or saturates the
+ * database for long. Orders are picked oldest first through the status and timestamp index.
+ * Archived orders remain listed by {@code /api/transaction/orders?includeArchived=true}.
+ * <p>
+ * Pending orders, unread notifications and the wallet log are never archived; the wallet log
+ * is the ledger that balances and the end-of-day reconciliation are checked against.
+ */
+@Slf4j
+@Service
+public class HistoryArchiver {
+
+    private static final List<String> SETTLED_STATUSES = List.of("APPROVED", "REJECTED");
+    private static final String ORDER_COLUMNS =
+            "id, user_id, commodity_id, approved_by, type, quantity, price, filled_quantity, status, request_key, timestamp";
+    private static final String SELECT_ORDERS_SQL =
+            "SELECT id FROM transaction WHERE status = :status AND timestamp < :cutoff ORDER BY timestamp, id LIMIT :limit";
+    private static final String COPY_ORDERS_SQL =
+            "INSERT INTO transaction_archive (" + ORDER_COLUMNS + ", archived_at) "
+                    + "SELECT " + ORDER_COLUMNS + ", :now FROM transaction WHERE id IN (:ids)";
+    private static final String DELETE_ORDERS_SQL = "DELETE FROM transaction WHERE id IN (:ids)";
+    private static final String SELECT_NOTIFICATIONS_SQL =
+            "SELECT id FROM notification WHERE read_status = TRUE AND created_at < :cutoff AND id > :after "
+                    + "ORDER BY id LIMIT :limit";
+    private static final String COPY_NOTIFICATIONS_SQL =
+            "INSERT INTO notification_archive (id, admin_id, message, created_at, archived_at) "
+                    + "SELECT id, admin_id, message, created_at, :now FROM notification WHERE id IN (:ids)";
+    private static final String DELETE_NOTIFICATIONS_SQL = "DELETE FROM notification WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TradingMetrics metrics;
+    private final boolean enabled;
+    private final int retentionDays;
+    private final int batchSize;
+    private final long pauseMs;
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    public HistoryArchiver(NamedParameterJdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           TradingMetrics metrics,
+                           @Value("${inditrad.archive.enabled:true}") boolean enabled,
+                           @Value("${inditrad.archive.retention-days:90}") int retentionDays,
+                           @Value("${inditrad.archive.batch-size:1000}") int batchSize,
+                           @Value("${inditrad.archive.pause-ms:100}") long pauseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+    }
+
+    @Scheduled(cron = "${inditrad.archive.cron:0 0 3 * * *}")
+    public void runScheduled() {
+        if (enabled) {
+            archive(LocalDateTime.now().minusDays(retentionDays));
+        }
+    }
+
+    /** Archives settled orders and read notifications older than {@code cutoff}. */
+    public void archive(LocalDateTime cutoff) {
+        if (!runLock.tryLock()) {
+            log.info("Archiving is already running; skipped");
+            return;
+        }
+        try {
+            long orders = archiveOrders(cutoff);
+            long notifications = archiveNotifications(cutoff);
+            log.info("Archived {} orders and {} notifications older than {}", orders, notifications, cutoff);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private long archiveOrders(LocalDateTime cutoff) {
+        long moved = 0;
+        for (String status : SETTLED_STATUSES) {
+            MapSqlParameterSource select = new MapSqlParameterSource("status", status)
+                    .addValue("cutoff", Timestamp.valueOf(cutoff))
+                    .addValue("limit", batchSize);
+            while (!Thread.currentThread().isInterrupted()) {
+                // Settled orders no longer change, so a batch cannot go stale between select and move.
+                int count = moveBatch(jdbcTemplate.queryForList(SELECT_ORDERS_SQL, select, Long.class),
+                        COPY_ORDERS_SQL, DELETE_ORDERS_SQL, "transaction");
+                moved += count;
+                if (count < batchSize || !pause()) {
+                    break;
+                }
+            }
+        }
+        return moved;
+    }
+
+    private long archiveNotifications(LocalDateTime cutoff) {
+        long moved = 0;
+        long after = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            // Keyset on id: unread notifications stay behind and are not scanned again.
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_NOTIFICATIONS_SQL,
+                    new MapSqlParameterSource("cutoff", Timestamp.valueOf(cutoff))
+                            .addValue("after", after)
+                            .addValue("limit", batchSize),
+                    Long.class);
+            int count = moveBatch(ids, COPY_NOTIFICATIONS_SQL, DELETE_NOTIFICATIONS_SQL, "notification");
+            moved += count;
+            if (count < batchSize || !pause()) {
+                break;
+            }
+            after = ids.get(ids.size() - 1);
+        }
+        return moved;
+    }
+
+    private int moveBatch(List<Long> ids, String copySql, String deleteSql, String table) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(copySql, params);
+            jdbcTemplate.update(deleteSql, params);
+        });
+        metrics.increment("inditrad.archive.batches", "table", table);
+        return ids.size();
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.inditrad.service.feed;
+
+import java.math.BigDecimal;
+
+/**
+ * Source of external price ticks. At most one feed bean is active; {@link PriceFeedIngestor}
+ * runs it on a dedicated ingestion thread and coalesces its ticks before publishing.
+ * <p>
+ * Implementations only need to turn their wire format into {@link TickSink#onTick} calls;
+ * they must not touch the price book or the database themselves.
+ */
+public interface PriceFeed extends AutoCloseable {
+
+    /** Receives ticks on the ingestion thread. Cheap and non-blocking. */
+    @FunctionalInterface
+    interface TickSink {
+        void onTick(long commodityId, BigDecimal price);
+    }
+
+    /** Short name for logs. */
+    String name();
+
+    /**
+     * Reads ticks until the feed ends, the thread is interrupted or {@link #close} is called.
+     * Throwing makes the ingestor reconnect after a delay; returning normally ends ingestion.
+     */
+    void run(TickSink sink) throws Exception;
+
+    /** Releases any connection so that a blocked {@link #run} returns. */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,143 @@
+package com.inditrad.service.feed;
+
+import com.inditrad.service.CommodityPriceBook;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the configured {@link PriceFeed}, if any.
+ * <p>
+ * The feed runs on a single ingestion thread that only records the latest price per commodity,
+ * so a burst of ticks for one commodity collapses to its last value. Every
+ * {@code publish-interval-ms} a publisher thread applies whatever changed since the previous
+ * publish to the {@link CommodityPriceBook} as one update, which in turn notifies history and
+ * stream subscribers and queues the batched database write-back. Ticks never reach the
+ * database individually.
+ */
+@Slf4j
+@Service
+public class PriceFeedIngestor {
+
+    private final CommodityPriceBook priceBook;
+    private final PriceFeed feed;
+    private final long publishIntervalMs;
+    private final long reconnectDelayMs;
+
+    private final Map<Long, BigDecimal> latest = new ConcurrentHashMap<>();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "price-feed-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Thread ingestion;
+    private volatile boolean running;
+
+    public PriceFeedIngestor(CommodityPriceBook priceBook,
+                             ObjectProvider<PriceFeed> feed,
+                             @Value("${inditrad.feed.publish-interval-ms:250}") long publishIntervalMs,
+                             @Value("${inditrad.feed.reconnect-delay-ms:5000}") long reconnectDelayMs) {
+        this.priceBook = priceBook;
+        this.feed = feed.getIfAvailable();
+        this.publishIntervalMs = publishIntervalMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (feed == null || running) {
+            return;
+        }
+        running = true;
+        publisher.scheduleWithFixedDelay(this::publish, publishIntervalMs, publishIntervalMs, TimeUnit.MILLISECONDS);
+        ingestion = new Thread(this::ingest, "price-feed-ingest");
+        ingestion.setDaemon(true);
+        ingestion.start();
+        log.info("Ingesting prices from {}, publishing every {} ms", feed.name(), publishIntervalMs);
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        ingestion.interrupt();
+        feed.close();
+        ingestion.join(TimeUnit.SECONDS.toMillis(5));
+        publisher.shutdown();
+        publisher.awaitTermination(5, TimeUnit.SECONDS);
+        publish();
+        log.info("Price feed stopped after {} ticks received, {} published", received.sum(), published.sum());
+    }
+
+    public long getReceivedTicks() {
+        return received.sum();
+    }
+
+    public long getPublishedTicks() {
+        return published.sum();
+    }
+
+    private void ingest() {
+        PriceFeed.TickSink sink = (commodityId, price) -> {
+            received.increment();
+            if (price != null && price.signum() > 0) {
+                latest.put(commodityId, price);
+            }
+        };
+        while (running) {
+            try {
+                feed.run(sink);
+                log.info("Price feed {} ended", feed.name());
+                return;
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Price feed {} failed, reconnecting in {} ms", feed.name(), reconnectDelayMs, e);
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Applies the latest coalesced prices as one price book update. */
+    void publish() {
+        if (latest.isEmpty()) {
+            return;
+        }
+        Map<Long, BigDecimal> batch = new HashMap<>(latest.size());
+        for (Map.Entry<Long, BigDecimal> entry : latest.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            // Keep a price that was replaced after we read it, so it goes out with the next publish.
+            latest.remove(entry.getKey(), entry.getValue());
+        }
+        try {
+            priceBook.updatePrices(batch);
+            published.add(batch.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to publish {} feed prices", batch.size(), e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.inditrad.service.feed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays ticks from a file ({@code file:/path/ticks.csv}) or a TCP socket
+ * ({@code tcp://host:port}), enabled with {@code inditrad.feed.source=replay}.
+ * <p>
+ * Each line is {@code offsetMillis,commodityId,price}. The offset is the time since the start
+ * of the recording and is honoured scaled by {@code speed}; a speed of {@code 0} replays as
+ * fast as possible. Blank lines and lines starting with {@code #} are skipped.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inditrad.feed.source", havingValue = "replay")
+public class ReplayPriceFeed implements PriceFeed {
+
+    private static final int CONNECT_TIMEOUT_MS = 5_000;
+
+    private final URI source;
+    private final double speed;
+    private final boolean loop;
+    private volatile Socket socket;
+
+    public ReplayPriceFeed(@Value("${inditrad.feed.replay.source}") String source,
+                           @Value("${inditrad.feed.replay.speed:1.0}") double speed,
+                           @Value("${inditrad.feed.replay.loop:false}") boolean loop) {
+        this.source = URI.create(source);
+        if (!"file".equals(this.source.getScheme()) && !"tcp".equals(this.source.getScheme())) {
+            throw new IllegalArgumentException("Replay source must be a file: or tcp:// URI");
+        }
+        this.speed = speed;
+        this.loop = loop;
+    }
+
+    @Override
+    public String name() {
+        return "replay " + source;
+    }
+
+    @Override
+    public void run(TickSink sink) throws Exception {
+        do {
+            try (BufferedReader reader = open()) {
+                replay(reader, sink);
+            }
+        } while (loop && "file".equals(source.getScheme()) && !Thread.currentThread().isInterrupted());
+    }
+
+    @Override
+    public void close() {
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                log.debug("Error closing replay socket", e);
+            }
+        }
+    }
+
+    private BufferedReader open() throws IOException {
+        if ("file".equals(source.getScheme())) {
+            return Files.newBufferedReader(Path.of(source), StandardCharsets.UTF_8);
+        }
+        Socket connection = new Socket();
+        connection.connect(new InetSocketAddress(source.getHost(), source.getPort()), CONNECT_TIMEOUT_MS);
+        socket = connection;
+        return new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private void replay(BufferedReader reader, TickSink sink) throws IOException, InterruptedException {
+        long startNanos = System.nanoTime();
+        long malformed = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            int first = line.indexOf(',');
+            int second = line.indexOf(',', first + 1);
+            if (first < 0 || second < 0) {
+                malformed++;
+                continue;
+            }
+            long offsetMillis;
+            long commodityId;
+            BigDecimal price;
+            try {
+                offsetMillis = Long.parseLong(line.substring(0, first).trim());
+                commodityId = Long.parseLong(line.substring(first + 1, second).trim());
+                price = new BigDecimal(line.substring(second + 1).trim());
+            } catch (NumberFormatException e) {
+                malformed++;
+                continue;
+            }
+            if (speed > 0) {
+                long dueNanos = startNanos + (long) (TimeUnit.MILLISECONDS.toNanos(offsetMillis) / speed);
+                long waitNanos = dueNanos - System.nanoTime();
+                if (waitNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+            }
+            sink.onTick(commodityId, price);
+        }
+        if (malformed > 0) {
+            log.warn("Skipped {} malformed lines from {}", malformed, source);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.inditrad.service.history;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Candle widths served by {@link PriceHistoryService}. Buckets are aligned to server-local
+ * wall-clock time, so daily candles start at local midnight.
+ */
+public enum CandleResolution {
+    ONE_MINUTE("1m", TimeUnit.MINUTES.toMillis(1)),
+    FIVE_MINUTES("5m", TimeUnit.MINUTES.toMillis(5)),
+    ONE_HOUR("1h", TimeUnit.HOURS.toMillis(1)),
+    ONE_DAY("1d", TimeUnit.DAYS.toMillis(1));
+
+    private final String code;
+    private final long millis;
+
+    CandleResolution(String code, long millis) {
+        this.code = code;
+        this.millis = millis;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public static CandleResolution fromCode(String code) {
+        for (CandleResolution resolution : values()) {
+            if (resolution.code.equalsIgnoreCase(code)) {
+                return resolution;
+            }
+        }
+        throw new RuntimeException("Invalid resolution, expected one of 1m, 5m, 1h, 1d");
+    }
+}
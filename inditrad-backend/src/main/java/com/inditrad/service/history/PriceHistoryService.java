@@ -0,0 +1,189 @@
+package com.inditrad.service.history;
+
+import com.inditrad.event.PriceTickEvent;
+import com.inditrad.model.Candle;
+import com.inditrad.model.CommoditySnapshot;
+import com.inditrad.service.CommodityPriceBook;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Records every price tick and serves OHLC candles.
+ * <p>
+ * Each commodity has a {@link PriceSeries} that keeps recent raw ticks and incrementally
+ * maintained candles for every {@link CandleResolution}. Raw ticks are written behind to the
+ * append-only {@code price_tick} table in JDBC batches; on startup, the last
+ * {@code replay-days} of ticks are replayed from it to rebuild the candles.
+ */
+@Slf4j
+@Service
+@DependsOn("entityManagerFactory")
+public class PriceHistoryService {
+
+    static final int PRICE_SCALE = 2;
+
+    private static final String INSERT_TICK_SQL =
+            "INSERT INTO price_tick (commodity_id, timestamp, price) VALUES (?, ?, ?)";
+
+    private static final String SELECT_TICKS_SQL =
+            "SELECT commodity_id, timestamp, price FROM price_tick WHERE timestamp >= ? ORDER BY timestamp, id";
+
+    private final CommodityPriceBook priceBook;
+    private final JdbcTemplate jdbcTemplate;
+    private final int tickCapacity;
+    private final int candleCapacity;
+    private final int replayDays;
+    private final Map<Long, PriceSeries> series = new ConcurrentHashMap<>();
+    // A lock rather than a synchronized method: flushing does JDBC, which would pin a virtual thread.
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public PriceHistoryService(CommodityPriceBook priceBook,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${inditrad.prices.history.tick-capacity:4096}") int tickCapacity,
+                               @Value("${inditrad.prices.history.candle-capacity:2000}") int candleCapacity,
+                               @Value("${inditrad.prices.history.replay-days:7}") int replayDays) {
+        this.priceBook = priceBook;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tickCapacity = tickCapacity;
+        this.candleCapacity = candleCapacity;
+        this.replayDays = replayDays;
+    }
+
+    @PostConstruct
+    public void replay() {
+        LocalDateTime since = LocalDateTime.now().minusDays(replayDays);
+        long[] rows = {0};
+        jdbcTemplate.query(SELECT_TICKS_SQL, rs -> {
+            seriesFor(rs.getLong(1)).replay(toMillis(rs.getTimestamp(2).toLocalDateTime()), toTicks(rs.getBigDecimal(3)));
+            rows[0]++;
+        }, Timestamp.valueOf(since));
+        log.info("Price history rebuilt from {} ticks since {}", rows[0], since);
+    }
+
+    @EventListener
+    public void onPriceTick(PriceTickEvent event) {
+        for (CommoditySnapshot commodity : event.getChanged()) {
+            seriesFor(commodity.getId()).append(toMillis(commodity.getLastUpdated()), toTicks(commodity.getCurrentPrice()));
+        }
+    }
+
+    /**
+     * Candles of one commodity starting in {@code [from, to)}, oldest first, limited to the
+     * most recent {@code limit}. Either bound may be {@code null}.
+     */
+    public List<Candle> getCandles(Long commodityId, CandleResolution resolution,
+                                   LocalDateTime from, LocalDateTime to, int limit) {
+        if (priceBook.get(commodityId).isEmpty()) {
+            throw new RuntimeException("Commodity not found");
+        }
+        PriceSeries prices = series.get(commodityId);
+        if (prices == null) {
+            return List.of();
+        }
+        long[][] raw = prices.candles(resolution,
+                from != null ? toMillis(from) : Long.MIN_VALUE,
+                to != null ? toMillis(to) : Long.MAX_VALUE,
+                Math.max(1, Math.min(limit, candleCapacity)));
+        List<Candle> candles = new ArrayList<>(raw.length);
+        for (long[] c : raw) {
+            candles.add(new Candle(toDateTime(c[0]), toPrice(c[1]), toPrice(c[2]), toPrice(c[3]), toPrice(c[4]), c[5]));
+        }
+        return candles;
+    }
+
+    @Scheduled(fixedDelayString = "${inditrad.prices.history.flush-interval-ms:5000}")
+    @PreDestroy
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushSeries();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushSeries() {
+        long[] times = new long[tickCapacity];
+        long[] prices = new long[tickCapacity];
+        int written = 0;
+        for (Map.Entry<Long, PriceSeries> entry : series.entrySet()) {
+            PriceSeries commodity = entry.getValue();
+            long from;
+            long to;
+            synchronized (commodity) {
+                long lost = commodity.overwrittenSinceFlush();
+                if (lost > 0) {
+                    log.warn("Price history for commodity {} dropped {} unflushed ticks", entry.getKey(), lost);
+                }
+                from = commodity.unflushedFrom();
+                to = commodity.copyUnflushed(times, prices);
+            }
+            int count = (int) (to - from);
+            if (count == 0) {
+                continue;
+            }
+            long commodityId = entry.getKey();
+            jdbcTemplate.batchUpdate(INSERT_TICK_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, commodityId);
+                    ps.setTimestamp(2, Timestamp.valueOf(toDateTime(times[i])));
+                    ps.setBigDecimal(3, toPrice(prices[i]));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return count;
+                }
+            });
+            commodity.markFlushed(to);
+            written += count;
+        }
+        if (written > 0) {
+            log.debug("Flushed {} price ticks", written);
+        }
+    }
+
+    private PriceSeries seriesFor(Long commodityId) {
+        return series.computeIfAbsent(commodityId, id -> new PriceSeries(tickCapacity, candleCapacity));
+    }
+
+    // Wall-clock time as if it were UTC, so candle buckets align to local minutes, hours and days.
+    static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    static long toTicks(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal toPrice(long ticks) {
+        return BigDecimal.valueOf(ticks, PRICE_SCALE);
+    }
+}
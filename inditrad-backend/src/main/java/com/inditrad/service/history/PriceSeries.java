@@ -0,0 +1,159 @@
+package com.inditrad.service.history;
+
+import java.util.Arrays;
+
+/**
+ * Price history of one commodity, held in primitive ring buffers.
+ * <p>
+ * Raw ticks are kept in a columnar ring of time and price arrays until they are flushed to
+ * the database. Alongside, each {@link CandleResolution} has its own ring of candles that is
+ * folded forward as ticks arrive, so reading candles never rescans ticks. Times are
+ * wall-clock milliseconds and prices integer ticks of the caller's chosen scale.
+ * <p>
+ * Thread-safe; all access is synchronized on the series, which is only ever held briefly.
+ */
+public final class PriceSeries {
+
+    private final long[] tickTimes;
+    private final long[] tickPrices;
+    private final CandleRing[] candles;
+    private long appended;
+    private long flushed;
+    private long lastTime = Long.MIN_VALUE;
+
+    public PriceSeries(int tickCapacity, int candleCapacity) {
+        this.tickTimes = new long[tickCapacity];
+        this.tickPrices = new long[tickCapacity];
+        CandleResolution[] resolutions = CandleResolution.values();
+        this.candles = new CandleRing[resolutions.length];
+        for (int i = 0; i < resolutions.length; i++) {
+            candles[i] = new CandleRing(resolutions[i].getMillis(), candleCapacity);
+        }
+    }
+
+    /**
+     * Records a tick. A tick older than the latest one is treated as happening at the latest
+     * time, so candles only ever move forward.
+     */
+    public synchronized void append(long time, long price) {
+        time = Math.max(time, lastTime);
+        lastTime = time;
+        int slot = (int) (appended % tickTimes.length);
+        tickTimes[slot] = time;
+        tickPrices[slot] = price;
+        appended++;
+        for (CandleRing ring : candles) {
+            ring.add(time, price);
+        }
+    }
+
+    /** Records a tick that is already persisted, e.g. when replaying history on startup. */
+    public synchronized void replay(long time, long price) {
+        append(time, price);
+        flushed = appended;
+    }
+
+    /**
+     * Copies ticks not yet flushed into {@code times}/{@code prices}, oldest first, up to their
+     * length. Pass the returned position to {@link #markFlushed} once they are persisted.
+     * Ticks overwritten before they could be copied are skipped.
+     *
+     * @return the position after the last copied tick; minus {@link #unflushedFrom} is the count
+     */
+    public synchronized long copyUnflushed(long[] times, long[] prices) {
+        long from = unflushedFrom();
+        long to = Math.min(appended, from + times.length);
+        for (long i = from; i < to; i++) {
+            int slot = (int) (i % tickTimes.length);
+            times[(int) (i - from)] = tickTimes[slot];
+            prices[(int) (i - from)] = tickPrices[slot];
+        }
+        return to;
+    }
+
+    /** Position of the oldest tick still to be flushed that has not been overwritten. */
+    public synchronized long unflushedFrom() {
+        return Math.max(flushed, appended - tickTimes.length);
+    }
+
+    /** Number of ticks that were overwritten before they were flushed. */
+    public synchronized long overwrittenSinceFlush() {
+        return Math.max(0, appended - tickTimes.length - flushed);
+    }
+
+    public synchronized void markFlushed(long position) {
+        flushed = Math.max(flushed, position);
+    }
+
+    /**
+     * Candles whose interval starts in {@code [from, to)}, oldest first, keeping the most
+     * recent {@code limit}. Each candle is returned as {@code {start, open, high, low, close, ticks}}.
+     */
+    public synchronized long[][] candles(CandleResolution resolution, long from, long to, int limit) {
+        return candles[resolution.ordinal()].between(from, to, limit);
+    }
+
+    /** Fixed-capacity ring of candles of one width, newest at {@code head}. */
+    private static final class CandleRing {
+        private final long width;
+        private final long[] start;
+        private final long[] open;
+        private final long[] high;
+        private final long[] low;
+        private final long[] close;
+        private final long[] ticks;
+        private int head = -1;
+        private int size;
+
+        private CandleRing(long width, int capacity) {
+            this.width = width;
+            this.start = new long[capacity];
+            this.open = new long[capacity];
+            this.high = new long[capacity];
+            this.low = new long[capacity];
+            this.close = new long[capacity];
+            this.ticks = new long[capacity];
+        }
+
+        private void add(long time, long price) {
+            long bucket = Math.floorDiv(time, width) * width;
+            if (size > 0 && start[head] == bucket) {
+                high[head] = Math.max(high[head], price);
+                low[head] = Math.min(low[head], price);
+                close[head] = price;
+                ticks[head]++;
+                return;
+            }
+            head = (head + 1) % start.length;
+            size = Math.min(size + 1, start.length);
+            start[head] = bucket;
+            open[head] = price;
+            high[head] = price;
+            low[head] = price;
+            close[head] = price;
+            ticks[head] = 1;
+        }
+
+        private long[][] between(long from, long to, int limit) {
+            long[][] result = new long[Math.min(limit, size)][];
+            int count = 0;
+            // Walk back from the newest candle; starts are strictly increasing around the ring.
+            for (int i = 0; i < size && count < result.length; i++) {
+                int slot = Math.floorMod(head - i, start.length);
+                if (start[slot] < from) {
+                    break;
+                }
+                if (start[slot] < to) {
+                    result[count++] = new long[]{start[slot], open[slot], high[slot], low[slot], close[slot], ticks[slot]};
+                }
+            }
+            long[][] ordered = Arrays.copyOf(result, count);
+            for (int i = 0, j = count - 1; i < j; i++, j--) {
+                long[] swap = ordered[i];
+                ordered[i] = ordered[j];
+                ordered[j] = swap;
+            }
+            return ordered;
+        }
+    }
+}
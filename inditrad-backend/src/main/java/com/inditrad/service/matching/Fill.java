@@ -0,0 +1,19 @@
+package com.inditrad.service.matching;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * One side of a {@link Trade} produced by the matching engine, waiting to be persisted.
+ */
+@Value
+public class Fill {
+    Long orderId;
+    Long userId;
+    Long commodityId;
+    String type; // BUY or SELL
+    BigDecimal price;
+    BigDecimal quantity;
+    boolean completed;
+}
@@ -0,0 +1,312 @@
+package com.inditrad.service.matching;
+
+import com.inditrad.entity.Transaction;
+import com.inditrad.event.OrderEvent;
+import com.inditrad.repository.TransactionRepository;
+import com.inditrad.service.TransactionService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Opt-in automatic execution ({@code inditrad.matching.enabled=true}). New orders are
+ * crossed against an in-memory {@link OrderBook} per commodity, using the order's placement
+ * price as its limit. All books are driven by one matching thread; executions are handed to
+ * a writer thread that persists them in batches through
+ * {@link TransactionService#recordFills}, so matching never waits on the database.
+ * <p>
+ * An order is {@linkplain #withdraw withdrawn} from the book before it is approved or rejected
+ * by hand, which also waits until every trade already matched against it is persisted, so the
+ * settlement sees its final filled quantity. If the status change fails the order is
+ * {@linkplain #restore restored} at the back of its price level. On startup the books are
+ * rebuilt from pending orders, net of their persisted filled quantity.
+ * <p>
+ * A batch that fails to persist is retried with exponential backoff and counts as written
+ * only once it succeeds. After {@code writer-retries} failed attempts matching halts, and the
+ * {@code matching} health indicator reports down, until the application is restarted; the
+ * writer keeps retrying so no matched trade is lost. A trade dropped because one of its orders
+ * was settled in the meantime gives its quantity back to the other order, if still pending.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "inditrad.matching.enabled", havingValue = "true")
+public class MatchingEngine implements OrderBook.FillHandler {
+
+    static final int PRICE_SCALE = 2;
+    static final int QUANTITY_SCALE = 4;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final TransactionService transactionService;
+    private final TransactionRepository transactionRepository;
+    private final int writerBatchSize;
+    private final long withdrawTimeoutMs;
+    private final int writerRetries;
+    private final long retryBackoffMs;
+
+    // Owned by the matching thread.
+    private final Map<Long, OrderBook> books = new HashMap<>();
+    private final Map<Long, OrderEvent> restingOrders = new HashMap<>();
+    private long queuedTrades;
+
+    private final BlockingQueue<Trade> pendingTrades;
+    private final Object writeProgress = new Object();
+    private long writtenTrades; // guarded by writeProgress
+    private final ExecutorService matcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "matching-engine");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile boolean halted;
+
+    public MatchingEngine(TransactionService transactionService,
+                          TransactionRepository transactionRepository,
+                          @Value("${inditrad.matching.fill-queue:65536}") int fillQueueSize,
+                          @Value("${inditrad.matching.writer-batch:500}") int writerBatchSize,
+                          @Value("${inditrad.matching.withdraw-timeout-ms:10000}") long withdrawTimeoutMs,
+                          @Value("${inditrad.matching.writer-retries:5}") int writerRetries,
+                          @Value("${inditrad.matching.retry-backoff-ms:200}") long retryBackoffMs) {
+        this.transactionService = transactionService;
+        this.transactionRepository = transactionRepository;
+        this.writerBatchSize = writerBatchSize;
+        this.withdrawTimeoutMs = withdrawTimeoutMs;
+        this.writerRetries = writerRetries;
+        this.retryBackoffMs = retryBackoffMs;
+        this.pendingTrades = new ArrayBlockingQueue<>(fillQueueSize);
+        this.writer = new Thread(this::writeFills, "matching-fill-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildBooks() {
+        List<Transaction> pending = transactionRepository.findByStatusOrderByTimestampAscIdAsc("PENDING");
+        pending.forEach(this::resubmit);
+        log.info("Matching engine rebuilding books from {} pending orders", pending.size());
+    }
+
+    /**
+     * Takes the orders out of their books and returns once every trade matched against them
+     * beforehand has been persisted. Called before an order is approved or rejected by hand.
+     */
+    public void withdraw(Collection<Long> orderIds) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(withdrawTimeoutMs);
+        try {
+            long queued = matcher.submit(() -> {
+                orderIds.forEach(this::cancel);
+                return queuedTrades;
+            }).get(withdrawTimeoutMs, TimeUnit.MILLISECONDS);
+            synchronized (writeProgress) {
+                while (writtenTrades < queued) {
+                    long waitMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (waitMs <= 0) {
+                        throw new TimeoutException();
+                    }
+                    writeProgress.wait(waitMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while withdrawing orders", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RuntimeException("Matching engine is busy, try again");
+        }
+    }
+
+    /** Puts withdrawn orders that are still pending back into their books. */
+    public void restore(Collection<Long> orderIds) {
+        transactionRepository.findAllById(orderIds).stream()
+                .filter(txn -> "PENDING".equals(txn.getStatus()))
+                .forEach(this::resubmit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrder(OrderEvent event) {
+        if (event.getPreviousStatus() == null && "PENDING".equals(event.getStatus())) {
+            long quantity = toLots(event.getQuantity());
+            if (quantity > 0) {
+                matcher.execute(() -> submit(event, quantity));
+            }
+        } else if ("PENDING".equals(event.getPreviousStatus()) && !"PENDING".equals(event.getStatus())) {
+            matcher.execute(() -> cancel(event.getId()));
+        }
+    }
+
+    @Override
+    public void onFill(long takerOrderId, long makerOrderId, long priceTicks, long quantity,
+                       long takerRemaining, long makerRemaining) {
+        BigDecimal price = BigDecimal.valueOf(priceTicks, PRICE_SCALE);
+        BigDecimal lots = BigDecimal.valueOf(quantity, QUANTITY_SCALE);
+        OrderEvent taker = restingOrders.get(takerOrderId);
+        OrderEvent maker = restingOrders.get(makerOrderId);
+        enqueue(new Trade(
+                new Fill(takerOrderId, taker.getUserId(), taker.getCommodityId(), taker.getType(), price, lots, takerRemaining == 0),
+                new Fill(makerOrderId, maker.getUserId(), maker.getCommodityId(), maker.getType(), price, lots, makerRemaining == 0)));
+        if (makerRemaining == 0) {
+            restingOrders.remove(makerOrderId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        matcher.shutdown();
+        matcher.awaitTermination(5, TimeUnit.SECONDS);
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void resubmit(Transaction txn) {
+        BigDecimal filled = txn.getFilledQuantity() != null ? txn.getFilledQuantity() : BigDecimal.ZERO;
+        OrderEvent order = OrderEvent.of(txn, null);
+        long remaining = toLots(txn.getQuantity().subtract(filled));
+        if (remaining > 0) {
+            matcher.execute(() -> submit(order, remaining));
+        }
+    }
+
+    /** True once persisting trades has failed too often; no further orders are matched. */
+    public boolean isHalted() {
+        return halted;
+    }
+
+    private void submit(OrderEvent order, long quantity) {
+        if (halted || order.getCommodityId() == null || order.getPrice() == null || restingOrders.containsKey(order.getId())) {
+            return;
+        }
+        OrderBook book = books.computeIfAbsent(order.getCommodityId(), id -> new OrderBook());
+        restingOrders.put(order.getId(), order);
+        long remaining = book.submit(order.getId(), isBuy(order), toTicks(order.getPrice()), quantity, this);
+        if (remaining == 0) {
+            restingOrders.remove(order.getId());
+        }
+    }
+
+    private void cancel(Long orderId) {
+        OrderEvent order = restingOrders.remove(orderId);
+        if (order != null) {
+            books.get(order.getCommodityId()).cancel(orderId, isBuy(order), toTicks(order.getPrice()));
+        }
+    }
+
+    private void enqueue(Trade trade) {
+        try {
+            // Blocks the matcher when the writer falls behind, rather than dropping executions.
+            pendingTrades.put(trade);
+            queuedTrades++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing trade", e);
+        }
+    }
+
+    private void writeFills() {
+        List<Trade> batch = new ArrayList<>(writerBatchSize);
+        while (running || !pendingTrades.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Trade first = pendingTrades.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    pendingTrades.drainTo(batch, writerBatchSize - 1);
+                }
+                persist(batch);
+                synchronized (writeProgress) {
+                    writtenTrades += batch.size();
+                    writeProgress.notifyAll();
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                if (!running) {
+                    pendingTrades.drainTo(batch);
+                    if (!batch.isEmpty()) {
+                        try {
+                            giveBack(transactionService.recordFills(batch));
+                        } catch (RuntimeException failed) {
+                            log.error("Lost {} matched trades at shutdown", batch.size(), failed);
+                        }
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private void persist(List<Trade> batch) throws InterruptedException {
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                giveBack(transactionService.recordFills(batch));
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == writerRetries) {
+                    halted = true;
+                    log.error("Halting matching: {} trades failed to persist {} times; retrying until they do",
+                            batch.size(), attempt, e);
+                } else {
+                    log.warn("Failed to persist {} trades (attempt {}), retrying in {} ms", batch.size(), attempt, backoffMs, e);
+                }
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    /**
+     * Puts the quantity of fills from dropped trades back on their orders, which the book had
+     * already reduced. The order goes to the back of its price level.
+     */
+    private void giveBack(List<Fill> unapplied) {
+        if (unapplied.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> lots = new HashMap<>();
+        unapplied.forEach(fill -> lots.merge(fill.getOrderId(), toLots(fill.getQuantity()), Long::sum));
+        for (Transaction txn : transactionRepository.findAllById(lots.keySet())) {
+            if ("PENDING".equals(txn.getStatus())) {
+                OrderEvent order = OrderEvent.of(txn, null);
+                matcher.execute(() -> {
+                    OrderEvent resting = restingOrders.remove(order.getId());
+                    long remaining = resting == null ? 0
+                            : books.get(resting.getCommodityId()).cancel(order.getId(), isBuy(resting), toTicks(resting.getPrice()));
+                    submit(order, remaining + lots.get(order.getId()));
+                });
+            }
+        }
+    }
+
+    private static boolean isBuy(OrderEvent order) {
+        return "BUY".equalsIgnoreCase(order.getType());
+    }
+
+    static long toTicks(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static long toLots(BigDecimal quantity) {
+        return quantity.setScale(QUANTITY_SCALE, RoundingMode.DOWN).unscaledValue().longValueExact();
+    }
+}
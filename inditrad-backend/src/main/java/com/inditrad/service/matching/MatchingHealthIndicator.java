@@ -0,0 +1,25 @@
+package com.inditrad.service.matching;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Reports down once the matching engine has halted because trades could not be persisted. */
+@Component("matching")
+@ConditionalOnProperty(name = "inditrad.matching.enabled", havingValue = "true")
+public class MatchingHealthIndicator implements HealthIndicator {
+
+    private final MatchingEngine engine;
+
+    public MatchingHealthIndicator(MatchingEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public Health health() {
+        return engine.isHalted()
+                ? Health.down().withDetail("reason", "matched trades failed to persist; matching halted").build()
+                : Health.up().build();
+    }
+}
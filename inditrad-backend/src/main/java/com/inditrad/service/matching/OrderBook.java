@@ -0,0 +1,270 @@
+package com.inditrad.service.matching;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Price-time priority limit order book for one commodity.
+ * <p>
+ * Prices are integer ticks and quantities integer lots, so matching works on primitives
+ * only. Each side keeps its price levels in a sorted array with the best level last, and
+ * each level is a FIFO ring of parallel {@code long} arrays. Emptied levels are pooled, so
+ * once the book has warmed up, submitting and matching orders does not allocate.
+ * <p>
+ * Not thread-safe: a book must be driven by a single thread.
+ */
+public final class OrderBook {
+
+    /**
+     * Receives executions synchronously from {@link #submit}. Fills always execute at the
+     * resting (maker) order's price.
+     */
+    public interface FillHandler {
+        void onFill(long takerOrderId, long makerOrderId, long priceTicks, long quantity,
+                    long takerRemaining, long makerRemaining);
+    }
+
+    private final BookSide bids = new BookSide(true);
+    private final BookSide asks = new BookSide(false);
+    private final ArrayDeque<PriceLevel> levelPool = new ArrayDeque<>();
+
+    /**
+     * Matches an incoming order against the opposite side and rests any remainder.
+     *
+     * @return the quantity left resting on the book, zero if fully filled
+     */
+    public long submit(long orderId, boolean buy, long limitTicks, long quantity, FillHandler handler) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        BookSide opposite = buy ? asks : bids;
+        long remaining = quantity;
+        while (remaining > 0 && opposite.size > 0) {
+            long bestPrice = opposite.prices[opposite.size - 1];
+            if (buy ? bestPrice > limitTicks : bestPrice < limitTicks) {
+                break;
+            }
+            PriceLevel level = opposite.levels[opposite.size - 1];
+            remaining = level.match(orderId, remaining, bestPrice, handler);
+            if (level.isEmpty()) {
+                opposite.removeAt(opposite.size - 1);
+            }
+        }
+        if (remaining > 0) {
+            (buy ? bids : asks).add(orderId, limitTicks, remaining);
+        }
+        return remaining;
+    }
+
+    /**
+     * Removes a resting order. The caller supplies the side and limit it was submitted with.
+     *
+     * @return the quantity that was still resting, or zero if the order was not on the book
+     */
+    public long cancel(long orderId, boolean buy, long limitTicks) {
+        BookSide side = buy ? bids : asks;
+        int index = side.indexOf(limitTicks);
+        if (index < 0) {
+            return 0;
+        }
+        PriceLevel level = side.levels[index];
+        long cancelled = level.cancel(orderId);
+        if (level.isEmpty()) {
+            side.removeAt(index);
+        }
+        return cancelled;
+    }
+
+    /** Best bid in ticks, or {@link Long#MIN_VALUE} if there are no bids. */
+    public long bestBid() {
+        return bids.size == 0 ? Long.MIN_VALUE : bids.prices[bids.size - 1];
+    }
+
+    /** Best ask in ticks, or {@link Long#MAX_VALUE} if there are no asks. */
+    public long bestAsk() {
+        return asks.size == 0 ? Long.MAX_VALUE : asks.prices[asks.size - 1];
+    }
+
+    /** Total resting quantity at a price on one side. */
+    public long depthAt(boolean buy, long priceTicks) {
+        BookSide side = buy ? bids : asks;
+        int index = side.indexOf(priceTicks);
+        return index < 0 ? 0 : side.levels[index].totalQuantity();
+    }
+
+    public int levelCount(boolean buy) {
+        return (buy ? bids : asks).size;
+    }
+
+    private final class BookSide {
+        private final boolean descending;
+        private long[] prices = new long[16];
+        private PriceLevel[] levels = new PriceLevel[16];
+        private int size;
+
+        private BookSide(boolean bidSide) {
+            // Best level is kept last: bids ascend towards the highest, asks descend towards the lowest.
+            this.descending = !bidSide;
+        }
+
+        private int compare(long a, long b) {
+            return descending ? Long.compare(b, a) : Long.compare(a, b);
+        }
+
+        /** Binary search; returns the index, or {@code -(insertionPoint + 1)} when absent. */
+        private int search(long price) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(prices[mid], price);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private int indexOf(long price) {
+            int index = search(price);
+            return index >= 0 ? index : -1;
+        }
+
+        private void add(long orderId, long price, long quantity) {
+            int index = search(price);
+            if (index < 0) {
+                index = -(index + 1);
+                if (size == prices.length) {
+                    prices = Arrays.copyOf(prices, size * 2);
+                    levels = Arrays.copyOf(levels, size * 2);
+                }
+                System.arraycopy(prices, index, prices, index + 1, size - index);
+                System.arraycopy(levels, index, levels, index + 1, size - index);
+                PriceLevel level = levelPool.poll();
+                prices[index] = price;
+                levels[index] = level != null ? level : new PriceLevel();
+                size++;
+            }
+            levels[index].add(orderId, quantity);
+        }
+
+        private void removeAt(int index) {
+            levelPool.push(levels[index]);
+            System.arraycopy(prices, index + 1, prices, index, size - index - 1);
+            System.arraycopy(levels, index + 1, levels, index, size - index - 1);
+            size--;
+            levels[size] = null;
+        }
+    }
+
+    /** FIFO queue of resting orders at one price, stored as a ring of parallel arrays. */
+    private static final class PriceLevel {
+        private long[] orderIds = new long[8];
+        private long[] quantities = new long[8];
+        private int head;
+        private int count;
+
+        private void add(long orderId, long quantity) {
+            if (count == orderIds.length) {
+                grow();
+            }
+            int tail = (head + count) & (orderIds.length - 1);
+            orderIds[tail] = orderId;
+            quantities[tail] = quantity;
+            count++;
+        }
+
+        private long match(long takerOrderId, long remaining, long priceTicks, FillHandler handler) {
+            int mask = orderIds.length - 1;
+            while (remaining > 0 && count > 0) {
+                long resting = quantities[head];
+                if (resting == 0) {
+                    // Cancelled in place; drop it now that it reached the front.
+                    head = (head + 1) & mask;
+                    count--;
+                    continue;
+                }
+                long fill = Math.min(resting, remaining);
+                remaining -= fill;
+                quantities[head] = resting - fill;
+                handler.onFill(takerOrderId, orderIds[head], priceTicks, fill, remaining, resting - fill);
+                if (quantities[head] == 0) {
+                    head = (head + 1) & mask;
+                    count--;
+                }
+            }
+            skipCancelled();
+            return remaining;
+        }
+
+        private long cancel(long orderId) {
+            int mask = orderIds.length - 1;
+            for (int i = 0; i < count; i++) {
+                int slot = (head + i) & mask;
+                if (orderIds[slot] == orderId && quantities[slot] > 0) {
+                    long cancelled = quantities[slot];
+                    quantities[slot] = 0;
+                    skipCancelled();
+                    return cancelled;
+                }
+            }
+            return 0;
+        }
+
+        private void skipCancelled() {
+            int mask = orderIds.length - 1;
+            while (count > 0 && quantities[head] == 0) {
+                head = (head + 1) & mask;
+                count--;
+            }
+            while (count > 0 && quantities[(head + count - 1) & mask] == 0) {
+                count--;
+            }
+            if (count == 0) {
+                head = 0;
+            }
+        }
+
+        private boolean isEmpty() {
+            if (count == 0) {
+                return true;
+            }
+            int mask = orderIds.length - 1;
+            for (int i = 0; i < count; i++) {
+                if (quantities[(head + i) & mask] > 0) {
+                    return false;
+                }
+            }
+            count = 0;
+            head = 0;
+            return true;
+        }
+
+        private long totalQuantity() {
+            long total = 0;
+            int mask = orderIds.length - 1;
+            for (int i = 0; i < count; i++) {
+                total += quantities[(head + i) & mask];
+            }
+            return total;
+        }
+
+        private void grow() {
+            int capacity = orderIds.length;
+            long[] ids = new long[capacity * 2];
+            long[] qty = new long[capacity * 2];
+            for (int i = 0; i < count; i++) {
+                int slot = (head + i) & (capacity - 1);
+                ids[i] = orderIds[slot];
+                qty[i] = quantities[slot];
+            }
+            orderIds = ids;
+            quantities = qty;
+            head = 0;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.inditrad.service.matching;
+
+import lombok.Value;
+
+/**
+ * Both sides of one execution. They are persisted together or not at all, so a fill never
+ * moves funds or positions for one counterparty only.
+ */
+@Value
+public class Trade {
+    Fill taker;
+    Fill maker;
+}
@@ -0,0 +1,17 @@
+package com.inditrad.service.positions;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Quantity of an order settled at one price: a fill, or the unfilled rest of an approved order.
+ */
+@Value
+public class Execution {
+    Long userId;
+    Long commodityId;
+    String type; // BUY or SELL
+    BigDecimal quantity;
+    BigDecimal price;
+}
@@ -0,0 +1,48 @@
+package com.inditrad.service.positions;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Net position in one commodity, valued at average cost. Immutable: {@link #apply} returns
+ * the position after an execution.
+ * <p>
+ * Buying adds to a long position at the weighted average cost, or covers a short one; selling
+ * closes a long position or opens and extends a short one. Closing realizes the difference
+ * between the execution price and the average cost. A position that goes flat forgets its
+ * average cost, and one that flips side starts over at the execution price.
+ */
+@Value
+public class Position {
+
+    static final int SCALE = 6;
+    static final Position FLAT = new Position(scaled(BigDecimal.ZERO), scaled(BigDecimal.ZERO), scaled(BigDecimal.ZERO), 0);
+
+    BigDecimal quantity; // negative when short
+    BigDecimal averageCost;
+    BigDecimal realizedPnl;
+    long version;
+
+    Position apply(String type, BigDecimal executed, BigDecimal price) {
+        BigDecimal signed = "SELL".equals(type) ? executed.negate() : executed;
+        BigDecimal newQuantity = quantity.add(signed);
+        if (quantity.signum() == 0 || quantity.signum() == signed.signum()) {
+            BigDecimal cost = quantity.abs().multiply(averageCost).add(executed.multiply(price));
+            BigDecimal average = cost.divide(newQuantity.abs(), SCALE, RoundingMode.HALF_EVEN);
+            return new Position(scaled(newQuantity), average, realizedPnl, version + 1);
+        }
+
+        BigDecimal closed = executed.min(quantity.abs());
+        BigDecimal gain = price.subtract(averageCost).multiply(closed);
+        BigDecimal realized = realizedPnl.add(quantity.signum() > 0 ? gain : gain.negate());
+        BigDecimal average = newQuantity.signum() == 0 ? BigDecimal.ZERO
+                : newQuantity.signum() == quantity.signum() ? averageCost : price;
+        return new Position(scaled(newQuantity), scaled(average), scaled(realized), version + 1);
+    }
+
+    static BigDecimal scaled(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_EVEN);
+    }
+}
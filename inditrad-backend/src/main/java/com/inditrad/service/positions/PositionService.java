@@ -0,0 +1,225 @@
+package com.inditrad.service.positions;
+
+import com.inditrad.model.CommoditySnapshot;
+import com.inditrad.model.PortfolioView;
+import com.inditrad.model.PositionView;
+import com.inditrad.service.CommodityPriceBook;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holdings per user and commodity: net quantity, average cost and realized P&amp;L, with
+ * unrealized P&amp;L marked against the live {@link CommodityPriceBook}.
+ * <p>
+ * Average cost depends on the order in which executions settle, which the order table does
+ * not record, so positions are persisted in {@code user_position} by the settling transaction
+ * itself. {@link #apply} locks the users' rows, reads their positions, and writes the changed
+ * ones back with JDBC batches. Once that transaction commits the new positions replace the
+ * in-memory ones, which serve {@link #getPortfolio} without touching the database, in time
+ * proportional to the commodities held rather than the orders placed.
+ * <p>
+ * On startup positions are loaded from the table. If it is empty, they are first rebuilt from
+ * approved and partly filled orders, archived ones included, taken in placement order at the
+ * order price.
+ */
+@Slf4j
+@Service
+@DependsOn("entityManagerFactory")
+public class PositionService {
+
+    private static final String COLUMNS = "user_id, commodity_id, quantity, average_cost, realized_pnl, version";
+    private static final String SELECT_ALL_SQL = "SELECT " + COLUMNS + " FROM user_position";
+    private static final String SELECT_FOR_USERS_SQL = SELECT_ALL_SQL + " WHERE user_id IN (:ids)";
+    private static final String LOCK_USERS_SQL = "SELECT id FROM app_user WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM user_position";
+    private static final String EXECUTED_COLUMNS =
+            "SELECT user_id, commodity_id, type, price, CASE WHEN status = 'APPROVED' THEN quantity ELSE filled_quantity END, "
+                    + "timestamp, id FROM ";
+    private static final String EXECUTED_WHERE = " WHERE status = 'APPROVED' OR filled_quantity > 0";
+    private static final String SELECT_EXECUTED_SQL =
+            EXECUTED_COLUMNS + "transaction" + EXECUTED_WHERE
+                    + " UNION ALL " + EXECUTED_COLUMNS + "transaction_archive" + EXECUTED_WHERE + " ORDER BY 6, 7";
+    private static final String UPDATE_SQL =
+            "UPDATE user_position SET quantity = ?, average_cost = ?, realized_pnl = ?, version = ?, updated_at = ? "
+                    + "WHERE user_id = ? AND commodity_id = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO user_position (quantity, average_cost, realized_pnl, version, updated_at, user_id, commodity_id) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] ROW_TYPES =
+            {Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.BIGINT, Types.TIMESTAMP, Types.BIGINT, Types.BIGINT};
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final CommodityPriceBook priceBook;
+    private final Map<Long, Map<Long, Position>> positions = new ConcurrentHashMap<>();
+
+    public PositionService(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           CommodityPriceBook priceBook) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.priceBook = priceBook;
+    }
+
+    @PostConstruct
+    public void load() {
+        Long count = jdbcTemplate.getJdbcTemplate().queryForObject(COUNT_SQL, Long.class);
+        if (count != null && count == 0) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> rebuild());
+        }
+        jdbcTemplate.getJdbcTemplate().query(SELECT_ALL_SQL, rs -> {
+            install(rs.getLong(1), rs.getLong(2), position(rs));
+        });
+        log.info("Positions loaded for {} users", positions.size());
+    }
+
+    /**
+     * Applies settled executions to the users' positions. Must run inside the transaction that
+     * settles them; the in-memory positions change only if it commits.
+     */
+    public void apply(List<Execution> executions) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Positions must be applied inside the settling transaction");
+        }
+        if (executions.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids",
+                executions.stream().map(Execution::getUserId).distinct().toList());
+        // The user rows serialize concurrent settlements, including the first one to open a position.
+        jdbcTemplate.queryForList(LOCK_USERS_SQL, ids, Long.class);
+        Map<Key, Position> current = new HashMap<>();
+        jdbcTemplate.query(SELECT_FOR_USERS_SQL, ids, rs -> {
+            current.put(new Key(rs.getLong(1), rs.getLong(2)), position(rs));
+        });
+
+        Map<Key, Position> changed = apply(current, executions);
+        write(changed, current.keySet());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changed.forEach((key, position) -> install(key.getUserId(), key.getCommodityId(), position));
+            }
+        });
+    }
+
+    /** The user's positions, including closed ones with realized P&amp;L, marked at current prices. */
+    public PortfolioView getPortfolio(Long userId) {
+        List<PositionView> views = new ArrayList<>();
+        BigDecimal marketValue = BigDecimal.ZERO;
+        BigDecimal unrealized = BigDecimal.ZERO;
+        BigDecimal realized = BigDecimal.ZERO;
+        for (Map.Entry<Long, Position> entry : new TreeMap<>(positions.getOrDefault(userId, Map.of())).entrySet()) {
+            Position position = entry.getValue();
+            CommoditySnapshot quote = priceBook.get(entry.getKey()).orElse(null);
+            BigDecimal mark = quote != null ? quote.getCurrentPrice() : position.getAverageCost();
+            BigDecimal value = money(mark.multiply(position.getQuantity()));
+            BigDecimal pnl = money(mark.subtract(position.getAverageCost()).multiply(position.getQuantity()));
+            views.add(PositionView.builder()
+                    .commodityId(entry.getKey())
+                    .commodityName(quote != null ? quote.getName() : null)
+                    .quantity(position.getQuantity())
+                    .averageCost(position.getAverageCost())
+                    .marketPrice(mark)
+                    .marketValue(value)
+                    .unrealizedPnl(pnl)
+                    .realizedPnl(money(position.getRealizedPnl()))
+                    .build());
+            marketValue = marketValue.add(value);
+            unrealized = unrealized.add(pnl);
+            realized = realized.add(money(position.getRealizedPnl()));
+        }
+        return PortfolioView.builder()
+                .userId(userId)
+                .positions(views)
+                .marketValue(marketValue)
+                .unrealizedPnl(unrealized)
+                .realizedPnl(realized)
+                .build();
+    }
+
+    private void rebuild() {
+        List<Execution> executions = new ArrayList<>();
+        jdbcTemplate.getJdbcTemplate().query(SELECT_EXECUTED_SQL, rs -> {
+            executions.add(new Execution(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getBigDecimal(5),
+                    rs.getBigDecimal(4)));
+        });
+        if (!executions.isEmpty()) {
+            Map<Key, Position> rebuilt = apply(Map.of(), executions);
+            write(rebuilt, Set.of());
+            log.info("Rebuilt {} positions from {} executed orders", rebuilt.size(), executions.size());
+        }
+    }
+
+    private static Map<Key, Position> apply(Map<Key, Position> current, List<Execution> executions) {
+        Map<Key, Position> changed = new LinkedHashMap<>();
+        for (Execution execution : executions) {
+            if (execution.getQuantity() == null || execution.getQuantity().signum() <= 0
+                    || (!"BUY".equals(execution.getType()) && !"SELL".equals(execution.getType()))) {
+                continue;
+            }
+            Key key = new Key(execution.getUserId(), execution.getCommodityId());
+            Position before = changed.getOrDefault(key, current.getOrDefault(key, Position.FLAT));
+            changed.put(key, before.apply(execution.getType(), execution.getQuantity(), execution.getPrice()));
+        }
+        return changed;
+    }
+
+    private void write(Map<Key, Position> changed, Set<Key> existing) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        changed.forEach((key, position) -> (existing.contains(key) ? updates : inserts).add(new Object[]{
+                position.getQuantity(), position.getAverageCost(), position.getRealizedPnl(), position.getVersion(),
+                now, key.getUserId(), key.getCommodityId()}));
+        if (!updates.isEmpty()) {
+            jdbcTemplate.getJdbcTemplate().batchUpdate(UPDATE_SQL, updates, ROW_TYPES);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_SQL, inserts, ROW_TYPES);
+        }
+    }
+
+    private void install(Long userId, Long commodityId, Position position) {
+        positions.computeIfAbsent(userId, id -> new ConcurrentHashMap<>())
+                .merge(commodityId, position, (old, updated) -> updated.getVersion() > old.getVersion() ? updated : old);
+    }
+
+    private static Position position(ResultSet rs) throws SQLException {
+        return new Position(Position.scaled(rs.getBigDecimal(3)), Position.scaled(rs.getBigDecimal(4)),
+                Position.scaled(rs.getBigDecimal(5)), rs.getLong(6));
+    }
+
+    private static BigDecimal money(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @lombok.Value
+    private static class Key {
+        Long userId;
+        Long commodityId;
+    }
+}
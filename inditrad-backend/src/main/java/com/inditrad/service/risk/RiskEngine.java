@@ -0,0 +1,197 @@
+package com.inditrad.service.risk;
+
+import com.inditrad.event.OrderEvent;
+import com.inditrad.event.WalletPostedEvent;
+import com.inditrad.service.TradingMetrics;
+import com.inditrad.service.WalletLedger;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-trade risk checks against an in-memory view of every user's exposure.
+ * <p>
+ * Each account holds the wallet balance and the funds reserved against it. Placing a BUY
+ * order reserves its notional value, and fails with "Insufficient funds" unless the available
+ * balance (balance minus reserved) covers it; the reservation shrinks as the order fills and
+ * is released once it is approved or rejected, by which time settlement has moved the balance
+ * itself. Wallet withdrawals take a short hold the same way, so they cannot spend reserved funds.
+ * <p>
+ * A check is one map update and never touches the database. Balances and pending BUY orders
+ * are loaded at startup and then follow committed {@link WalletPostedEvent}s and
+ * {@link OrderEvent}s; a user first seen later is loaded once, under the wallet lock.
+ */
+@Slf4j
+@Service
+@DependsOn({"entityManagerFactory", "walletJournal"})
+public class RiskEngine {
+
+    private static final String SELECT_BALANCES_SQL = "SELECT id, wallet_balance FROM app_user";
+    private static final String SELECT_PENDING_BUYS_SQL =
+            "SELECT id, user_id, price, quantity, filled_quantity FROM transaction WHERE status = 'PENDING' AND type = 'BUY'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WalletLedger walletLedger;
+    private final TradingMetrics metrics;
+    private final Map<Long, Account> accounts = new ConcurrentHashMap<>();
+    private final Map<Long, Reservation> reservations = new ConcurrentHashMap<>();
+
+    public RiskEngine(JdbcTemplate jdbcTemplate, WalletLedger walletLedger, TradingMetrics metrics) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.walletLedger = walletLedger;
+        this.metrics = metrics;
+    }
+
+    @PostConstruct
+    public void load() {
+        jdbcTemplate.query(SELECT_BALANCES_SQL, rs -> {
+            BigDecimal balance = rs.getBigDecimal(2);
+            accounts.put(rs.getLong(1), new Account(balance != null ? balance : BigDecimal.ZERO, BigDecimal.ZERO));
+        });
+        jdbcTemplate.query(SELECT_PENDING_BUYS_SQL, rs -> {
+            BigDecimal filled = rs.getBigDecimal(5);
+            BigDecimal remaining = filled != null ? rs.getBigDecimal(4).subtract(filled) : rs.getBigDecimal(4);
+            Reservation reservation = new Reservation(rs.getLong(2), rs.getBigDecimal(3), remaining);
+            reservations.put(rs.getLong(1), reservation);
+            accounts.computeIfPresent(reservation.getUserId(), (id, account) -> account.reserve(reservation.amount()));
+        });
+        log.info("Risk engine loaded {} accounts and {} pending BUY reservations", accounts.size(), reservations.size());
+    }
+
+    /**
+     * Makes sure the user's account is tracked, loading it if this is the first time it is seen.
+     * Fails with "User not found" for an unknown user.
+     */
+    public void track(Long userId) {
+        if (accounts.containsKey(userId)) {
+            return;
+        }
+        // Postings commit under the wallet lock, so the balance read here includes every posting
+        // whose event was dropped for lack of an account. (Settlement joins the caller's
+        // transaction instead, but only for users with orders, who were tracked at placement.)
+        walletLedger.withUserLocks(List.of(userId), () -> {
+            if (!accounts.containsKey(userId)) {
+                accounts.putIfAbsent(userId, new Account(walletLedger.balance(userId), BigDecimal.ZERO));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Reserves {@code price * quantity} for a new BUY order. Called before the order is
+     * committed, so no fill or status change can reach it first.
+     */
+    public void reserveOrder(Long userId, Long orderId, BigDecimal price, BigDecimal quantity) {
+        if (quantity == null || quantity.signum() <= 0) {
+            throw new RuntimeException("Quantity must be greater than zero");
+        }
+        Reservation reservation = new Reservation(userId, price, quantity);
+        hold(userId, reservation.amount());
+        reservations.put(orderId, reservation);
+    }
+
+    /** Releases whatever is still reserved for the order, e.g. when it is processed or could not be placed. */
+    public void releaseOrder(Long orderId) {
+        Reservation reservation = reservations.remove(orderId);
+        if (reservation != null) {
+            release(reservation.getUserId(), reservation.amount());
+        }
+    }
+
+    /** Releases the part of an order's reservation covered by a fill of {@code quantity}. */
+    public void fillOrder(Long orderId, BigDecimal quantity) {
+        BigDecimal[] released = new BigDecimal[1];
+        Reservation[] filled = new Reservation[1];
+        reservations.computeIfPresent(orderId, (id, reservation) -> {
+            BigDecimal fillQuantity = quantity.min(reservation.getQuantity());
+            released[0] = reservation.getPrice().multiply(fillQuantity);
+            filled[0] = reservation;
+            BigDecimal remaining = reservation.getQuantity().subtract(fillQuantity);
+            return remaining.signum() > 0 ? new Reservation(reservation.getUserId(), reservation.getPrice(), remaining) : null;
+        });
+        if (filled[0] != null) {
+            release(filled[0].getUserId(), released[0]);
+        }
+    }
+
+    /**
+     * Reserves {@code amount} of the user's available balance, failing with "Insufficient funds"
+     * if it does not cover it.
+     */
+    public void hold(Long userId, BigDecimal amount) {
+        track(userId);
+        boolean[] held = new boolean[1];
+        accounts.computeIfPresent(userId, (id, account) -> {
+            if (account.available().compareTo(amount) < 0) {
+                return account;
+            }
+            held[0] = true;
+            return account.reserve(amount);
+        });
+        if (!held[0]) {
+            metrics.increment("inditrad.risk.rejected");
+            throw new RuntimeException("Insufficient funds");
+        }
+    }
+
+    public void release(Long userId, BigDecimal amount) {
+        accounts.computeIfPresent(userId, (id, account) -> account.reserve(amount.negate()));
+    }
+
+    public BigDecimal getAvailable(Long userId) {
+        Account account = accounts.get(userId);
+        return account != null ? account.available() : null;
+    }
+
+    public BigDecimal getReserved(Long userId) {
+        Account account = accounts.get(userId);
+        return account != null ? account.getReserved() : null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWalletPosted(WalletPostedEvent event) {
+        // An untracked user picks this posting up from the database when first loaded.
+        accounts.computeIfPresent(event.getUserId(),
+                (id, account) -> new Account(account.getBalance().add(event.getAmount()), account.getReserved()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrder(OrderEvent event) {
+        if ("PENDING".equals(event.getPreviousStatus()) && !"PENDING".equals(event.getStatus())) {
+            releaseOrder(event.getId());
+        }
+    }
+
+    @lombok.Value
+    private static class Account {
+        BigDecimal balance;
+        BigDecimal reserved;
+
+        BigDecimal available() {
+            return balance.subtract(reserved);
+        }
+
+        Account reserve(BigDecimal amount) {
+            return new Account(balance, reserved.add(amount).max(BigDecimal.ZERO));
+        }
+    }
+
+    @lombok.Value
+    private static class Reservation {
+        Long userId;
+        BigDecimal price;
+        BigDecimal quantity;
+
+        BigDecimal amount() {
+            return price.multiply(quantity);
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.inditrad.service.settlement;
+
+import com.inditrad.entity.EodDiscrepancy;
+import com.inditrad.entity.EodRun;
+import com.inditrad.model.EodReport;
+import com.inditrad.service.TradingMetrics;
+import com.inditrad.service.WalletJournal;
+import com.inditrad.service.WalletLedger;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * End-of-day batch that cross-checks wallet balances, the wallet log and order settlements.
+ * <p>
+ * Users are split into fixed ranges of {@code partition-size} ids, reconciled in parallel on
+ * a fork-join pool. Each partition is read in one repeatable-read transaction: the users'
+ * balances, then their wallet log streamed in id order, then their orders. For each user the
+ * opening balance implied by the first log entry plus every logged change must equal
+ * {@code app_user.wallet_balance}, and each entry must follow from the one before. An order
+ * approved without fills must have postings worth exactly its price times quantity; one with
+ * fills, which settle at prices the order does not record, must at least have moved funds the
+ * right way; one that never executed must have no postings.
+ * <p>
+ * Findings go to {@code eod_discrepancy} in the same transaction as the partition's
+ * {@code eod_partition} checkpoint, so a run interrupted by a crash resumes on startup, or on
+ * the next request for the same date, with only the partitions it had not finished. Memory
+ * per partition is bounded by its users and orders, whatever the size of the log.
+ * <p>
+ * Runs are meant for a quiet maintenance window: with the wallet journal on, postings made
+ * during the run may show up as unsettled orders.
+ */
+@Slf4j
+@Service
+@DependsOn("entityManagerFactory")
+public class EndOfDayReconciliation {
+
+    private static final String SELECT_RUN_SQL =
+            "SELECT id, business_date, status, max_user_id, partition_size, partitions, started_at, finished_at, "
+                    + "users, discrepancies FROM eod_run WHERE business_date = ?";
+    private static final String SELECT_RUNNING_SQL = "SELECT business_date FROM eod_run WHERE status = 'RUNNING'";
+    private static final String SELECT_MAX_USER_SQL = "SELECT COALESCE(MAX(id), 0) FROM app_user";
+    private static final String INSERT_RUN_SQL =
+            "INSERT INTO eod_run (business_date, status, max_user_id, partition_size, partitions, started_at) "
+                    + "VALUES (?, 'RUNNING', ?, ?, ?, ?)";
+    private static final String COMPLETE_RUN_SQL =
+            "UPDATE eod_run SET status = 'COMPLETED', finished_at = ?, "
+                    + "users = (SELECT COALESCE(SUM(users), 0) FROM eod_partition WHERE run_id = ?), "
+                    + "discrepancies = (SELECT COALESCE(SUM(discrepancies), 0) FROM eod_partition WHERE run_id = ?) "
+                    + "WHERE id = ?";
+    private static final String SELECT_DONE_SQL = "SELECT partition_index FROM eod_partition WHERE run_id = ?";
+    private static final String INSERT_PARTITION_SQL =
+            "INSERT INTO eod_partition (run_id, partition_index, users, discrepancies, completed_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_DISCREPANCY_SQL =
+            "INSERT INTO eod_discrepancy (run_id, user_id, order_id, kind, expected, actual, detail) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] DISCREPANCY_TYPES =
+            {Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.NUMERIC, Types.NUMERIC, Types.VARCHAR};
+    private static final String COUNT_BY_KIND_SQL =
+            "SELECT kind, COUNT(*) FROM eod_discrepancy WHERE run_id = ? GROUP BY kind ORDER BY kind";
+    private static final String COUNT_DONE_SQL = "SELECT COUNT(*) FROM eod_partition WHERE run_id = ?";
+    private static final String SELECT_DISCREPANCIES_SQL =
+            "SELECT id, run_id, user_id, order_id, kind, expected, actual, detail FROM eod_discrepancy "
+                    + "WHERE run_id = ? ORDER BY id LIMIT ?";
+
+    private static final String SELECT_CHECKPOINT_SQL = "SELECT last_log_id FROM wallet_checkpoint WHERE id = 1";
+    private static final String SELECT_BALANCES_SQL =
+            "SELECT id, wallet_balance FROM app_user WHERE id >= ? AND id < ?";
+    private static final String SELECT_LOGS_SQL =
+            "SELECT user_id, id, change_amount, transaction_type, balance_after, order_id FROM wallet_log "
+                    + "WHERE user_id >= ? AND user_id < ? ORDER BY user_id, id";
+    private static final String SELECT_ORDERS_SQL =
+            "SELECT id, user_id, type, status, price, quantity, filled_quantity FROM transaction "
+                    + "WHERE user_id >= ? AND user_id < ?";
+
+    private static final RowMapper<EodRun> RUN_ROW_MAPPER = (rs, rowNum) -> EodRun.builder()
+            .id(rs.getLong("id"))
+            .businessDate(rs.getObject("business_date", LocalDate.class))
+            .status(rs.getString("status"))
+            .maxUserId(rs.getLong("max_user_id"))
+            .partitionSize(rs.getInt("partition_size"))
+            .partitions(rs.getInt("partitions"))
+            .startedAt(rs.getObject("started_at", LocalDateTime.class))
+            .finishedAt(rs.getObject("finished_at", LocalDateTime.class))
+            .users(rs.getObject("users", Long.class))
+            .discrepancies(rs.getObject("discrepancies", Long.class))
+            .build();
+
+    private static final RowMapper<EodDiscrepancy> DISCREPANCY_ROW_MAPPER = (rs, rowNum) -> EodDiscrepancy.builder()
+            .id(rs.getLong("id"))
+            .runId(rs.getLong("run_id"))
+            .userId(rs.getLong("user_id"))
+            .orderId(rs.getObject("order_id", Long.class))
+            .kind(rs.getString("kind"))
+            .expected(rs.getBigDecimal("expected"))
+            .actual(rs.getBigDecimal("actual"))
+            .detail(rs.getString("detail"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final WalletJournal journal;
+    private final TradingMetrics metrics;
+    private final int partitionSize;
+    private final ForkJoinPool pool;
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    public EndOfDayReconciliation(JdbcTemplate jdbcTemplate,
+                                  DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  WalletJournal journal,
+                                  TradingMetrics metrics,
+                                  @Value("${inditrad.eod.partition-size:1000}") int partitionSize,
+                                  @Value("${inditrad.eod.parallelism:0}") int parallelism,
+                                  @Value("${inditrad.eod.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        // One snapshot per partition, so a posting committed mid-read cannot look like a discrepancy.
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.journal = journal;
+        this.metrics = metrics;
+        this.partitionSize = partitionSize;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        for (LocalDate businessDate : jdbcTemplate.queryForList(SELECT_RUNNING_SQL, LocalDate.class)) {
+            log.info("Resuming interrupted end-of-day run for {}", businessDate);
+            start(businessDate);
+        }
+    }
+
+    @Scheduled(cron = "${inditrad.eod.cron:0 30 23 * * *}")
+    public void runScheduled() {
+        run(LocalDate.now());
+    }
+
+    /** Starts or resumes the run for the date in the background. */
+    public void start(LocalDate businessDate) {
+        pool.execute(() -> {
+            try {
+                run(businessDate);
+            } catch (RuntimeException e) {
+                log.error("End-of-day run for {} failed; it resumes from its checkpoints next time", businessDate, e);
+            }
+        });
+    }
+
+    /**
+     * Runs reconciliation for the date, resuming an interrupted run, and returns the completed
+     * run. A date that has already completed is returned as it is.
+     */
+    public EodRun run(LocalDate businessDate) {
+        if (!runLock.tryLock()) {
+            throw new RuntimeException("An end-of-day run is already in progress");
+        }
+        try {
+            EodRun run = findRun(businessDate).orElseGet(() -> createRun(businessDate));
+            if (EodRun.COMPLETED.equals(run.getStatus())) {
+                return run;
+            }
+            if (journal.isEnabled()) {
+                // Write out queued log entries and bring app_user up to date first.
+                journal.checkpoint();
+            }
+            Set<Integer> done = new HashSet<>(jdbcTemplate.queryForList(SELECT_DONE_SQL, Integer.class, run.getId()));
+            List<Integer> pending = IntStream.range(0, run.getPartitions()).filter(index -> !done.contains(index))
+                    .boxed().toList();
+            long started = System.nanoTime();
+            pool.invoke(new PartitionTask(run, pending, 0, pending.size()));
+
+            jdbcTemplate.update(COMPLETE_RUN_SQL, Timestamp.valueOf(LocalDateTime.now()), run.getId(), run.getId(), run.getId());
+            EodRun completed = findRun(businessDate).orElseThrow();
+            log.info("End-of-day run for {} reconciled {} users in {} partitions ({} resumed) in {} ms: {} discrepancies",
+                    businessDate, completed.getUsers(), run.getPartitions(), done.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), completed.getDiscrepancies());
+            return completed;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    public EodReport getReport(LocalDate businessDate, int limit) {
+        EodRun run = findRun(businessDate)
+                .orElseThrow(() -> new RuntimeException("No end-of-day run for " + businessDate));
+        Map<String, Long> byKind = new LinkedHashMap<>();
+        jdbcTemplate.query(COUNT_BY_KIND_SQL, rs -> {
+            byKind.put(rs.getString(1), rs.getLong(2));
+        }, run.getId());
+        return EodReport.builder()
+                .run(run)
+                .completedPartitions(jdbcTemplate.queryForObject(COUNT_DONE_SQL, Long.class, run.getId()))
+                .discrepanciesByKind(byKind)
+                .discrepancies(jdbcTemplate.query(SELECT_DISCREPANCIES_SQL, DISCREPANCY_ROW_MAPPER,
+                        run.getId(), Math.max(0, Math.min(limit, 1000))))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Optional<EodRun> findRun(LocalDate businessDate) {
+        return jdbcTemplate.query(SELECT_RUN_SQL, RUN_ROW_MAPPER, businessDate).stream().findFirst();
+    }
+
+    private EodRun createRun(LocalDate businessDate) {
+        // Users created after this point belong to the next run.
+        long maxUserId = jdbcTemplate.queryForObject(SELECT_MAX_USER_SQL, Long.class);
+        int partitions = (int) (maxUserId / partitionSize) + 1;
+        jdbcTemplate.update(INSERT_RUN_SQL, businessDate, maxUserId, partitionSize, partitions,
+                Timestamp.valueOf(LocalDateTime.now()));
+        return findRun(businessDate).orElseThrow();
+    }
+
+    private void reconcilePartition(EodRun run, int index) {
+        long from = (long) index * run.getPartitionSize();
+        long to = Math.min(from + run.getPartitionSize(), run.getMaxUserId() + 1);
+        PartitionCheck check = readTransaction.execute(status -> check(run.getId(), from, to));
+        writeTransaction.executeWithoutResult(status -> {
+            if (!check.discrepancies.isEmpty()) {
+                List<Object[]> rows = new ArrayList<>(check.discrepancies.size());
+                for (EodDiscrepancy discrepancy : check.discrepancies) {
+                    rows.add(new Object[]{discrepancy.getRunId(), discrepancy.getUserId(), discrepancy.getOrderId(),
+                            discrepancy.getKind(), discrepancy.getExpected(), discrepancy.getActual(),
+                            discrepancy.getDetail()});
+                }
+                jdbcTemplate.batchUpdate(INSERT_DISCREPANCY_SQL, rows, DISCREPANCY_TYPES);
+            }
+            jdbcTemplate.update(INSERT_PARTITION_SQL, run.getId(), index, check.users, check.discrepancies.size(),
+                    Timestamp.valueOf(LocalDateTime.now()));
+        });
+        check.discrepancies.forEach(discrepancy -> metrics.increment("inditrad.eod.discrepancies", "kind", discrepancy.getKind()));
+    }
+
+    private PartitionCheck check(Long runId, long from, long to) {
+        PartitionCheck check = new PartitionCheck(runId);
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        jdbcTemplate.query(SELECT_BALANCES_SQL, rs -> {
+            BigDecimal balance = rs.getBigDecimal(2);
+            balances.put(rs.getLong(1), balance != null ? balance : BigDecimal.ZERO);
+        }, from, to);
+        check.users = balances.size();
+        // In journal mode app_user reflects the log only up to the last checkpoint.
+        Long checkpointLogId = journal.isEnabled()
+                ? jdbcTemplate.queryForList(SELECT_CHECKPOINT_SQL, Long.class).stream().findFirst().orElse(null)
+                : null;
+
+        Map<Long, BigDecimal> settled = new HashMap<>();
+        UserLedger[] current = new UserLedger[1];
+        streamingJdbcTemplate.query(SELECT_LOGS_SQL, rs -> {
+            long userId = rs.getLong(1);
+            long logId = rs.getLong(2);
+            BigDecimal change = WalletLedger.CREDIT.equals(rs.getString(4)) ? rs.getBigDecimal(3) : rs.getBigDecimal(3).negate();
+            BigDecimal balanceAfter = rs.getBigDecimal(5);
+            UserLedger ledger = current[0];
+            if (ledger == null || ledger.userId != userId) {
+                if (ledger != null) {
+                    check.balance(ledger, balances.get(ledger.userId));
+                }
+                ledger = new UserLedger(userId, balanceAfter.subtract(change));
+                current[0] = ledger;
+            } else if (ledger.lastBalance.add(change).compareTo(balanceAfter) != 0) {
+                check.add(userId, null, EodDiscrepancy.LOG_CHAIN_BREAK, ledger.lastBalance.add(change), balanceAfter,
+                        "wallet_log #" + logId);
+            }
+            if (checkpointLogId == null || logId <= checkpointLogId) {
+                ledger.expected = ledger.expected.add(change);
+            }
+            ledger.lastBalance = balanceAfter;
+            Long orderId = rs.getObject(6, Long.class);
+            if (orderId != null) {
+                settled.merge(orderId, change, BigDecimal::add);
+            }
+        }, from, to);
+        if (current[0] != null) {
+            check.balance(current[0], balances.get(current[0].userId));
+        }
+
+        streamingJdbcTemplate.query(SELECT_ORDERS_SQL, rs -> {
+            long orderId = rs.getLong(1);
+            String type = rs.getString(3);
+            int direction = "BUY".equals(type) ? -1 : "SELL".equals(type) ? 1 : 0;
+            if (direction == 0) {
+                return;
+            }
+            BigDecimal filled = rs.getBigDecimal(7);
+            boolean hasFills = filled != null && filled.signum() > 0;
+            BigDecimal posted = settled.get(orderId);
+            if (!"APPROVED".equals(rs.getString(4)) && !hasFills) {
+                if (posted != null) {
+                    check.add(rs.getLong(2), orderId, EodDiscrepancy.UNEXPECTED_SETTLEMENT, BigDecimal.ZERO, posted,
+                            rs.getString(4) + " order has wallet postings");
+                }
+            } else if (!hasFills) {
+                BigDecimal expected = rs.getBigDecimal(5).multiply(rs.getBigDecimal(6))
+                        .setScale(2, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(direction));
+                BigDecimal actual = posted != null ? posted : BigDecimal.ZERO;
+                if (expected.compareTo(actual) != 0) {
+                    check.add(rs.getLong(2), orderId, EodDiscrepancy.SETTLEMENT_MISMATCH, expected, actual,
+                            "postings differ from price times quantity");
+                }
+            } else if (posted == null || posted.signum() != direction) {
+                check.add(rs.getLong(2), orderId, EodDiscrepancy.SETTLEMENT_MISMATCH, null, posted,
+                        "filled " + type + " order did not move funds the right way");
+            }
+        }, from, to);
+        return check;
+    }
+
+    private final class PartitionTask extends RecursiveAction {
+        private final EodRun run;
+        private final List<Integer> partitions;
+        private final int lo;
+        private final int hi;
+
+        private PartitionTask(EodRun run, List<Integer> partitions, int lo, int hi) {
+            this.run = run;
+            this.partitions = partitions;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                reconcilePartition(run, partitions.get(lo));
+            } else if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new PartitionTask(run, partitions, lo, mid), new PartitionTask(run, partitions, mid, hi));
+            }
+        }
+    }
+
+    private static final class UserLedger {
+        private final long userId;
+        private BigDecimal expected;
+        private BigDecimal lastBalance;
+
+        private UserLedger(long userId, BigDecimal opening) {
+            this.userId = userId;
+            this.expected = opening;
+            this.lastBalance = opening;
+        }
+    }
+
+    private static final class PartitionCheck {
+        private final Long runId;
+        private final List<EodDiscrepancy> discrepancies = new ArrayList<>();
+        private long users;
+
+        private PartitionCheck(Long runId) {
+            this.runId = runId;
+        }
+
+        private void balance(UserLedger ledger, BigDecimal actual) {
+            if (actual != null && ledger.expected.compareTo(actual) != 0) {
+                add(ledger.userId, null, EodDiscrepancy.BALANCE_MISMATCH, ledger.expected, actual,
+                        "opening balance plus logged changes differs from wallet_balance");
+            }
+        }
+
+        private void add(Long userId, Long orderId, String kind, BigDecimal expected, BigDecimal actual, String detail) {
+            discrepancies.add(EodDiscrepancy.builder()
+                    .runId(runId)
+                    .userId(userId)
+                    .orderId(orderId)
+                    .kind(kind)
+                    .expected(expected)
+                    .actual(actual)
+                    .detail(detail)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.inditrad.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe, size-bounded map whose entries each carry their own expiry time.
+ * <p>
+ * Expired entries are never returned and are dropped lazily on access. When the cache is
+ * full, an insert first sweeps out expired entries and, if that frees nothing, evicts an
+ * arbitrary entry, so the cache never grows past its bound.
+ */
+public class ExpiringCache<K, V> {
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final LongSupplier clock;
+
+    public ExpiringCache(int maxSize) {
+        this(maxSize, System::currentTimeMillis);
+    }
+
+    ExpiringCache(int maxSize, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis <= clock.getAsLong()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /** Stores {@code value} until {@code expiresAtMillis} (epoch millis). Past expiries are ignored. */
+    public void put(K key, V value, long expiresAtMillis) {
+        long now = clock.getAsLong();
+        if (expiresAtMillis <= now) {
+            return;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            makeRoom(now);
+        }
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+    }
+
+    /**
+     * Stores {@code value} only if no live entry exists for {@code key}.
+     *
+     * @return the live value already present, or {@code null} if {@code value} was stored
+     */
+    public V putIfAbsent(K key, V value, long expiresAtMillis) {
+        long now = clock.getAsLong();
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            makeRoom(now);
+        }
+        Entry<V> candidate = new Entry<>(value, expiresAtMillis);
+        Entry<V> existing = entries.merge(key, candidate,
+                (current, proposed) -> current.expiresAtMillis <= now ? proposed : current);
+        return existing == candidate ? null : existing.value;
+    }
+
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void makeRoom(long now) {
+        entries.values().removeIf(entry -> entry.expiresAtMillis <= now);
+        Iterator<K> keys = entries.keySet().iterator();
+        while (entries.size() >= maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAtMillis;
+
+        private Entry(V value, long expiresAtMillis) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
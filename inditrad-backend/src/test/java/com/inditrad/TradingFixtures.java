@@ -0,0 +1,57 @@
+package com.inditrad;
+
+import com.inditrad.entity.AppUser;
+import com.inditrad.model.TransactionRequest;
+import com.inditrad.repository.AppUserRepository;
+import com.inditrad.service.CommodityPriceBook;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Users and order requests shared by the service tests. Picked up by component scanning, so
+ * every test context has it without changing the context cache key.
+ */
+@Component
+public class TradingFixtures {
+
+    public static final BigDecimal DEFAULT_BALANCE = new BigDecimal("1000000.00");
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AppUserRepository userRepository;
+    private final CommodityPriceBook priceBook;
+
+    public TradingFixtures(AppUserRepository userRepository, CommodityPriceBook priceBook) {
+        this.userRepository = userRepository;
+        this.priceBook = priceBook;
+    }
+
+    /** Saves a user named {@code prefix} plus a unique suffix, holding {@link #DEFAULT_BALANCE}. */
+    public Long newUser(String prefix) {
+        return newUser(prefix, DEFAULT_BALANCE);
+    }
+
+    public Long newUser(String prefix, BigDecimal balance) {
+        AppUser user = new AppUser();
+        user.setUsername(prefix + "-" + System.nanoTime() + "-" + sequence.incrementAndGet());
+        user.setPassword("x");
+        user.setWalletBalance(balance);
+        return userRepository.save(user).getId();
+    }
+
+    /** The commodity every fixture order is placed in. */
+    public Long commodityId() {
+        return priceBook.getAll().get(0).getId();
+    }
+
+    /** An order request in {@link #commodityId()}. */
+    public TransactionRequest order(Long userId, String quantity, String type) {
+        TransactionRequest request = new TransactionRequest();
+        request.setUserId(userId);
+        request.setCommodityId(commodityId());
+        request.setQuantity(new BigDecimal(quantity));
+        request.setTransactionType(type);
+        return request;
+    }
+}
@@ -0,0 +1,136 @@
+package com.inditrad.api;
+
+import com.inditrad.config.AuthenticatedUser;
+import com.inditrad.config.JwtUtil;
+import com.inditrad.entity.Admin;
+import com.inditrad.entity.AppUser;
+import com.inditrad.model.TransactionRequest;
+import com.inditrad.repository.AdminRepository;
+import com.inditrad.repository.AppUserRepository;
+import com.inditrad.service.CommodityPriceBook;
+import com.inditrad.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // Own database, so this context's schema lifecycle does not affect the shared one.
+        "spring.datasource.url=jdbc:h2:mem:listing;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+class ListingQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private AdminRepository adminRepository;
+
+    @Autowired
+    private AppUserRepository userRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CommodityPriceBook priceBook;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        token = "Bearer " + jwtUtil.generateToken("root", AuthenticatedUser.SUPER_ADMIN, 1L);
+        if (userRepository.count() >= 10) {
+            return;
+        }
+        for (int a = 0; a < 3; a++) {
+            Admin admin = new Admin();
+            admin.setUsername("listing-admin-" + a);
+            admin.setPassword("x");
+            admin = adminRepository.save(admin);
+            for (int u = 0; u < 3; u++) {
+                AppUser user = new AppUser();
+                user.setUsername("listing-user-" + a + "-" + u);
+                user.setPassword("x");
+                user.setWalletBalance(new BigDecimal("1000000"));
+                user.setAdmin(admin);
+                user = userRepository.save(user);
+
+                TransactionRequest request = new TransactionRequest();
+                request.setUserId(user.getId());
+                request.setCommodityId(priceBook.getAll().get(u).getId());
+                request.setQuantity(BigDecimal.ONE);
+                request.setTransactionType("BUY");
+                transactionService.placeTransaction(request);
+            }
+        }
+    }
+
+    @Test
+    void userListingsIssueOneQuery() throws Exception {
+        assertQueries("/api/users", 1);
+        assertQueries("/api/superadmin/users", 1);
+        Long adminId = adminRepository.findByUsername("listing-admin-1").orElseThrow().getId();
+        assertQueries("/api/admin/" + adminId + "/users", 1);
+        mockMvc.perform(get("/api/admin/" + adminId + "/users").header("Authorization", token))
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].adminUsername").value("listing-admin-1"))
+                .andExpect(jsonPath("$[0].password").doesNotExist());
+    }
+
+    @Test
+    void adminListingsIssueOneQuery() throws Exception {
+        assertQueries("/api/superadmin/admins", 1);
+        Long adminId = adminRepository.findByUsername("listing-admin-0").orElseThrow().getId();
+        // The user count comes from DashboardAggregates, not a count query.
+        assertQueries("/api/superadmin/admins/" + adminId + "/details", 1);
+    }
+
+    @Test
+    void orderListingIssuesOneQuery() throws Exception {
+        assertQueries("/api/transaction/orders?limit=50", 1);
+        mockMvc.perform(get("/api/transaction/orders").header("Authorization", token))
+                .andExpect(jsonPath("$.items[0].userName").exists())
+                .andExpect(jsonPath("$.items[0].commodityName").exists());
+    }
+
+    @Test
+    void usersOnlyListTheirOwnOrders() throws Exception {
+        AppUser owner = userRepository.findByUsername("listing-user-0-0").orElseThrow();
+        Long otherId = userRepository.findByUsername("listing-user-1-0").orElseThrow().getId();
+        String userToken = "Bearer " + jwtUtil.generateToken(owner.getUsername(), AuthenticatedUser.USER, owner.getId());
+        mockMvc.perform(get("/api/transaction/orders?userId=" + otherId).header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].userName").value(owner.getUsername()));
+    }
+
+    private void assertQueries(String path, long expected) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(path).header("Authorization", token))
+                .andExpect(status().isOk());
+        assertEquals(expected, statistics.getPrepareStatementCount(), path);
+    }
+}
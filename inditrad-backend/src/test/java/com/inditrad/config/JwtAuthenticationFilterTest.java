@@ -0,0 +1,112 @@
+package com.inditrad.config;
+
+import com.inditrad.entity.AppUser;
+import com.inditrad.repository.AppUserRepository;
+import com.inditrad.service.TokenRevocationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class JwtAuthenticationFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private AppUserRepository userRepository;
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    @Test
+    void authenticatesFromTokenClaims() throws Exception {
+        AppUser user = new AppUser();
+        user.setUsername("filter-" + System.nanoTime());
+        user.setPassword("x");
+        Long userId = userRepository.save(user).getId();
+        String token = jwtUtil.generateToken(user.getUsername(), AuthenticatedUser.USER, userId);
+
+        mockMvc.perform(get("/api/commodities"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/commodities").header("Authorization", "Bearer not-a-token"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/commodities").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(userId));
+        mockMvc.perform(get("/api/superadmin/admins").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+
+        revocationService.deactivate(AuthenticatedUser.USER, userId);
+        mockMvc.perform(get("/api/commodities").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+
+        revocationService.reactivate(AuthenticatedUser.USER, userId);
+        mockMvc.perform(get("/api/commodities").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void usersCannotReachAdminEndpointsOrActForOthers() throws Exception {
+        Long userId = newUser("role");
+        Long otherId = newUser("role-other");
+        String token = "Bearer " + jwtUtil.generateToken("role", AuthenticatedUser.USER, userId);
+
+        mockMvc.perform(put("/api/transaction/orders/1/process").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"action\":\"APPROVE\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(put("/api/transaction/orders/process").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"orders\":[]}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(put("/api/wallet/" + userId + "/update").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":100,\"operation\":\"ADD\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(put("/api/commodities/1/price").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"price\":1}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/users").header("Authorization", token))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/admin/1/users").header("Authorization", token))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/api/transaction/place").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + otherId + ",\"commodityId\":1,\"quantity\":1,\"transactionType\":\"BUY\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/wallet/" + otherId + "/statement").header("Authorization", token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void logoutRevokesTokensIssuedSoFar() throws Exception {
+        Long userId = newUser("logout");
+        String token = "Bearer " + jwtUtil.generateToken("logout", AuthenticatedUser.USER, userId);
+
+        mockMvc.perform(post("/auth/logout").header("Authorization", token))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/commodities").header("Authorization", token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private Long newUser(String prefix) {
+        AppUser user = new AppUser();
+        user.setUsername(prefix + "-" + System.nanoTime());
+        user.setPassword("x");
+        return userRepository.save(user).getId();
+    }
+}
@@ -0,0 +1,59 @@
+package com.inditrad.service;
+
+import com.inditrad.entity.Admin;
+import com.inditrad.entity.AppUser;
+import com.inditrad.model.CreateUserRequest;
+import com.inditrad.repository.AppUserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AuthServiceTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private AppUserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void logsInSeededAccountsByRole() {
+        assertInstanceOf(Admin.class, authService.login("admin1", "admin123").orElseThrow());
+        assertInstanceOf(AppUser.class, authService.login("user1", "user123").orElseThrow());
+        assertTrue(authService.login("user1", "wrong").isEmpty());
+        assertTrue(authService.login("nobody-" + System.nanoTime(), "user123").isEmpty());
+    }
+
+    @Test
+    void findsAccountsCreatedThroughServiceAndDirectly() {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setUsername("indexed-" + System.nanoTime());
+        request.setPassword("secret1");
+        request.setInitialWalletBalance(BigDecimal.ZERO);
+        AppUser created = adminService.createUser(request, null);
+        assertEquals(created.getId(), ((AppUser) authService.login(request.getUsername(), "secret1").orElseThrow()).getId());
+
+        // Written without going through AdminService, so only the database fallback can find it.
+        AppUser direct = new AppUser();
+        direct.setUsername("direct-" + System.nanoTime());
+        direct.setPassword(passwordEncoder.encode("secret2"));
+        userRepository.save(direct);
+        Optional<?> login = authService.login(direct.getUsername(), "secret2");
+        assertEquals(direct.getId(), ((AppUser) login.orElseThrow()).getId());
+    }
+}
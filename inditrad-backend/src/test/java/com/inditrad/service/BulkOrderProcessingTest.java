@@ -0,0 +1,136 @@
+package com.inditrad.service;
+
+import com.inditrad.TradingFixtures;
+import com.inditrad.entity.Transaction;
+import com.inditrad.model.BulkProcessRequest;
+import com.inditrad.model.BulkProcessResult;
+import com.inditrad.repository.AppUserRepository;
+import com.inditrad.repository.TransactionRepository;
+import com.inditrad.repository.WalletLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class BulkOrderProcessingTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TradingFixtures fixtures;
+
+    @Autowired
+    private AppUserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private WalletLogRepository walletLogRepository;
+
+    @Test
+    void settlesApprovedOrdersAndReportsEachOutcome() {
+        Long userId = fixtures.newUser("bulk");
+        Long commodityId = fixtures.commodityId();
+
+        Transaction buy = transactionService.placeTransaction(fixtures.order(userId, "2", "BUY"));
+        Transaction sell = transactionService.placeTransaction(fixtures.order(userId, "1", "SELL"));
+        Transaction rejected = transactionService.placeTransaction(fixtures.order(userId, "5", "BUY"));
+
+        List<BulkProcessResult> results = transactionService.processOrders(List.of(
+                action(buy.getId(), "approve"),
+                action(sell.getId(), "approve"),
+                action(rejected.getId(), "reject"),
+                action(-1L, "approve")));
+
+        assertEquals(4, results.size());
+        assertEquals("APPROVED", results.get(0).getStatus());
+        assertEquals("APPROVED", results.get(1).getStatus());
+        assertEquals("REJECTED", results.get(2).getStatus());
+        assertNull(results.get(3).getStatus());
+        assertEquals("Order not found", results.get(3).getError());
+
+        BigDecimal expected = TradingFixtures.DEFAULT_BALANCE
+                .subtract(buy.getPrice().multiply(buy.getQuantity()))
+                .add(sell.getPrice().multiply(sell.getQuantity()));
+        assertEquals(0, expected.compareTo(userRepository.findById(userId).orElseThrow().getWalletBalance()));
+        assertEquals(2, walletLogRepository.findByUserId(userId).size());
+        assertEquals("REJECTED", transactionRepository.findById(rejected.getId()).orElseThrow().getStatus());
+
+        List<BulkProcessResult> again = transactionService.processOrders(List.of(action(buy.getId(), "approve")));
+        assertEquals("Order has already been processed", again.get(0).getError());
+        assertEquals(2, walletLogRepository.findByUserId(userId).size());
+    }
+
+    @Test
+    void singleAndBulkApprovalsOfTheSameOrdersSettleEachOnce() throws Exception {
+        List<Long> userIds = List.of(fixtures.newUser("bulk-race"), fixtures.newUser("bulk-race"));
+        Long commodityId = fixtures.commodityId();
+        List<Transaction> placed = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String type = i % 2 == 0 ? "BUY" : "SELL";
+            placed.add(transactionService.placeTransaction(fixtures.order(userIds.get(i % 2), "1", type)));
+        }
+
+        // One bulk approval in placement order races single approvals in the reverse order.
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        futures.add(pool.submit(() -> {
+            start.await();
+            return transactionService.processOrders(placed.stream().map(txn -> action(txn.getId(), "approve")).toList());
+        }));
+        for (int t = 0; t < 2; t++) {
+            int offset = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = placed.size() - 1 - offset; i >= 0; i -= 2) {
+                    try {
+                        transactionService.processOrder(placed.get(i).getId(), "approve");
+                    } catch (RuntimeException e) {
+                        assertEquals("Order has already been processed", e.getMessage());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        for (int u = 0; u < userIds.size(); u++) {
+            Long userId = userIds.get(u);
+            BigDecimal expected = TradingFixtures.DEFAULT_BALANCE;
+            for (int i = u; i < placed.size(); i += 2) {
+                Transaction txn = placed.get(i);
+                assertEquals("APPROVED", transactionRepository.findById(txn.getId()).orElseThrow().getStatus());
+                BigDecimal amount = txn.getPrice().multiply(txn.getQuantity());
+                expected = "BUY".equals(txn.getType()) ? expected.subtract(amount) : expected.add(amount);
+            }
+            assertEquals(0, expected.compareTo(userRepository.findById(userId).orElseThrow().getWalletBalance()));
+            assertEquals(placed.size() / 2, walletLogRepository.findByUserId(userId).size());
+        }
+    }
+
+    private static BulkProcessRequest.OrderAction action(Long id, String action) {
+        BulkProcessRequest.OrderAction orderAction = new BulkProcessRequest.OrderAction();
+        orderAction.setId(id);
+        orderAction.setAction(action);
+        return orderAction;
+    }
+}
@@ -0,0 +1,89 @@
+package com.inditrad.service;
+
+import com.inditrad.TradingFixtures;
+import com.inditrad.entity.Admin;
+import com.inditrad.entity.AppUser;
+import com.inditrad.entity.Transaction;
+import com.inditrad.model.AggregateTotals;
+import com.inditrad.model.CreateAdminRequest;
+import com.inditrad.model.CreateUserRequest;
+import com.inditrad.model.DashboardSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class DashboardAggregatesTest {
+
+    @Autowired
+    private DashboardAggregates aggregates;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TradingFixtures fixtures;
+
+    @Test
+    void followsEventsAndAgreesWithReconciliation() {
+        // Other tests write rows directly, without events; start from the database's figures.
+        aggregates.reconcile();
+        DashboardSummary before = aggregates.getSummary();
+
+        Admin admin = adminService.createAdmin(adminRequest());
+        AppUser user = adminService.createUser(userRequest(new BigDecimal("100000.00")), admin.getId());
+        Long commodityId = fixtures.commodityId();
+        Transaction approved = transactionService.placeTransaction(fixtures.order(user.getId(), "3", "BUY"));
+        Transaction rejected = transactionService.placeTransaction(fixtures.order(user.getId(), "1", "BUY"));
+        transactionService.placeTransaction(fixtures.order(user.getId(), "2", "BUY"));
+        transactionService.processOrder(approved.getId(), "approve");
+        transactionService.processOrder(rejected.getId(), "reject");
+        walletService.updateWallet(user.getId(), new BigDecimal("50.00"), "add");
+
+        DashboardSummary incremental = aggregates.getSummary();
+        AggregateTotals mine = incremental.getByAdmin().stream()
+                .filter(totals -> admin.getId().equals(totals.getAdminId()))
+                .findFirst().orElseThrow();
+        BigDecimal notional = approved.getPrice().multiply(approved.getQuantity());
+        assertEquals(1, mine.getUsers());
+        assertEquals(1, mine.getPendingOrders());
+        assertEquals(1, mine.getApprovedOrders());
+        assertEquals(1, mine.getRejectedOrders());
+        assertEquals(0, notional.compareTo(mine.getTradedNotional().get(commodityId)));
+        assertEquals(0, new BigDecimal("100050.00").subtract(notional).compareTo(mine.getWalletFloat()));
+        assertEquals(before.getAdmins() + 1, incremental.getAdmins());
+        assertEquals(before.getTotals().getUsers() + 1, incremental.getTotals().getUsers());
+        assertEquals(1, aggregates.getUserCount(admin.getId()));
+
+        aggregates.reconcile();
+        DashboardSummary reconciled = aggregates.getSummary();
+        assertEquals(incremental.getAdmins(), reconciled.getAdmins());
+        assertEquals(incremental.getTotals(), reconciled.getTotals());
+        assertEquals(incremental.getByAdmin(), reconciled.getByAdmin());
+    }
+
+    private static CreateAdminRequest adminRequest() {
+        CreateAdminRequest request = new CreateAdminRequest();
+        request.setUsername("aggregates-admin-" + System.nanoTime());
+        request.setPassword("secret");
+        return request;
+    }
+
+    private static CreateUserRequest userRequest(BigDecimal balance) {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setUsername("aggregates-user-" + System.nanoTime());
+        request.setPassword("secret");
+        request.setInitialWalletBalance(balance);
+        return request;
+    }
+}
@@ -0,0 +1,98 @@
+package com.inditrad.service;
+
+import com.inditrad.event.OrderEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class MarketStreamServiceTest {
+
+    // One writer thread, so a stalled client would starve every other subscriber.
+    private final MarketStreamService service =
+            new MarketStreamService(mock(CommodityPriceBook.class), 60_000, 16, 1, 200);
+
+    @AfterEach
+    void shutDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void clientThatNeverReadsIsEvictedAndOthersKeepReceiving() throws Exception {
+        StalledEmitter stalled = new StalledEmitter();
+        RecordingEmitter healthy = new RecordingEmitter();
+        service.register(stalled, 1L, null);
+        service.onOrder(order(1L));
+        assertTrue(stalled.blocked.await(5, TimeUnit.SECONDS), "stalled client never received a send");
+        service.register(healthy, 2L, null);
+
+        service.onOrder(order(2L));
+        Thread.sleep(300);
+        assertTrue(healthy.events.isEmpty(), "the writer thread should still be stuck on the stalled client");
+
+        service.evictStalled();
+
+        assertTrue(stalled.failed.await(5, TimeUnit.SECONDS), "stalled send was not interrupted");
+        assertTrue(healthy.received.await(5, TimeUnit.SECONDS), "healthy client starved");
+        assertEquals(List.of("order"), healthy.events);
+        assertEquals(1, service.getSubscriberCount());
+    }
+
+    @Test
+    void sendsWithinTheTimeoutAreLeftAlone() throws Exception {
+        RecordingEmitter healthy = new RecordingEmitter();
+        service.register(healthy, 2L, null);
+        service.onOrder(order(2L));
+        assertTrue(healthy.received.await(5, TimeUnit.SECONDS));
+
+        service.evictStalled();
+
+        assertEquals(1, service.getSubscriberCount());
+    }
+
+    private static OrderEvent order(Long userId) {
+        return OrderEvent.builder().id(10L).userId(userId).status("PENDING").build();
+    }
+
+    /** A client whose socket buffer is full: every send blocks until the thread is interrupted. */
+    private static final class StalledEmitter extends SseEmitter {
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch failed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            blocked.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                failed.countDown();
+                throw new InterruptedIOException("write interrupted");
+            }
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch received = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            // Snapshots and keep-alives carry no order payload; only named order events count.
+            String text = builder.build().iterator().next().getData().toString();
+            if (text.startsWith("event:order")) {
+                events.add("order");
+                received.countDown();
+            }
+        }
+    }
+}
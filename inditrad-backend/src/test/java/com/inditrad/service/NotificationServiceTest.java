@@ -0,0 +1,65 @@
+package com.inditrad.service;
+
+import com.inditrad.entity.AppUser;
+import com.inditrad.model.TransactionRequest;
+import com.inditrad.repository.AppUserRepository;
+import com.inditrad.repository.NotificationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class NotificationServiceTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CommodityPriceBook priceBook;
+
+    @Autowired
+    private AppUserRepository userRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Test
+    void ordersNotifyTheirAdminAsynchronously() throws InterruptedException {
+        AppUser user = userRepository.findByUsername("user1").orElseThrow();
+        Long adminId = user.getAdmin().getId();
+        long before = notificationService.getUnreadCount(adminId);
+
+        for (int i = 0; i < 3; i++) {
+            TransactionRequest request = new TransactionRequest();
+            request.setUserId(user.getId());
+            request.setCommodityId(priceBook.getAll().get(0).getId());
+            request.setQuantity(BigDecimal.ONE);
+            request.setTransactionType("BUY");
+            transactionService.placeTransaction(request);
+        }
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (notificationService.getUnreadCount(adminId) < before + 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(before + 3, notificationService.getUnreadCount(adminId));
+        assertEquals(before + 3, notificationRepository.countByAdminIdAndReadStatusFalse(adminId));
+
+        Long first = notificationService.getUnread(adminId).get(0).getId();
+        notificationService.markAsRead(first);
+        notificationService.markAsRead(first);
+        assertEquals(before + 2, notificationService.getUnreadCount(adminId));
+
+        assertEquals(before + 2, notificationService.markAllAsRead(adminId));
+        assertEquals(0, notificationService.getUnreadCount(adminId));
+        assertTrue(notificationService.getUnread(adminId).isEmpty());
+    }
+}
@@ -0,0 +1,87 @@
+package com.inditrad.service;
+
+import com.inditrad.TradingFixtures;
+import com.inditrad.entity.Transaction;
+import com.inditrad.model.TransactionRequest;
+import com.inditrad.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class OrderIdempotencyTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TradingFixtures fixtures;
+
+    @Test
+    void concurrentRetriesPlaceOneOrder() throws Exception {
+        Long userId = fixtures.newUser("idempotent");
+        TransactionRequest request = fixtures.order(userId, "1", "BUY");
+
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Transaction>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                results.add(clients.submit(() -> {
+                    start.await();
+                    return transactionService.placeTransaction(request, "retry-key");
+                }));
+            }
+            start.countDown();
+            Set<Long> ids = results.stream().map(this::id).collect(Collectors.toSet());
+            assertEquals(1, ids.size());
+        } finally {
+            clients.shutdownNow();
+        }
+
+        assertEquals(1, transactionRepository.findByUserId(userId).size());
+        // Another user may use the same key, and a key may not be reused for a different order.
+        Long otherUserId = fixtures.newUser("idempotent");
+        assertNotEquals(results.get(0).get().getId(),
+                transactionService.placeTransaction(fixtures.order(otherUserId, "1", "BUY"), "retry-key").getId());
+        assertThrows(RuntimeException.class, () -> transactionService.placeTransaction(fixtures.order(userId, "1", "SELL"), "retry-key"));
+        assertEquals(1, transactionRepository.findByUserId(userId).size());
+    }
+
+    @Test
+    void findsOrderPlacedBeforeRestartByStoredKey() {
+        Long userId = fixtures.newUser("idempotent");
+        TransactionRequest request = fixtures.order(userId, "1", "BUY");
+        // Placed with this key by an earlier run, so it is in the table but not in the cache.
+        Transaction earlier = transactionService.placeTransaction(request);
+        earlier.setRequestKey("stored-key");
+        transactionRepository.save(earlier);
+
+        assertEquals(earlier.getId(), transactionService.placeTransaction(request, "stored-key").getId());
+        assertEquals(1, transactionRepository.findByUserId(userId).size());
+    }
+
+    private Long id(Future<Transaction> result) {
+        try {
+            return result.get().getId();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.inditrad.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class PooledSequenceMigrationTest {
+
+    @Autowired
+    private PooledSequenceMigration migration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void movesLaggingSequencesPastExistingIds() {
+        // A row written with an identity id far ahead of the sequence, as in an older database.
+        long legacyId = nextval() + 10_000;
+        jdbcTemplate.update("INSERT INTO app_user (id, username, password) VALUES (?, ?, 'x')",
+                legacyId, "legacy-" + System.nanoTime());
+
+        migration.migrate();
+        long blockStart = nextval() - PooledSequenceMigration.ALLOCATION_SIZE + 1;
+        assertTrue(blockStart > legacyId, "next block starts at " + blockStart);
+
+        // Running again on an aligned database leaves the sequence where it is.
+        migration.migrate();
+        assertTrue(nextval() - PooledSequenceMigration.ALLOCATION_SIZE + 1 > blockStart);
+    }
+
+    private long nextval() {
+        return jdbcTemplate.queryForObject("SELECT nextval('app_user_seq')", Long.class);
+    }
+}
@@ -0,0 +1,79 @@
+package com.inditrad.service;
+
+import com.inditrad.entity.AppUser;
+import com.inditrad.model.TransactionRequest;
+import com.inditrad.repository.AppUserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        // Own database, so this context's schema lifecycle does not affect the shared one.
+        "spring.datasource.url=jdbc:h2:mem:metrics;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class TradingMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private CommodityPriceBook priceBook;
+
+    @Autowired
+    private AppUserRepository userRepository;
+
+    @Test
+    void hotPathsAreExposedForScraping() throws Exception {
+        AppUser user = userRepository.findByUsername("user1").orElseThrow();
+        TransactionRequest request = new TransactionRequest();
+        request.setUserId(user.getId());
+        request.setCommodityId(priceBook.getAll().get(0).getId());
+        request.setQuantity(BigDecimal.ONE);
+        request.setTransactionType("BUY");
+        Long orderId = transactionService.placeTransaction(request).getId();
+        transactionService.processOrder(orderId, "reject");
+        assertThrows(RuntimeException.class, () -> transactionService.processOrder(orderId, "approve"));
+        walletService.updateWallet(user.getId(), BigDecimal.TEN, "ADD");
+        assertTrue(authService.login("user1", "wrong").isEmpty());
+        Optional<?> account = authService.login("user1", "user123");
+        assertTrue(account.isPresent());
+        priceBook.updatePrice(priceBook.getAll().get(0).getId(), new BigDecimal("2001.00"));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "inditrad_orders_place_seconds_bucket{application=\"inditradApplication\",commodity=\"Gold\",outcome=\"success\",type=\"buy\"")))
+                .andExpect(content().string(containsString("inditrad_orders_process_seconds_count{action=\"reject\"")))
+                .andExpect(content().string(containsString("action=\"approve\",application=\"inditradApplication\",outcome=\"failure\"")))
+                .andExpect(content().string(containsString("inditrad_wallet_update_seconds{action=\"add\",application=\"inditradApplication\",outcome=\"success\",quantile=\"0.99\"")))
+                .andExpect(content().string(containsString("inditrad_auth_login_seconds_count{application=\"inditradApplication\",outcome=\"invalid\"")))
+                .andExpect(content().string(containsString("inditrad_prices_ticks_total{application=\"inditradApplication\",commodity=\"Gold\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")));
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,170 @@
+package com.inditrad.service;
+
+import com.inditrad.entity.AppUser;
+import com.inditrad.entity.WalletLog;
+import com.inditrad.repository.AppUserRepository;
+import com.inditrad.repository.WalletLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "inditrad.wallet.mode=journal",
+        "inditrad.wallet.checkpoint-interval-ms=600000",
+        // Own database, so this context's schema lifecycle does not affect the shared one.
+        "spring.datasource.url=jdbc:h2:mem:journal;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"
+})
+class WalletJournalTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletLedger walletLedger;
+
+    @Autowired
+    private WalletJournal walletJournal;
+
+    @Autowired
+    private WalletStatementService walletStatementService;
+
+    @Autowired
+    private AppUserRepository userRepository;
+
+    @Autowired
+    private WalletLogRepository walletLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void journalsPostingsAndCheckpointsBalances() {
+        AppUser user = new AppUser();
+        user.setUsername("journal-" + System.nanoTime());
+        user.setPassword("x");
+        user.setWalletBalance(new BigDecimal("100.00"));
+        Long userId = userRepository.save(user).getId();
+
+        assertEquals(new BigDecimal("150.00"), walletService.updateWallet(userId, new BigDecimal("50.00"), "ADD"));
+        assertEquals(new BigDecimal("120.00"), walletService.updateWallet(userId, new BigDecimal("30.00"), "SUBTRACT"));
+        assertThrows(RuntimeException.class,
+                () -> walletService.updateWallet(userId, new BigDecimal("500.00"), "SUBTRACT"));
+
+        // A posting inside a transaction that rolls back is undone and never journaled.
+        assertThrows(IllegalStateException.class, () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            walletLedger.debit(userId, new BigDecimal("20.00"), "rolled back", null, false);
+            throw new IllegalStateException("rollback");
+        }));
+        assertEquals(new BigDecimal("120.01"), walletService.updateWallet(userId, new BigDecimal("0.01"), "ADD"));
+
+        walletJournal.checkpoint();
+
+        assertEquals(0, new BigDecimal("120.01").compareTo(userRepository.findById(userId).orElseThrow().getWalletBalance()));
+        List<BigDecimal> balancesAfter = walletLogRepository.findByUserId(userId).stream()
+                .sorted(Comparator.comparing(WalletLog::getId))
+                .map(WalletLog::getBalanceAfter)
+                .toList();
+        assertEquals(3, balancesAfter.size());
+        assertEquals(0, new BigDecimal("150.00").compareTo(balancesAfter.get(0)));
+        assertEquals(0, new BigDecimal("120.00").compareTo(balancesAfter.get(1)));
+        assertEquals(0, new BigDecimal("120.01").compareTo(balancesAfter.get(2)));
+    }
+
+    @Test
+    void uncommittedCreditsCannotBeSpent() throws Exception {
+        AppUser user = new AppUser();
+        user.setUsername("pending-" + System.nanoTime());
+        user.setPassword("x");
+        user.setWalletBalance(new BigDecimal("10.00"));
+        Long userId = userRepository.save(user).getId();
+
+        // A credit and a debit held open in another transaction that finally rolls back.
+        CountDownLatch posted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> open = CompletableFuture.runAsync(() -> assertThrows(IllegalStateException.class,
+                () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    walletLedger.credit(userId, new BigDecimal("100.00"), "pending credit", null);
+                    walletLedger.debit(userId, new BigDecimal("4.00"), "pending debit", null, false);
+                    posted.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IllegalStateException("rollback");
+                })));
+        assertTrue(posted.await(10, TimeUnit.SECONDS));
+
+        RuntimeException refused = assertThrows(RuntimeException.class,
+                () -> walletJournal.post(userId, new BigDecimal("-50.00"), "spends the pending credit", null, false));
+        assertEquals("Insufficient funds", refused.getMessage());
+        // The pending debit is already held against the committed balance.
+        assertThrows(RuntimeException.class,
+                () -> walletJournal.post(userId, new BigDecimal("-7.00"), "spends the pending debit", null, false));
+        assertEquals(new BigDecimal("4.00"), walletJournal.post(userId, new BigDecimal("-6.00"), "fits", null, false));
+
+        release.countDown();
+        open.get(10, TimeUnit.SECONDS);
+        assertEquals(new BigDecimal("4.00"), walletJournal.balance(userId));
+    }
+
+    @Test
+    void recoveryReplaysLogWrittenAfterTheCheckpoint() {
+        AppUser user = new AppUser();
+        user.setUsername("recover-" + System.nanoTime());
+        user.setPassword("x");
+        user.setWalletBalance(new BigDecimal("10.00"));
+        Long userId = userRepository.save(user).getId();
+        walletJournal.checkpoint();
+
+        // As if the process died after flushing these rows but before checkpointing them.
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO wallet_log (user_id, change_amount, transaction_type, remarks, balance_after, timestamp) "
+                + "VALUES (?, 5.00, 'CREDIT', 'crash', 15.00, ?)", userId, now);
+        jdbcTemplate.update("INSERT INTO wallet_log (user_id, change_amount, transaction_type, remarks, balance_after, timestamp) "
+                + "VALUES (?, 2.00, 'DEBIT', 'crash', 13.00, ?)", userId, now);
+
+        walletJournal.recover();
+
+        assertEquals(0, new BigDecimal("13.00").compareTo(userRepository.findById(userId).orElseThrow().getWalletBalance()));
+    }
+
+    @Test
+    void statementsIncludeQueuedPostingsAndUserSavesKeepTheBalance() {
+        AppUser user = new AppUser();
+        user.setUsername("statement-journal-" + System.nanoTime());
+        user.setPassword("x");
+        user.setWalletBalance(new BigDecimal("10.00"));
+        Long userId = userRepository.save(user).getId();
+
+        // Loaded before the posting, so it carries the old balance.
+        AppUser stale = userRepository.findById(userId).orElseThrow();
+        walletLedger.credit(userId, new BigDecimal("5.00"), "queued credit", null);
+
+        // No explicit checkpoint: the statement has to flush the journal itself.
+        assertEquals(1, walletStatementService.getStatement(userId, null, null, null, 50).getItems().size());
+
+        stale.setName("Renamed");
+        userRepository.save(stale);
+        assertEquals(0, new BigDecimal("15.00").compareTo(userRepository.findById(userId).orElseThrow().getWalletBalance()));
+    }
+}
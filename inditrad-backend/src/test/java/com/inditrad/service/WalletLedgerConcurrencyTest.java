@@ -0,0 +1,178 @@
+package com.inditrad.service;
+
+import com.inditrad.entity.AppUser;
+import com.inditrad.entity.WalletLog;
+import com.inditrad.repository.AppUserRepository;
+import com.inditrad.repository.WalletLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class WalletLedgerConcurrencyTest {
+
+    private static final int USERS = 6;
+    private static final int THREADS = 12;
+    private static final int OPS_PER_THREAD = 150;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("100000.00");
+
+    @Autowired
+    private WalletLedger walletLedger;
+
+    @Autowired
+    private AppUserRepository userRepository;
+
+    @Autowired
+    private WalletLogRepository walletLogRepository;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentPostingsDoNotLoseUpdates() throws Exception {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            AppUser user = new AppUser();
+            user.setUsername("stress-" + System.nanoTime() + "-" + i);
+            user.setPassword("x");
+            user.setWalletBalance(OPENING_BALANCE);
+            userIds.add(userRepository.save(user).getId());
+        }
+
+        // Net change per user in paise, tracked independently of the ledger.
+        AtomicLongArray expectedNet = new AtomicLongArray(USERS);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int op = 0; op < OPS_PER_THREAD; op++) {
+                    // Skew towards user 0 so one wallet is heavily contended.
+                    int user = random.nextInt(4) == 0 ? 0 : random.nextInt(USERS);
+                    long paise = 1 + random.nextInt(10_000);
+                    BigDecimal amount = BigDecimal.valueOf(paise, 2);
+                    if (random.nextBoolean()) {
+                        walletLedger.credit(userIds.get(user), amount, "stress credit", null);
+                        expectedNet.addAndGet(user, paise);
+                    } else {
+                        walletLedger.debit(userIds.get(user), amount, "stress debit", null, false);
+                        expectedNet.addAndGet(user, -paise);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        int totalLogs = 0;
+        for (int i = 0; i < USERS; i++) {
+            Long userId = userIds.get(i);
+            BigDecimal expected = OPENING_BALANCE.add(BigDecimal.valueOf(expectedNet.get(i), 2));
+            BigDecimal actual = userRepository.findById(userId).orElseThrow().getWalletBalance();
+            assertEquals(0, expected.compareTo(actual), "balance drift for user " + userId);
+
+            List<WalletLog> logs = walletLogRepository.findByUserId(userId);
+            BigDecimal logged = logs.stream()
+                    .map(log -> WalletLedger.CREDIT.equals(log.getTransactionType())
+                            ? log.getChangeAmount() : log.getChangeAmount().negate())
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            assertEquals(0, BigDecimal.valueOf(expectedNet.get(i), 2).compareTo(logged),
+                    "wallet log drift for user " + userId);
+            assertTrue(logs.stream().anyMatch(log -> log.getBalanceAfter().compareTo(actual) == 0));
+            totalLogs += logs.size();
+        }
+        assertEquals(THREADS * OPS_PER_THREAD, totalLogs);
+    }
+
+    @Test
+    void adminEditsDoNotOverwriteConcurrentCredits() throws Exception {
+        AppUser user = new AppUser();
+        user.setUsername("admin-edit-" + System.nanoTime());
+        user.setPassword("x");
+        user.setWalletBalance(OPENING_BALANCE);
+        Long userId = userRepository.save(user).getId();
+
+        int credits = 300;
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?> crediting = pool.submit(() -> {
+            start.await();
+            for (int i = 0; i < credits; i++) {
+                walletLedger.credit(userId, BigDecimal.ONE, "credit during admin edits", null);
+            }
+            return null;
+        });
+        Future<?> editing = pool.submit(() -> {
+            start.await();
+            for (int i = 0; !crediting.isDone(); i++) {
+                adminService.updateUserStatus(userId, i % 2 == 0 ? "INACTIVE" : "ACTIVE");
+                adminService.updateUserInfo(userId, Map.of("name", "Edit " + i, "mobile", "98" + i));
+            }
+            return null;
+        });
+        start.countDown();
+        crediting.get(2, TimeUnit.MINUTES);
+        editing.get(2, TimeUnit.MINUTES);
+        pool.shutdown();
+
+        BigDecimal expected = OPENING_BALANCE.add(BigDecimal.valueOf(credits));
+        AppUser after = userRepository.findById(userId).orElseThrow();
+        assertEquals(0, expected.compareTo(after.getWalletBalance()));
+        assertTrue(after.getName().startsWith("Edit "));
+    }
+
+    @Test
+    void postingsAreRoundedToCentsBeforeTheyReachTheBalance() {
+        AppUser user = new AppUser();
+        user.setUsername("rounding-" + System.nanoTime());
+        user.setPassword("x");
+        user.setWalletBalance(OPENING_BALANCE);
+        Long userId = userRepository.save(user).getId();
+
+        walletLedger.credit(userId, new BigDecimal("0.005"), "half a paisa", null);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> walletLedger.withUserLocks(
+                List.of(userId), () -> walletLedger.postBatch(List.of(
+                        new WalletLedger.Posting(userId, new BigDecimal("-3.3333"), "fill", null),
+                        new WalletLedger.Posting(userId, new BigDecimal("10.125"), "fill", null)))));
+
+        BigDecimal expected = new BigDecimal("100006.81"); // + 0.01 - 3.33 + 10.13
+        assertEquals(0, expected.compareTo(walletLedger.balance(userId)));
+        BigDecimal running = OPENING_BALANCE;
+        List<WalletLog> logs = new ArrayList<>(walletLogRepository.findByUserId(userId));
+        logs.sort(Comparator.comparing(WalletLog::getId));
+        for (WalletLog log : logs) {
+            BigDecimal change = WalletLedger.CREDIT.equals(log.getTransactionType())
+                    ? log.getChangeAmount() : log.getChangeAmount().negate();
+            running = running.add(change);
+            assertEquals(0, running.compareTo(log.getBalanceAfter()), "chain breaks at entry " + log.getId());
+        }
+        assertEquals(0, expected.compareTo(running));
+    }
+}
@@ -0,0 +1,74 @@
+package com.inditrad.service;
+
+import com.inditrad.entity.AppUser;
+import com.inditrad.model.CursorPage;
+import com.inditrad.model.WalletStatementEntry;
+import com.inditrad.repository.AppUserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class WalletStatementServiceTest {
+
+    @Autowired
+    private WalletStatementService statementService;
+
+    @Autowired
+    private WalletLedger walletLedger;
+
+    @Autowired
+    private AppUserRepository userRepository;
+
+    @Test
+    void pagesAndExportsNewestFirst() {
+        AppUser user = new AppUser();
+        user.setUsername("statement-" + System.nanoTime());
+        user.setPassword("x");
+        user.setWalletBalance(BigDecimal.ZERO);
+        Long userId = userRepository.save(user).getId();
+        for (int i = 1; i <= 7; i++) {
+            walletLedger.credit(userId, BigDecimal.valueOf(i), "Deposit, #" + i, null);
+        }
+
+        List<WalletStatementEntry> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<WalletStatementEntry> page = statementService.getStatement(userId, null, null, cursor, 3);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(7, seen.size());
+        assertEquals(0, new BigDecimal("28").compareTo(seen.get(0).getBalanceAfter()));
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(seen.get(i - 1).getId() > seen.get(i).getId());
+        }
+        assertTrue(statementService.getStatement(userId, null, seen.get(6).getTimestamp(), null, 50)
+                .getItems().stream().allMatch(e -> e.getTimestamp().isBefore(seen.get(6).getTimestamp())));
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        assertEquals(7, statementService.export(userId, null, null, "csv", csv));
+        String[] csvLines = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(8, csvLines.length);
+        assertTrue(csvLines[1].endsWith(",\"Deposit, #7\""));
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        assertEquals(7, statementService.export(userId, null, null, "ndjson", ndjson));
+        String[] jsonLines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(7, jsonLines.length);
+        assertTrue(jsonLines[6].contains("\"remarks\":\"Deposit, #1\""));
+    }
+}
@@ -0,0 +1,84 @@
+package com.inditrad.service.archive;
+
+import com.inditrad.TradingFixtures;
+import com.inditrad.entity.Transaction;
+import com.inditrad.model.CursorPage;
+import com.inditrad.model.OrderFilter;
+import com.inditrad.model.OrderView;
+import com.inditrad.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class HistoryArchiverTest {
+
+    @Autowired
+    private HistoryArchiver archiver;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TradingFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void movesOldSettledHistoryAndKeepsItListed() {
+        Long userId = fixtures.newUser("archive");
+        Transaction approved = transactionService.placeTransaction(fixtures.order(userId, "1", "BUY"));
+        Transaction rejected = transactionService.placeTransaction(fixtures.order(userId, "1", "BUY"));
+        Transaction pending = transactionService.placeTransaction(fixtures.order(userId, "1", "BUY"));
+        transactionService.processOrder(approved.getId(), "approve");
+        transactionService.processOrder(rejected.getId(), "reject");
+        LocalDateTime old = LocalDateTime.now().minusDays(200);
+        for (Transaction txn : List.of(approved, rejected, pending)) {
+            jdbcTemplate.update("UPDATE transaction SET timestamp = ? WHERE id = ?",
+                    Timestamp.valueOf(old.plusMinutes(txn.getId())), txn.getId());
+        }
+        String message = "archive-test-" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO notification (message, read_status, created_at) VALUES (?, TRUE, ?)",
+                message, Timestamp.valueOf(old));
+        jdbcTemplate.update("INSERT INTO notification (message, read_status, created_at) VALUES (?, FALSE, ?)",
+                message, Timestamp.valueOf(old));
+
+        archiver.archive(LocalDateTime.now().minusDays(90));
+
+        assertEquals(List.of(pending.getId()), ids(page(userId, false, null, 10)));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transaction_archive WHERE user_id = ?", Integer.class, userId));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notification WHERE message = ? AND read_status = FALSE", Integer.class, message));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notification WHERE message = ? AND read_status = TRUE", Integer.class, message));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notification_archive WHERE message = ?", Integer.class, message));
+
+        // Listings page through both tables in one newest-first order.
+        CursorPage<OrderView> first = page(userId, true, null, 2);
+        assertEquals(List.of(pending.getId(), rejected.getId()), ids(first));
+        CursorPage<OrderView> second = page(userId, true, first.getNextCursor(), 2);
+        assertEquals(List.of(approved.getId()), ids(second));
+        assertEquals("APPROVED", second.getItems().get(0).getStatus());
+        assertNull(second.getNextCursor());
+    }
+
+    private CursorPage<OrderView> page(Long userId, boolean includeArchived, String cursor, int limit) {
+        OrderFilter filter = OrderFilter.builder().userId(userId).includeArchived(includeArchived).build();
+        return transactionService.getOrders(filter, cursor, limit);
+    }
+
+    private static List<Long> ids(CursorPage<OrderView> page) {
+        return page.getItems().stream().map(OrderView::getId).toList();
+    }
+}
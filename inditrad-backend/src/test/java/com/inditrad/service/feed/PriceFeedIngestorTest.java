@@ -0,0 +1,71 @@
+package com.inditrad.service.feed;
+
+import com.inditrad.service.CommodityPriceBook;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "inditrad.feed.source=replay",
+        "inditrad.feed.replay.speed=0",
+        "inditrad.feed.publish-interval-ms=20",
+        // Own database, so this context's schema lifecycle does not affect the shared one.
+        "spring.datasource.url=jdbc:h2:mem:feed;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"
+})
+class PriceFeedIngestorTest {
+
+    private static final int TICKS = 2_000;
+
+    @Autowired
+    private PriceFeedIngestor ingestor;
+
+    @Autowired
+    private CommodityPriceBook priceBook;
+
+    @DynamicPropertySource
+    static void replayFile(DynamicPropertyRegistry registry) {
+        try {
+            Path file = Files.createTempFile("ticks", ".csv");
+            file.toFile().deleteOnExit();
+            List<String> lines = new ArrayList<>();
+            lines.add("# offsetMillis,commodityId,price");
+            for (int i = 1; i <= TICKS; i++) {
+                lines.add(i + "," + (i % 2 + 1) + "," + (100 + i) + ".25");
+            }
+            lines.add("not,a,tick");
+            lines.add((TICKS + 1) + ",999,1.00");
+            Files.write(file, lines);
+            registry.add("inditrad.feed.replay.source", () -> file.toUri().toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    void coalescesTicksBeforePublishing() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (priceBook.get(1L).orElseThrow().getCurrentPrice().compareTo(new BigDecimal("2100.25")) != 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(0, new BigDecimal("2100.25").compareTo(priceBook.get(1L).orElseThrow().getCurrentPrice()));
+        assertEquals(0, new BigDecimal("2099.25").compareTo(priceBook.get(2L).orElseThrow().getCurrentPrice()));
+        assertEquals(TICKS + 1, ingestor.getReceivedTicks());
+        assertTrue(ingestor.getPublishedTicks() < TICKS / 10, "published " + ingestor.getPublishedTicks());
+        assertTrue(priceBook.getSnapshot().getVersion() < TICKS / 10);
+    }
+}
@@ -0,0 +1,76 @@
+package com.inditrad.service.history;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PriceSeriesTest {
+
+    private static final long MINUTE = 60_000;
+
+    private final PriceSeries series = new PriceSeries(4, 3);
+
+    @Test
+    void foldsTicksIntoCandlesPerResolution() {
+        series.append(10 * MINUTE, 100);
+        series.append(10 * MINUTE + 5_000, 120);
+        series.append(10 * MINUTE + 50_000, 90);
+        series.append(11 * MINUTE, 95);
+        series.append(14 * MINUTE + 59_000, 110);
+
+        long[][] minutes = series.candles(CandleResolution.ONE_MINUTE, Long.MIN_VALUE, Long.MAX_VALUE, 10);
+        assertEquals(3, minutes.length);
+        assertArrayEquals(new long[]{10 * MINUTE, 100, 120, 90, 90, 3}, minutes[0]);
+        assertArrayEquals(new long[]{11 * MINUTE, 95, 95, 95, 95, 1}, minutes[1]);
+        assertArrayEquals(new long[]{14 * MINUTE, 110, 110, 110, 110, 1}, minutes[2]);
+
+        long[][] fiveMinutes = series.candles(CandleResolution.FIVE_MINUTES, Long.MIN_VALUE, Long.MAX_VALUE, 10);
+        assertEquals(1, fiveMinutes.length);
+        assertArrayEquals(new long[]{10 * MINUTE, 100, 120, 90, 110, 5}, fiveMinutes[0]);
+    }
+
+    @Test
+    void keepsTheMostRecentCandlesInRange() {
+        for (int minute = 0; minute < 5; minute++) {
+            series.append(minute * MINUTE, 100 + minute);
+        }
+
+        long[][] all = series.candles(CandleResolution.ONE_MINUTE, Long.MIN_VALUE, Long.MAX_VALUE, 10);
+        assertEquals(3, all.length);
+        assertEquals(2 * MINUTE, all[0][0]);
+
+        long[][] limited = series.candles(CandleResolution.ONE_MINUTE, 0, 4 * MINUTE, 1);
+        assertEquals(1, limited.length);
+        assertEquals(3 * MINUTE, limited[0][0]);
+    }
+
+    @Test
+    void lateTicksJoinTheLatestCandle() {
+        series.append(5 * MINUTE, 100);
+        series.append(4 * MINUTE, 80);
+
+        long[][] minutes = series.candles(CandleResolution.ONE_MINUTE, Long.MIN_VALUE, Long.MAX_VALUE, 10);
+        assertEquals(1, minutes.length);
+        assertArrayEquals(new long[]{5 * MINUTE, 100, 100, 80, 80, 2}, minutes[0]);
+    }
+
+    @Test
+    void tracksUnflushedTicksAcrossWraparound() {
+        long[] times = new long[4];
+        long[] prices = new long[4];
+        series.replay(0, 100);
+        for (int i = 1; i <= 6; i++) {
+            series.append(i * 1_000, 100 + i);
+        }
+
+        assertEquals(2, series.overwrittenSinceFlush());
+        assertEquals(3, series.unflushedFrom());
+        assertEquals(7, series.copyUnflushed(times, prices));
+        assertArrayEquals(new long[]{103, 104, 105, 106}, prices);
+
+        series.markFlushed(7);
+        assertEquals(0, series.overwrittenSinceFlush());
+        assertEquals(7, series.copyUnflushed(times, prices));
+    }
+}
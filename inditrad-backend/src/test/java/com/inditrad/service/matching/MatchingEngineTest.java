@@ -0,0 +1,121 @@
+package com.inditrad.service.matching;
+
+import com.inditrad.entity.AppUser;
+import com.inditrad.entity.Commodity;
+import com.inditrad.entity.Transaction;
+import com.inditrad.event.OrderEvent;
+import com.inditrad.repository.TransactionRepository;
+import com.inditrad.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MatchingEngineTest {
+
+    private final TransactionService transactionService = mock(TransactionService.class);
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final List<List<Trade>> recorded = new CopyOnWriteArrayList<>();
+    private MatchingEngine engine;
+
+    @AfterEach
+    void shutDown() throws InterruptedException {
+        engine.shutdown();
+    }
+
+    @Test
+    void retriesFailedBatchesAndHaltsWithoutLosingTrades() {
+        AtomicInteger attempts = new AtomicInteger();
+        when(transactionService.recordFills(anyList())).thenAnswer(invocation -> {
+            if (attempts.incrementAndGet() <= 3) {
+                throw new IllegalStateException("database unavailable");
+            }
+            recorded.add(new ArrayList<>(invocation.<List<Trade>>getArgument(0)));
+            return List.of();
+        });
+        engine = new MatchingEngine(transactionService, transactionRepository, 16, 10, 5_000, 2, 10);
+
+        engine.onOrder(order(1L, "BUY", "2"));
+        engine.onOrder(order(2L, "SELL", "2"));
+        // Returns only once the trade is persisted, which takes the fourth attempt.
+        engine.withdraw(List.of());
+
+        assertEquals(4, attempts.get());
+        assertEquals(1, recorded.size());
+        Trade trade = recorded.get(0).get(0);
+        assertEquals(2L, trade.getTaker().getOrderId());
+        assertEquals(1L, trade.getMaker().getOrderId());
+        assertTrue(engine.isHalted());
+
+        // A halted engine matches nothing further.
+        engine.onOrder(order(3L, "BUY", "1"));
+        engine.onOrder(order(4L, "SELL", "1"));
+        engine.withdraw(List.of());
+        assertEquals(1, recorded.size());
+    }
+
+    @Test
+    void givesDroppedQuantityBackToTheSurvivingOrder() {
+        when(transactionService.recordFills(anyList())).thenAnswer(invocation -> {
+            List<Trade> trades = new ArrayList<>(invocation.<List<Trade>>getArgument(0));
+            recorded.add(trades);
+            // The first trade is dropped because its SELL was settled meanwhile; the BUY survives.
+            return recorded.size() == 1 ? List.of(trades.get(0).getMaker()) : List.of();
+        });
+        when(transactionRepository.findAllById(any())).thenReturn(List.of(pendingBuy(1L, "2")));
+        engine = new MatchingEngine(transactionService, transactionRepository, 16, 10, 5_000, 2, 10);
+
+        engine.onOrder(order(1L, "BUY", "2"));
+        engine.onOrder(order(2L, "SELL", "2"));
+        engine.withdraw(List.of());
+        engine.onOrder(order(3L, "SELL", "2"));
+        engine.withdraw(List.of());
+
+        assertEquals(2, recorded.size());
+        Trade refilled = recorded.get(1).get(0);
+        assertEquals(1L, refilled.getMaker().getOrderId());
+        assertEquals(0, new BigDecimal("2").compareTo(refilled.getMaker().getQuantity()));
+        assertTrue(refilled.getMaker().isCompleted());
+        assertFalse(engine.isHalted());
+    }
+
+    private static OrderEvent order(Long id, String type, String quantity) {
+        return OrderEvent.builder()
+                .id(id)
+                .userId(id + 100)
+                .commodityId(7L)
+                .type(type)
+                .quantity(new BigDecimal(quantity))
+                .price(new BigDecimal("100.00"))
+                .status("PENDING")
+                .build();
+    }
+
+    private static Transaction pendingBuy(Long id, String quantity) {
+        AppUser user = new AppUser();
+        user.setId(id + 100);
+        Commodity commodity = new Commodity();
+        commodity.setId(7L);
+        return Transaction.builder()
+                .id(id)
+                .user(user)
+                .commodity(commodity)
+                .type("BUY")
+                .quantity(new BigDecimal(quantity))
+                .price(new BigDecimal("100.00"))
+                .status("PENDING")
+                .build();
+    }
+}
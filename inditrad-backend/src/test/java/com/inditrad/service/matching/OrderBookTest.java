@@ -0,0 +1,82 @@
+package com.inditrad.service.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderBookTest {
+
+    private final OrderBook book = new OrderBook();
+    private final List<long[]> fills = new ArrayList<>();
+    private final OrderBook.FillHandler recorder = (taker, maker, price, quantity, takerRemaining, makerRemaining) ->
+            fills.add(new long[]{taker, maker, price, quantity, takerRemaining, makerRemaining});
+
+    @Test
+    void crossesByPriceThenTimeAtMakerPrice() {
+        book.submit(1, false, 10_100, 5, recorder);
+        book.submit(2, false, 10_000, 5, recorder);
+        book.submit(3, false, 10_000, 5, recorder);
+
+        long remaining = book.submit(4, true, 10_100, 12, recorder);
+
+        assertEquals(0, remaining);
+        assertEquals(3, fills.size());
+        assertFill(fills.get(0), 4, 2, 10_000, 5);
+        assertFill(fills.get(1), 4, 3, 10_000, 5);
+        assertFill(fills.get(2), 4, 1, 10_100, 2);
+        assertEquals(3, book.depthAt(false, 10_100));
+        assertEquals(10_100, book.bestAsk());
+    }
+
+    @Test
+    void restsRemainderWhenLimitDoesNotCross() {
+        book.submit(1, false, 10_050, 5, recorder);
+
+        long remaining = book.submit(2, true, 10_000, 7, recorder);
+
+        assertEquals(7, remaining);
+        assertEquals(0, fills.size());
+        assertEquals(10_000, book.bestBid());
+        assertEquals(10_050, book.bestAsk());
+    }
+
+    @Test
+    void cancelledOrdersAreSkipped() {
+        book.submit(1, true, 9_900, 5, recorder);
+        book.submit(2, true, 9_900, 5, recorder);
+        book.submit(3, true, 9_900, 5, recorder);
+
+        assertEquals(5, book.cancel(2, true, 9_900));
+        assertEquals(0, book.cancel(2, true, 9_900));
+        book.submit(4, false, 9_900, 8, recorder);
+
+        assertEquals(2, fills.size());
+        assertFill(fills.get(0), 4, 1, 9_900, 5);
+        assertFill(fills.get(1), 4, 3, 9_900, 3);
+        assertEquals(2, book.depthAt(true, 9_900));
+    }
+
+    @Test
+    void emptiedLevelsLeaveTheBook() {
+        for (int i = 0; i < 100; i++) {
+            book.submit(i, true, 9_000 + i, 1, recorder);
+        }
+        assertEquals(100, book.levelCount(true));
+
+        book.submit(1_000, false, 9_000, 100, recorder);
+
+        assertEquals(0, book.levelCount(true));
+        assertEquals(Long.MIN_VALUE, book.bestBid());
+        assertEquals(9_099, fills.get(0)[2]);
+    }
+
+    private static void assertFill(long[] fill, long taker, long maker, long price, long quantity) {
+        assertEquals(taker, fill[0]);
+        assertEquals(maker, fill[1]);
+        assertEquals(price, fill[2]);
+        assertEquals(quantity, fill[3]);
+    }
+}
@@ -0,0 +1,127 @@
+package com.inditrad.service.positions;
+
+import com.inditrad.TradingFixtures;
+import com.inditrad.entity.Transaction;
+import com.inditrad.model.PortfolioView;
+import com.inditrad.model.PositionView;
+import com.inditrad.repository.AppUserRepository;
+import com.inditrad.service.TransactionService;
+import com.inditrad.service.matching.Fill;
+import com.inditrad.service.matching.Trade;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class PositionServiceTest {
+
+    @Autowired
+    private PositionService positionService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AppUserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TradingFixtures fixtures;
+
+    @Test
+    void averagesCostAndRealizesOnClose() {
+        Position position = Position.FLAT
+                .apply("BUY", new BigDecimal("10"), new BigDecimal("100"))
+                .apply("BUY", new BigDecimal("10"), new BigDecimal("110"));
+        assertPosition(position, "20", "105", "0");
+
+        position = position.apply("SELL", new BigDecimal("15"), new BigDecimal("120"));
+        assertPosition(position, "5", "105", "225");
+
+        // Selling through zero closes the long at a loss and opens a short at the sale price.
+        position = position.apply("SELL", new BigDecimal("10"), new BigDecimal("100"));
+        assertPosition(position, "-5", "100", "200");
+
+        position = position.apply("BUY", new BigDecimal("5"), new BigDecimal("90"));
+        assertPosition(position, "0", "0", "250");
+        assertEquals(5, position.getVersion());
+    }
+
+    @Test
+    void followsSettlementsAndFills() {
+        Long userId = fixtures.newUser("positions");
+        Long sellerId = fixtures.newUser("positions");
+        Long commodityId = fixtures.commodityId();
+
+        Transaction buy = transactionService.placeTransaction(fixtures.order(userId, "4", "BUY"));
+        Transaction resting = transactionService.placeTransaction(fixtures.order(sellerId, "4", "SELL"));
+        // One lot fills below the order price; approval settles the other three at the order price.
+        BigDecimal fillPrice = buy.getPrice().subtract(BigDecimal.ONE);
+        transactionService.recordFills(List.of(new Trade(
+                new Fill(buy.getId(), userId, commodityId, "BUY", fillPrice, BigDecimal.ONE, false),
+                new Fill(resting.getId(), sellerId, commodityId, "SELL", fillPrice, BigDecimal.ONE, false))));
+        transactionService.processOrder(buy.getId(), "approve");
+        Transaction sell = transactionService.placeTransaction(fixtures.order(userId, "1", "SELL"));
+        transactionService.processOrder(sell.getId(), "approve");
+
+        BigDecimal averageCost = buy.getPrice().multiply(new BigDecimal("3")).add(fillPrice)
+                .divide(new BigDecimal("4"), Position.SCALE, RoundingMode.HALF_EVEN);
+        BigDecimal realized = sell.getPrice().subtract(averageCost).setScale(2, RoundingMode.HALF_UP);
+
+        PortfolioView portfolio = positionService.getPortfolio(userId);
+        assertEquals(1, portfolio.getPositions().size());
+        PositionView view = portfolio.getPositions().get(0);
+        assertEquals(0, new BigDecimal("3").compareTo(view.getQuantity()));
+        assertEquals(0, averageCost.compareTo(view.getAverageCost()));
+        assertEquals(0, realized.compareTo(view.getRealizedPnl()));
+        assertEquals(0, view.getMarketPrice().subtract(averageCost).multiply(view.getQuantity())
+                .setScale(2, RoundingMode.HALF_UP).compareTo(view.getUnrealizedPnl()));
+        assertEquals(0, realized.compareTo(portfolio.getRealizedPnl()));
+
+        // The snapshot table matches memory, so a restart picks up where this left off.
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT quantity, average_cost, version FROM user_position WHERE user_id = ? AND commodity_id = ?",
+                userId, commodityId);
+        assertEquals(0, new BigDecimal("3").compareTo((BigDecimal) row.get("QUANTITY")));
+        assertEquals(0, averageCost.compareTo((BigDecimal) row.get("AVERAGE_COST")));
+        assertEquals(3L, ((Number) row.get("VERSION")).longValue());
+    }
+
+    @Test
+    void dropsBothSidesOfATradeWhenEitherOrderIsSettled() {
+        Long buyerId = fixtures.newUser("positions");
+        Long sellerId = fixtures.newUser("positions");
+        Long commodityId = fixtures.commodityId();
+        Transaction buy = transactionService.placeTransaction(fixtures.order(buyerId, "2", "BUY"));
+        Transaction sell = transactionService.placeTransaction(fixtures.order(sellerId, "2", "SELL"));
+        transactionService.processOrder(sell.getId(), "reject");
+
+        transactionService.recordFills(List.of(new Trade(
+                new Fill(buy.getId(), buyerId, commodityId, "BUY", buy.getPrice(), BigDecimal.ONE, false),
+                new Fill(sell.getId(), sellerId, commodityId, "SELL", buy.getPrice(), BigDecimal.ONE, false))));
+
+        assertNull(jdbcTemplate.queryForObject(
+                "SELECT filled_quantity FROM transaction WHERE id = ?", BigDecimal.class, buy.getId()));
+        assertEquals(0, TradingFixtures.DEFAULT_BALANCE.compareTo(
+                userRepository.findById(buyerId).orElseThrow().getWalletBalance()));
+        assertTrue(positionService.getPortfolio(buyerId).getPositions().isEmpty());
+    }
+
+    private static void assertPosition(Position position, String quantity, String averageCost, String realizedPnl) {
+        assertEquals(0, new BigDecimal(quantity).compareTo(position.getQuantity()));
+        assertEquals(0, new BigDecimal(averageCost).compareTo(position.getAverageCost()));
+        assertEquals(0, new BigDecimal(realizedPnl).compareTo(position.getRealizedPnl()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.inditrad.service.risk;
+
+import com.inditrad.TradingFixtures;
+import com.inditrad.entity.Transaction;
+import com.inditrad.repository.AppUserRepository;
+import com.inditrad.repository.TransactionRepository;
+import com.inditrad.service.CommodityPriceBook;
+import com.inditrad.service.TransactionService;
+import com.inditrad.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class RiskEngineTest {
+
+    @Autowired
+    private RiskEngine riskEngine;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AppUserRepository userRepository;
+
+    @Autowired
+    private CommodityPriceBook priceBook;
+
+    @Autowired
+    private TradingFixtures fixtures;
+
+    @Test
+    void reservesBuyOrdersAgainstAvailableBalance() {
+        BigDecimal price = priceBook.getAll().get(0).getCurrentPrice();
+        BigDecimal balance = price.multiply(BigDecimal.TEN);
+        Long userId = fixtures.newUser("risk", balance);
+
+        Transaction first = transactionService.placeTransaction(fixtures.order(userId, "6", "BUY"));
+        Transaction second = transactionService.placeTransaction(fixtures.order(userId, "2", "BUY"));
+        BigDecimal reserved = first.getPrice().multiply(first.getQuantity()).add(second.getPrice().multiply(second.getQuantity()));
+        assertEquals(0, reserved.compareTo(riskEngine.getReserved(userId)));
+
+        // Eight of ten are reserved, so neither a larger order nor a larger withdrawal fits.
+        RuntimeException rejected = assertThrows(RuntimeException.class,
+                () -> transactionService.placeTransaction(fixtures.order(userId, "5", "BUY")));
+        assertEquals("Insufficient funds", rejected.getMessage());
+        assertEquals(2, transactionRepository.findByUserId(userId).size());
+        assertThrows(RuntimeException.class,
+                () -> walletService.updateWallet(userId, balance.subtract(reserved).add(BigDecimal.ONE), "subtract"));
+
+        transactionService.processOrder(second.getId(), "reject");
+        assertEquals(0, first.getPrice().multiply(first.getQuantity()).compareTo(riskEngine.getReserved(userId)));
+
+        transactionService.processOrder(first.getId(), "approve");
+        BigDecimal settled = userRepository.findById(userId).orElseThrow().getWalletBalance();
+        assertEquals(0, BigDecimal.ZERO.compareTo(riskEngine.getReserved(userId)));
+        assertEquals(0, settled.compareTo(riskEngine.getAvailable(userId)));
+        assertEquals(0, balance.subtract(first.getPrice().multiply(first.getQuantity())).compareTo(settled));
+    }
+
+    @Test
+    void releasesReservationAsOrdersFill() {
+        Long userId = fixtures.newUser("risk", new BigDecimal("1000.00"));
+        riskEngine.reserveOrder(userId, -42L, new BigDecimal("10.00"), new BigDecimal("30"));
+        assertEquals(0, new BigDecimal("700.00").compareTo(riskEngine.getAvailable(userId)));
+
+        riskEngine.fillOrder(-42L, new BigDecimal("10"));
+        assertEquals(0, new BigDecimal("200.00").compareTo(riskEngine.getReserved(userId)));
+        riskEngine.fillOrder(-42L, new BigDecimal("25"));
+        assertEquals(0, BigDecimal.ZERO.compareTo(riskEngine.getReserved(userId)));
+        riskEngine.releaseOrder(-42L);
+        assertEquals(0, new BigDecimal("1000.00").compareTo(riskEngine.getAvailable(userId)));
+    }
+}
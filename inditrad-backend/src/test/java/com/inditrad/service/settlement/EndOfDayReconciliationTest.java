@@ -0,0 +1,100 @@
+package com.inditrad.service.settlement;
+
+import com.inditrad.TradingFixtures;
+import com.inditrad.entity.EodDiscrepancy;
+import com.inditrad.entity.EodRun;
+import com.inditrad.entity.Transaction;
+import com.inditrad.model.EodReport;
+import com.inditrad.service.TransactionService;
+import com.inditrad.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class EndOfDayReconciliationTest {
+
+    @Autowired
+    private EndOfDayReconciliation reconciliation;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TradingFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reportsBrokenBooksAndNothingElse() {
+        Long clean = fixtures.newUser("eod", new BigDecimal("100000.00"));
+        Long tampered = fixtures.newUser("eod", new BigDecimal("100000.00"));
+        for (Long userId : List.of(clean, tampered)) {
+            walletService.updateWallet(userId, new BigDecimal("250.00"), "add");
+            transactionService.processOrder(transactionService.placeTransaction(fixtures.order(userId, "2", "BUY")).getId(), "approve");
+            transactionService.processOrder(transactionService.placeTransaction(fixtures.order(userId, "2", "SELL")).getId(), "reject");
+        }
+        // A balance edited behind the ledger's back, and an order approved without settling.
+        jdbcTemplate.update("UPDATE app_user SET wallet_balance = wallet_balance + 1 WHERE id = ?", tampered);
+        Transaction unsettled = transactionService.placeTransaction(fixtures.order(tampered, "2", "BUY"));
+        jdbcTemplate.update("UPDATE transaction SET status = 'APPROVED' WHERE id = ?", unsettled.getId());
+
+        EodRun run = reconciliation.run(LocalDate.of(2001, 1, 1));
+        assertEquals(EodRun.COMPLETED, run.getStatus());
+        assertTrue(run.getUsers() >= 2);
+
+        List<EodDiscrepancy> found = reconciliation.getReport(run.getBusinessDate(), 1000).getDiscrepancies().stream()
+                .filter(discrepancy -> Set.of(clean, tampered).contains(discrepancy.getUserId()))
+                .toList();
+        assertEquals(2, found.size());
+        EodDiscrepancy balance = found.stream()
+                .filter(discrepancy -> EodDiscrepancy.BALANCE_MISMATCH.equals(discrepancy.getKind())).findFirst().orElseThrow();
+        assertEquals(tampered, balance.getUserId());
+        assertEquals(0, BigDecimal.ONE.compareTo(balance.getActual().subtract(balance.getExpected())));
+        EodDiscrepancy settlement = found.stream()
+                .filter(discrepancy -> EodDiscrepancy.SETTLEMENT_MISMATCH.equals(discrepancy.getKind())).findFirst().orElseThrow();
+        assertEquals(unsettled.getId(), settlement.getOrderId());
+        assertEquals(0, BigDecimal.ZERO.compareTo(settlement.getActual()));
+
+        // A completed date is not run again.
+        assertEquals(run.getDiscrepancies(), reconciliation.run(run.getBusinessDate()).getDiscrepancies());
+    }
+
+    @Test
+    void resumesFromCheckpointedPartitions() {
+        Long tampered = fixtures.newUser("eod", new BigDecimal("100000.00"));
+        walletService.updateWallet(tampered, new BigDecimal("250.00"), "add");
+        jdbcTemplate.update("UPDATE app_user SET wallet_balance = wallet_balance + 1 WHERE id = ?", tampered);
+
+        // An interrupted run whose only partition had already been checkpointed.
+        LocalDate businessDate = LocalDate.of(2001, 1, 2);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO eod_run (business_date, status, max_user_id, partition_size, partitions, started_at) "
+                + "VALUES (?, 'RUNNING', ?, ?, 1, ?)", businessDate, tampered, tampered + 1, now);
+        Long runId = jdbcTemplate.queryForObject("SELECT id FROM eod_run WHERE business_date = ?", Long.class, businessDate);
+        jdbcTemplate.update("INSERT INTO eod_partition (run_id, partition_index, users, discrepancies, completed_at) "
+                + "VALUES (?, 0, 7, 0, ?)", runId, now);
+
+        EodRun run = reconciliation.run(businessDate);
+        assertEquals(EodRun.COMPLETED, run.getStatus());
+        assertEquals(7L, run.getUsers());
+        EodReport report = reconciliation.getReport(businessDate, 10);
+        assertEquals(1, report.getCompletedPartitions());
+        assertTrue(report.getDiscrepancies().isEmpty());
+    }
+}
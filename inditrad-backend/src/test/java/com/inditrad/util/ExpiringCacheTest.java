@@ -0,0 +1,61 @@
+package com.inditrad.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpiringCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    @Test
+    void entriesExpireAtTheirOwnDeadline() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, now::get);
+        cache.put("short", "a", 1_100);
+        cache.put("long", "b", 5_000);
+        cache.put("stale", "c", 900);
+
+        assertEquals("a", cache.get("short"));
+        assertNull(cache.get("stale"));
+
+        now.set(1_100);
+        assertNull(cache.get("short"));
+        assertEquals("b", cache.get("long"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void staysWithinBoundPreferringToDropExpiredEntries() {
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(3, now::get);
+        cache.put(1, 1, 1_050);
+        cache.put(2, 2, 9_000);
+        cache.put(3, 3, 9_000);
+
+        now.set(1_060);
+        cache.put(4, 4, 9_000);
+        assertEquals(3, cache.size());
+        assertEquals(2, cache.get(2));
+        assertEquals(3, cache.get(3));
+
+        for (int i = 5; i < 50; i++) {
+            cache.put(i, i, 9_000);
+            assertTrue(cache.size() <= 3);
+        }
+        assertEquals(49, cache.get(49));
+    }
+
+    @Test
+    void putIfAbsentKeepsLiveValueAndReplacesExpiredOne() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, now::get);
+        assertNull(cache.putIfAbsent("key", "first", 2_000));
+        assertEquals("first", cache.putIfAbsent("key", "second", 3_000));
+
+        now.set(2_000);
+        assertNull(cache.putIfAbsent("key", "third", 3_000));
+        assertEquals("third", cache.get("key"));
+    }
+}